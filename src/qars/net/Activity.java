@@ -0,0 +1,76 @@
+package qars.net;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Keeps track of when a connection last heard from its client and how many
+ * of its actions are still being performed. A connection is idle only when
+ * nothing has arrived for a while and the server is not working on its
+ * behalf, so a client waiting on a long transfer is never taken for
+ * dead.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Activity {
+    private volatile long last;                 // when a frame last arrived
+    private AtomicInteger active;        // actions still being performed
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Activity, counting the connection as just heard from.
+     */
+    public Activity() {
+        this.last = System.currentTimeMillis();
+        this.active = new AtomicInteger(0);
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Records that something arrived from the client.
+     */
+    public void touch() {
+        this.last = System.currentTimeMillis();
+    }
+
+    /**
+     * Records that an action has started.
+     */
+    public void begin() {
+        this.active.incrementAndGet();
+    }
+
+    /**
+     * Records that an action has finished, which also counts as activity.
+     */
+    public void end() {
+        this.active.decrementAndGet();
+        touch();
+    }
+
+    /**
+     * @return When something last arrived from the client, in milliseconds.
+     */
+    public long getLast() {
+        return this.last;
+    }
+
+    /**
+     * @return Number of actions still being performed.
+     */
+    public int getActive() {
+        return this.active.get();
+    }
+
+    /**
+     * Determines whether the connection has gone quiet.
+     * @param now The current time in milliseconds.
+     * @param timeout Milliseconds without activity that make it idle.
+     * @return true if nothing is being performed and nothing has arrived
+     * within the timeout.
+     */
+    public boolean isIdle(long now, long timeout) {
+        return this.active.get() == 0 && now - this.last > timeout;
+    }
+}
@@ -0,0 +1,210 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import qars.util.SCR;
+
+/**
+ * <p>The cold tier of SCRs: SCRs nobody has saved for a long time, kept out
+ * of memory and out of the SCR list in compressed segment files. Each run
+ * of archiving writes one segment holding every SCR it moves. Only an index
+ * of which segment holds which SCR is kept in memory; it is saved by the
+ * Storage, so a segment is only trusted once something the Storage saved
+ * names it.</p>
+ *
+ * <p>An SCR asked for by id is read back out of its segment. Once it is back
+ * among the active SCRs it is forgotten here, and a segment nothing refers
+ * to any more is deleted the next time the Storage prunes.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Archive {
+    // segment file names start with this and end with SUFFIX
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".gz";
+
+    private java.io.File dir;
+    private ConcurrentHashMap<String, String> index;  // id to segment name
+    private Set<String> writing;           // segments not yet done with
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Archive, making its directory if there is none.
+     * @param path Name of the directory the segments are kept in.
+     * @throws IOException if the directory cannot be made.
+     */
+    public Archive(String path) throws IOException {
+        this.dir = new java.io.File(path);
+        if (!this.dir.isDirectory() && !this.dir.mkdirs()) {
+            throw new IOException("Could not create " + path);
+        }
+        this.index = new ConcurrentHashMap<String, String>();
+        this.writing = Collections.newSetFromMap(
+            new ConcurrentHashMap<String, Boolean>());
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Adds entries saved with a snapshot to the index.
+     * @param saved Lower case SCR id to segment name; may be null.
+     */
+    public void load(HashMap<String, String> saved) {
+        if (saved != null) {
+            this.index.putAll(saved);
+        }
+    }
+
+    /**
+     * Copies the index to be saved with a snapshot.
+     * @return Lower case SCR id to segment name.
+     */
+    public HashMap<String, String> getIndex() {
+        return new HashMap<String, String>(this.index);
+    }
+
+    /**
+     * Finds out whether an SCR is archived.
+     * @param id SCR id, in any case.
+     * @return true if the SCR is in a segment.
+     */
+    public boolean contains(String id) {
+        return this.index.containsKey(id.toLowerCase());
+    }
+
+    /**
+     * @return The number of SCRs archived.
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Writes SCRs to a new segment and forces it to disk. The index is not
+     * changed; call moved for each SCR once it is out of the active list.
+     * @param scrs The SCRs to archive.
+     * @return The name of the segment.
+     * @throws IOException if the segment could not be written.
+     */
+    public String write(ArrayList<SCR> scrs) throws IOException {
+        String name = PREFIX + System.currentTimeMillis() + SUFFIX;
+        java.io.File f = new java.io.File(this.dir, name);
+        for (int n = 1; f.exists(); n++) {
+            name = PREFIX + System.currentTimeMillis() + "-" + n + SUFFIX;
+            f = new java.io.File(this.dir, name);
+        }
+        this.writing.add(name);
+        java.io.File tmp = new java.io.File(this.dir, name + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            GZIPOutputStream gz =
+                new GZIPOutputStream(new BufferedOutputStream(fos));
+            ObjectOutputStream oos = new ObjectOutputStream(gz);
+            oos.writeInt(scrs.size());
+            for (int i = 0; i < scrs.size(); i++) {
+                oos.writeObject(scrs.get(i));
+            }
+            oos.flush();
+            gz.finish();
+            gz.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(f)) {
+            tmp.delete();
+            this.writing.remove(name);
+            throw new IOException("Could not create " + f);
+        }
+        return name;
+    }
+
+    /**
+     * Records that an SCR written to a segment has left the active list.
+     * @param id SCR id, in any case.
+     * @param segment The name write returned.
+     */
+    public void moved(String id, String segment) {
+        this.index.put(id.toLowerCase(), segment);
+    }
+
+    /**
+     * Lets prune delete a segment again once every SCR written to it has been
+     * moved, or has stayed active.
+     * @param segment The name write returned.
+     */
+    public void done(String segment) {
+        this.writing.remove(segment);
+    }
+
+    /**
+     * Reads an archived SCR out of its segment. It stays in the index until
+     * forget is called.
+     * @param id SCR id, in any case.
+     * @return The SCR, or null if it is not archived.
+     * @throws IOException if its segment cannot be read.
+     */
+    public SCR read(String id) throws IOException {
+        String key = id.toLowerCase();
+        String name = this.index.get(key);
+        if (name == null) {
+            return null;
+        }
+        ObjectInputStream ois = new ObjectInputStream(new GZIPInputStream(
+            new BufferedInputStream(new FileInputStream(
+                new java.io.File(this.dir, name)))));
+        try {
+            int count = ois.readInt();
+            for (int i = 0; i < count; i++) {
+                SCR s = (SCR) ois.readObject();
+                if (s.toString().toLowerCase().equals(key)) {
+                    return s;
+                }
+            }
+            throw new IOException("SCR " + id + " missing from " + name);
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Drops an SCR from the index, once it is active again or deleted.
+     * @param id SCR id, in any case.
+     */
+    public void forget(String id) {
+        this.index.remove(id.toLowerCase());
+    }
+
+    /**
+     * Deletes every segment that neither a saved index nor the index in
+     * memory refers to, skipping segments still being written. Call only once
+     * that index is safely on disk.
+     * @param saved The index that was saved.
+     */
+    public void prune(HashMap<String, String> saved) {
+        HashSet<String> used = new HashSet<String>(saved.values());
+        used.addAll(this.index.values());
+        used.addAll(this.writing);
+        String[] names = this.dir.list();
+        if (names == null) {
+            return;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].startsWith(PREFIX) && !used.contains(names[i])) {
+                new java.io.File(this.dir, names[i]).delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package qars.net;
+
+import java.io.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import qars.util.TimeStamp;
+
+/**
+ * <p>Writes the server log on a thread of its own. Callers only add a record
+ * to a lock-free queue; the writer takes records off in batches, formats
+ * them and flushes once enough bytes have gathered or the oldest unflushed
+ * record has waited long enough, so many messages share one write.</p>
+ *
+ * <p>The queue holds a limited number of records. When it is full a caller
+ * either waits for room or, if the log was created to drop, the record is
+ * counted and thrown away; the count is written to the log once there is
+ * room again. Closing the log writes everything still queued and forces it
+ * to disk.</p>
+ *
+ * <p>The writer also rotates the log once it reaches a size or an age, and
+ * notes the Requests each line was logged with, so a LogIndex can find the
+ * lines about a tracking number later.</p>
+ *
+ * <p>A write that fails, such as on a full disk, does not stop the writer.
+ * The files are closed, the failure counted, and records are dropped, both
+ * those waiting and any logged until a write succeeds again, so no caller
+ * waits on a log that cannot be written; the log is opened again a second
+ * later. Only if the writer itself ends are callers
+ * refused.</p>
+ *
+ * @author Jaren Belt
+ */
+public class AsyncLog {
+    private LogIndex index;               // names and rotates the files
+    private FileOutputStream fos;
+    private OutputStream out;
+    private DataOutputStream keys;       // Requests logged with each line
+    private long size;                     // bytes in the active log
+    private long start;            // size when it was opened or rotated
+    private long opened;                   // when the active log was begun
+    private long rotateBytes;
+    private long rotateMillis;
+    private ConcurrentLinkedQueue<Record> queue;
+    private Semaphore room;                  // free places in the queue
+    private boolean drop;                 // drop records when full?
+    private AtomicInteger dropped;        // records dropped since reported
+    private int flushBytes;
+    private long flushMillis;
+    private Thread writer;
+    private volatile boolean waiting;          // is the writer parked?
+    private volatile boolean closed;
+    private volatile boolean stopped;            // has the writer ended?
+    private volatile boolean failing;     // is the log failing to write?
+    private AtomicInteger failures;            // writes that have failed
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Opens a log file for appending and starts its writer.
+     * @param index The index of the log, which names its files.
+     * @param capacity Most records that may wait to be written.
+     * @param drop true to drop records when the queue is full, false to wait.
+     * @param flushBytes Bytes written that force a flush.
+     * @param flushMillis Longest a record waits before it is flushed.
+     * @param rotateBytes Size the log is rotated at; 0 for no limit.
+     * @param rotateMillis Age the log is rotated at; 0 for no limit.
+     * @throws IOException if the file cannot be opened.
+     */
+    public AsyncLog(LogIndex index, int capacity, boolean drop,
+                    int flushBytes, long flushMillis, long rotateBytes,
+                    long rotateMillis) throws IOException {
+        this.index = index;
+        this.flushBytes = flushBytes;
+        this.rotateBytes = rotateBytes;
+        this.rotateMillis = rotateMillis;
+        open();
+        this.queue = new ConcurrentLinkedQueue<Record>();
+        this.room = new Semaphore(Math.max(1, capacity));
+        this.drop = drop;
+        this.dropped = new AtomicInteger(0);
+        this.failures = new AtomicInteger(0);
+        this.flushMillis = flushMillis;
+        this.waiting = false;
+        this.closed = false;
+        this.stopped = false;
+        this.writer = new Thread(new Drainer(), "log writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Queues a message to be written with a tracking number and the time it
+     * was logged.
+     * @param track Tracking number the message is about.
+     * @param message The message.
+     * @param refs Tracking numbers of Requests the message is also about.
+     * @throws IOException if the log has been closed or its writer ended.
+     */
+    public void log(int track, String message, int... refs)
+                    throws IOException {
+        if (this.closed) {
+            throw new IOException("Log closed");
+        }
+        if (this.stopped) {
+            throw new IOException("Log writer stopped");
+        }
+        if (this.drop || this.failing) {
+            if (!this.room.tryAcquire()) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+        } else {
+            this.room.acquireUninterruptibly();
+        }
+        this.queue.add(new Record(track, System.currentTimeMillis(), message,
+                                  refs));
+        if (this.waiting) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    /**
+     * @return How many times writing the log has failed.
+     */
+    public int getFailures() {
+        return this.failures.get();
+    }
+
+    /**
+     * Writes everything still queued, forces it to disk and closes the file.
+     * Messages logged afterwards are refused.
+     */
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException ie) {
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Opens the active log and its keys file for appending. */
+    private void open() throws IOException {
+        this.fos = new FileOutputStream(this.index.getPath(), true);
+        this.out = new BufferedOutputStream(this.fos,
+                                            Math.max(8192, this.flushBytes));
+        this.keys = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(this.index.getKeysPath(), true)));
+        this.size = this.fos.getChannel().size();
+        this.start = this.size;
+        this.opened = System.currentTimeMillis();
+    }
+
+    // private classes ----------------------------------------------------
+
+    /** One message waiting to be written. */
+    private static class Record {
+        private int track;
+        private long time;
+        private String message;
+        private int[] refs;
+        public Record(int track, long time, String message, int[] refs) {
+            this.track = track;
+            this.time = time;
+            this.message = message;
+            this.refs = refs;
+        }
+    }
+
+    /** Takes records off the queue and writes them until the log closes. */
+    private class Drainer implements Runnable {
+        private int unflushed = 0;               // bytes written since flush
+        private long oldest = 0;     // when the oldest unflushed was written
+
+        private boolean broken = false;     // must the files be reopened?
+        private boolean reported = false;  // failure printed since a flush?
+
+        public void run() {
+            try {
+                while (!closed || !queue.isEmpty()) {
+                    try {
+                        if (broken) {
+                            open();
+                            broken = false;
+                            unflushed = 0;
+                            endLine();
+                        }
+                        drain();
+                    } catch (IOException ioe) {
+                        failed(ioe);
+                    }
+                }
+                if (!broken) {
+                    // one last pass, to note anything dropped
+                    drain();
+                    flush();
+                    fos.getFD().sync();
+                }
+            } catch (IOException ioe) {
+                ioe.printStackTrace(System.err);
+            } finally {
+                // nothing will take records off the queue again
+                stopped = true;
+                room.release(Integer.MAX_VALUE / 2);
+                closeQuietly();
+            }
+        }
+
+        /* Writes one record, or when there are none does what is due and
+         * waits for one. */
+        private void drain() throws IOException {
+            Record r = queue.poll();
+            if (r != null) {
+                room.release();
+                write(r);
+                if (rotateBytes > 0 && size - start >= rotateBytes) {
+                    rotate();
+                } else if (unflushed >= flushBytes) {
+                    flush();
+                }
+                return;
+            }
+            int lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                write(new Record(0, System.currentTimeMillis(),
+                                 lost + " log messages dropped", null));
+            }
+            long now = System.currentTimeMillis();
+            if (unflushed > 0 && now - oldest >= flushMillis) {
+                flush();
+            }
+            if (rotateMillis > 0 && size > start &&
+                now - opened >= rotateMillis) {
+                rotate();
+            }
+            if (closed) {
+                return;
+            }
+            // sleep until the next flush is due or a record arrives
+            long wait = (unflushed > 0 ? flushMillis - (now - oldest) : 1000);
+            waiting = true;
+            if (queue.isEmpty() && !closed) {
+                LockSupport.parkNanos(Math.max(1, wait) * 1000000L);
+            }
+            waiting = false;
+        }
+
+        /* Counts a failed write, closes the files and drops what is queued,
+         * then pauses before the files are opened again. Only the first
+         * failure since the last good flush is printed. */
+        private void failed(IOException ioe) {
+            if (!reported) {
+                ioe.printStackTrace(System.err);
+                reported = true;
+            }
+            failures.incrementAndGet();
+            broken = true;
+            failing = true;
+            closeQuietly();
+            int lost = 0;
+            while (queue.poll() != null) {
+                room.release();
+                lost++;
+            }
+            dropped.addAndGet(lost);
+            if (!closed) {
+                LockSupport.parkNanos(1000L * 1000000L);
+            }
+        }
+
+        /* Ends a line cut short by a failed write, so the next record starts
+         * a line of its own. */
+        private void endLine() throws IOException {
+            if (size > 0) {
+                RandomAccessFile raf =
+                    new RandomAccessFile(index.getPath(), "r");
+                try {
+                    raf.seek(size - 1);
+                    if (raf.read() != '\n') {
+                        out.write('\n');
+                        size++;
+                        unflushed++;
+                        oldest = System.currentTimeMillis();
+                    }
+                } finally {
+                    raf.close();
+                }
+            }
+        }
+
+        /* Closes the log and keys files, ignoring errors. */
+        private void closeQuietly() {
+            try {
+                out.close();
+            } catch (IOException ioe) {
+            }
+            try {
+                keys.close();
+            } catch (IOException ioe) {
+            }
+        }
+
+        /* Formats one record into the buffer, noting where the line starts
+         * against each Request it is about. */
+        private void write(Record r) throws IOException {
+            StringBuffer line = new StringBuffer(r.track + " ");
+            TimeStamp.punch(line, r.time);
+            line.append(' ').append(r.message).append('\n');
+            if (unflushed == 0) {
+                oldest = System.currentTimeMillis();
+            }
+            byte[] b = line.toString().getBytes();
+            if (r.refs != null) {
+                for (int i = 0; i < r.refs.length; i++) {
+                    keys.writeInt(r.refs[i]);
+                    keys.writeLong(size);
+                }
+            }
+            out.write(b);
+            unflushed += b.length;
+            size += b.length;
+        }
+
+        /* Hands everything buffered to the operating system, the log before
+         * the keys that point into it. */
+        private void flush() throws IOException {
+            out.flush();
+            keys.flush();
+            unflushed = 0;
+            reported = false;
+            failing = false;
+        }
+
+        /* Closes the active log, has the index turn it into a segment and
+         * begins a new one. If it cannot be rotated it is carried on with until
+         * it has grown or aged as much again. */
+        private void rotate() throws IOException {
+            flush();
+            fos.getFD().sync();
+            out.close();
+            keys.close();
+            try {
+                index.rotate(System.currentTimeMillis());
+            } catch (IOException ioe) {
+                ioe.printStackTrace(System.err);
+            }
+            open();
+        }
+    }
+}
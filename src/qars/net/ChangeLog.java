@@ -0,0 +1,157 @@
+package qars.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>Numbers the changes made to a table and remembers the keys it deleted,
+ * so a client can be sent only what changed after a version it already has.
+ * </p>
+ *
+ * <p>Writers hold the shared side of a read-write lock from the moment a
+ * version is taken until the change is stored. Reading a stable version takes
+ * the exclusive side for an instant, which guarantees every change numbered at
+ * or below it is visible. Writers never wait on each other.</p>
+ *
+ * @author Jaren Belt
+ */
+public class ChangeLog {
+    // deleted keys remembered before the oldest half is forgotten
+    private static final int MAXREMOVED = 1024;
+
+    private long epoch;
+    private AtomicLong version;
+    private ReentrantReadWriteLock inFlight;
+    private ConcurrentHashMap<Object, Long> removed;
+    // changes at or below this version may have lost their deletions
+    private volatile long floor;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new ChangeLog. Versions start again at zero under a new epoch,
+     * so versions from an earlier server are never mistaken for these.
+     */
+    public ChangeLog() {
+        this.epoch = System.currentTimeMillis();
+        this.version = new AtomicLong();
+        this.inFlight = new ReentrantReadWriteLock();
+        this.removed = new ConcurrentHashMap<Object, Long>();
+        this.floor = 0;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Numbers a new change. The change must be stored before end is called.
+     * @return Version of the change.
+     */
+    public long begin() {
+        this.inFlight.readLock().lock();
+        return this.version.incrementAndGet();
+    }
+
+    /**
+     * Marks the change begun by this thread as stored.
+     */
+    public void end() {
+        this.inFlight.readLock().unlock();
+    }
+
+    /**
+     * Gets a version at or below which every change has been stored.
+     * @return The latest stable version.
+     */
+    public long stable() {
+        this.inFlight.writeLock().lock();
+        try {
+            return this.version.get();
+        } finally {
+            this.inFlight.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the deletion of a key. Call between begin and end.
+     * @param key Key of the deleted item.
+     * @param v Version of the deletion.
+     */
+    public void removed(Object key, long v) {
+        this.removed.put(key, Long.valueOf(v));
+        if (this.removed.size() > MAXREMOVED) {
+            forget();
+        }
+    }
+
+    /**
+     * Forgets the deletion of a key that has been stored again.
+     * @param key Key of the item stored.
+     */
+    public void restored(Object key) {
+        this.removed.remove(key);
+    }
+
+    /**
+     * Gathers the keys deleted after a version.
+     * @param since Version the client already has.
+     * @return Keys of items deleted after since.
+     */
+    public ArrayList<Object> removedSince(long since) {
+        ArrayList<Object> keys = new ArrayList<Object>();
+        Iterator<Map.Entry<Object, Long>> it =
+            this.removed.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Object, Long> e = it.next();
+            if (e.getValue().longValue() > since) {
+                keys.add(e.getKey());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Determines whether changes after a version can still be described. Call
+     * after gathering them, since deletions may be forgotten meanwhile.
+     * @param epoch Epoch the version belongs to.
+     * @param since Version the client already has.
+     * @param current Stable version the changes were gathered at.
+     * @return true if a delta is possible, false if every item must be sent.
+     */
+    public boolean covers(long epoch, long since, long current) {
+        return (epoch == this.epoch && since >= this.floor && since <= current);
+    }
+
+    /**
+     * @return Identifies this ChangeLog's versions.
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Forgets the older half of the deletions. The floor is raised first so
+     * that a reader who misses a forgotten key also sees the new floor. */
+    private synchronized void forget() {
+        if (this.removed.size() <= MAXREMOVED) {
+            return;
+        }
+        Long[] versions = this.removed.values().toArray(new Long[0]);
+        Arrays.sort(versions);
+        long cutoff = versions[versions.length / 2].longValue();
+        if (cutoff > this.floor) {
+            this.floor = cutoff;
+        }
+        Iterator<Long> it = this.removed.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().longValue() <= cutoff) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package qars.net;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import qars.util.Request;
+import qars.util.SCR;
+
+/**
+ * <p>Everything the ReleaseServer must remember across a restart, written to
+ * a single file: the active SCRs and when each was last saved, the pending
+ * Requests, any Requests that are being transferred and where the archived
+ * SCRs are. The file is written under a temporary name and then
+ * renamed over the old one, so a crash leaves either the old contents or the
+ * new, never a mixture.</p>
+ *
+ * <p>The Requests come first, followed by an index of the SCRs and then each
+ * SCR on its own. Reading a Checkpoint only reads up to the end of the index;
+ * an SCR is read when it is first asked for, so a large history does not hold
+ * up startup. SCRs never read can be copied into the next Checkpoint as they
+ * are, without being read at all.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Checkpoint {
+    // version of the file layout
+    private static final int FORMAT = 3;
+    // the layout before save times and the archive were kept
+    private static final int UNTIERED = 2;
+    // the first layout was one serialized stream, which starts with this
+    private static final int STREAM = 0xACED0005;
+
+    private ArrayList<SCR> scrs;
+    private ArrayList<Request> pending;
+    private ArrayList<Request> transfer;
+    private HashMap<String, Long> touched;     // when each SCR was saved
+    private HashMap<String, String> archived;  // archived SCRs' segments
+    private FileChannel channel;          // file the SCRs are read from
+    private LinkedHashMap<String, Extent> index;   // where each SCR is
+    private Checkpoint source;             // Checkpoint to copy SCRs from
+    private ArrayList<String> stored;          // ids of the SCRs to copy
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Checkpoint. The lists are written as they are, so they
+     * must not be changed while it is being written.
+     * @param scrs Every active SCR.
+     * @param pending Every pending Request.
+     * @param transfer Requests being transferred, or null if there are none.
+     */
+    public Checkpoint(ArrayList<SCR> scrs, ArrayList<Request> pending,
+                      ArrayList<Request> transfer) {
+        this.scrs = scrs;
+        this.pending = pending;
+        this.transfer = transfer;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return Every active SCR.
+     */
+    public ArrayList<SCR> getSCRs() {
+        return this.scrs;
+    }
+
+    /**
+     * @return Every pending Request.
+     */
+    public ArrayList<Request> getPending() {
+        return this.pending;
+    }
+
+    /**
+     * @return Requests being transferred, or null if there are none.
+     */
+    public ArrayList<Request> getTransfer() {
+        return this.transfer;
+    }
+
+    /**
+     * @return When each SCR was last saved, by lower case id; null if the
+     *         file was written before save times were kept.
+     */
+    public HashMap<String, Long> getTouched() {
+        return this.touched;
+    }
+
+    /**
+     * Sets when each SCR was last saved, to be written with the SCRs.
+     * @param touched Time in milliseconds by lower case SCR id.
+     */
+    public void setTouched(HashMap<String, Long> touched) {
+        this.touched = touched;
+    }
+
+    /**
+     * @return The segment each archived SCR is in, by lower case id; null if
+     *         the file was written before there was an archive.
+     */
+    public HashMap<String, String> getArchived() {
+        return this.archived;
+    }
+
+    /**
+     * Sets the segment each archived SCR is in, to be written with the SCRs.
+     * @param archived Segment name by lower case SCR id.
+     */
+    public void setArchived(HashMap<String, String> archived) {
+        this.archived = archived;
+    }
+
+    /**
+     * @return true if SCRs are read from the file as they are asked for,
+     *         false if the file was in the old layout and read whole.
+     */
+    public boolean isIndexed() {
+        return this.index != null;
+    }
+
+    /**
+     * @return The lower case ids of the SCRs left in the file to be read with
+     *         load, in the order they are stored.
+     */
+    public ArrayList<String> getStored() {
+        if (this.index == null) {
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(this.index.keySet());
+    }
+
+    /**
+     * Reads one SCR from the file. Safe to call from any thread.
+     * @param id Lower case SCR id.
+     * @return The SCR, or null if the file has none with that id.
+     * @throws IOException if the SCR could not be read.
+     */
+    public SCR load(String id) throws IOException {
+        ByteBuffer bb = body(id);
+        if (bb == null) {
+            return null;
+        }
+        ObjectInputStream ois = new ObjectInputStream(
+            new ByteArrayInputStream(bb.array(), 0, bb.limit()));
+        try {
+            return (SCR) ois.readObject();
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Adds SCRs to be copied from another Checkpoint's file when this one is
+     * written, without reading them. An SCR also in this Checkpoint's own
+     * list is taken from the list.
+     * @param source The Checkpoint that was read.
+     * @param ids Lower case ids of the SCRs to copy.
+     */
+    public void setStored(Checkpoint source, ArrayList<String> ids) {
+        this.source = source;
+        this.stored = ids;
+    }
+
+    /**
+     * Writes this Checkpoint to disk, replacing the file in one step.
+     * @param f The file to replace.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(java.io.File f) throws IOException {
+        java.io.File tmp = new java.io.File(f.getPath() + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            FileChannel out = fos.getChannel();
+            // the index is written with room for every entry, then filled in
+            // once the SCRs are written and their places known
+            ArrayList<String> ids = new ArrayList<String>();
+            HashSet<String> listed = new HashSet<String>();
+            for (int i = 0; i < this.scrs.size(); i++) {
+                listed.add(this.scrs.get(i).toString().toLowerCase());
+            }
+            ArrayList<String> copies = new ArrayList<String>();
+            if (this.stored != null) {
+                for (int i = 0; i < this.stored.size(); i++) {
+                    if (!listed.contains(this.stored.get(i))) {
+                        copies.add(this.stored.get(i));
+                    }
+                }
+            }
+            ids.addAll(copies);
+            for (int i = 0; i < this.scrs.size(); i++) {
+                ids.add(this.scrs.get(i).toString().toLowerCase());
+            }
+            ByteArrayOutputStream head = new ByteArrayOutputStream(4096);
+            DataOutputStream dos = new DataOutputStream(head);
+            dos.writeInt(FORMAT);
+            byte[] lists = serialize(this.pending, this.transfer,
+                                     this.touched, this.archived);
+            dos.writeInt(lists.length);
+            dos.write(lists);
+            dos.writeInt(ids.size());
+            long indexAt = dos.size();
+            LinkedHashMap<String, Extent> written =
+                new LinkedHashMap<String, Extent>();
+            for (int i = 0; i < ids.size(); i++) {
+                written.put(ids.get(i), new Extent(0, 0));
+            }
+            writeIndex(dos, written);
+            dos.flush();
+            long at = writeFully(out, ByteBuffer.wrap(head.toByteArray()), 0);
+            for (int i = 0; i < copies.size(); i++) {
+                ByteBuffer bb = this.source.body(copies.get(i));
+                if (bb == null) {
+                    throw new IOException("No SCR " + copies.get(i) +
+                                          " to copy");
+                }
+                written.put(copies.get(i), new Extent(at, bb.limit()));
+                at = writeFully(out, bb, at);
+            }
+            for (int i = 0; i < this.scrs.size(); i++) {
+                SCR s = this.scrs.get(i);
+                byte[] body = serialize(s);
+                written.put(s.toString().toLowerCase(),
+                            new Extent(at, body.length));
+                at = writeFully(out, ByteBuffer.wrap(body), at);
+            }
+            head.reset();
+            writeIndex(dos, written);
+            dos.flush();
+            writeFully(out, ByteBuffer.wrap(head.toByteArray()), indexAt);
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(f)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + f);
+        }
+        // make the rename itself durable
+        try {
+            FileChannel dir = FileChannel.open(
+                f.getAbsoluteFile().getParentFile().toPath(),
+                StandardOpenOption.READ);
+            try {
+                dir.force(true);
+            } finally {
+                dir.close();
+            }
+        } catch (IOException ioe) {
+            // not every platform can open a directory; the rename stands
+        }
+    }
+
+    /**
+     * Reads the Requests and the SCR index of a Checkpoint written by write.
+     * The file is kept open for load, and can still be read after it has
+     * been replaced.
+     * @param f The file to read.
+     * @return The Checkpoint.
+     * @throws IOException if the file could not be read.
+     */
+    @SuppressWarnings("unchecked")
+    public static Checkpoint read(java.io.File f) throws IOException {
+        FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+        boolean kept = false;
+        try {
+            // only the head is read here; load reads the rest by position
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(ch)));
+            int format = in.readInt();
+            if (format == STREAM) {
+                return readStream(f);
+            }
+            if (format != FORMAT && format != UNTIERED) {
+                throw new IOException("Unknown checkpoint format " + format);
+            }
+            byte[] lists = new byte[in.readInt()];
+            in.readFully(lists);
+            ObjectInputStream ois =
+                new ObjectInputStream(new ByteArrayInputStream(lists));
+            ArrayList<Request> pending = (ArrayList<Request>) ois.readObject();
+            ArrayList<Request> transfer =
+                (ArrayList<Request>) ois.readObject();
+            HashMap<String, Long> touched = null;
+            HashMap<String, String> archived = null;
+            if (format != UNTIERED) {
+                touched = (HashMap<String, Long>) ois.readObject();
+                archived = (HashMap<String, String>) ois.readObject();
+            }
+            int count = in.readInt();
+            LinkedHashMap<String, Extent> index =
+                new LinkedHashMap<String, Extent>();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                long offset = in.readLong();
+                int length = in.readInt();
+                index.put(id, new Extent(offset, length));
+            }
+            Checkpoint cp =
+                new Checkpoint(new ArrayList<SCR>(), pending, transfer);
+            cp.touched = touched;
+            cp.archived = archived;
+            cp.channel = ch;
+            cp.index = index;
+            kept = true;
+            return cp;
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            if (!kept) {
+                ch.close();
+            }
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Reads a whole Checkpoint in the first layout, a serialized stream. */
+    @SuppressWarnings("unchecked")
+    private static Checkpoint readStream(java.io.File f) throws IOException {
+        ObjectInputStream ois = new ObjectInputStream(
+            new BufferedInputStream(new FileInputStream(f)));
+        try {
+            int format = ois.readInt();
+            if (format != 1) {
+                throw new IOException("Unknown checkpoint format " + format);
+            }
+            ArrayList<SCR> scrs = (ArrayList<SCR>) ois.readObject();
+            ArrayList<Request> pending = (ArrayList<Request>) ois.readObject();
+            ArrayList<Request> transfer =
+                (ArrayList<Request>) ois.readObject();
+            return new Checkpoint(scrs, pending, transfer);
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /* Reads the serialized bytes of one SCR from the file. */
+    private ByteBuffer body(String id) throws IOException {
+        Extent e = (this.index != null ? this.index.get(id) : null);
+        if (e == null) {
+            return null;
+        }
+        ByteBuffer bb = ByteBuffer.allocate(e.length);
+        while (bb.hasRemaining()) {
+            // positional reads share the channel without a lock
+            if (this.channel.read(bb, e.offset + bb.position()) < 0) {
+                throw new EOFException("Checkpoint cut short");
+            }
+        }
+        bb.flip();
+        return bb;
+    }
+
+    /* Serializes objects one after another into a stream of bytes. */
+    private static byte[] serialize(Object... objects) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        for (int i = 0; i < objects.length; i++) {
+            oos.writeObject(objects[i]);
+        }
+        oos.close();
+        return bos.toByteArray();
+    }
+
+    /* Writes every index entry: id, offset and length. */
+    private static void writeIndex(DataOutputStream dos,
+                                   LinkedHashMap<String, Extent> index)
+                                   throws IOException {
+        Iterator<Map.Entry<String, Extent>> it = index.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Extent> e = it.next();
+            dos.writeUTF(e.getKey());
+            dos.writeLong(e.getValue().offset);
+            dos.writeInt(e.getValue().length);
+        }
+    }
+
+    /* Writes a whole buffer at a position and returns where it ended. */
+    private static long writeFully(FileChannel out, ByteBuffer bb, long at)
+                                   throws IOException {
+        while (bb.hasRemaining()) {
+            at += out.write(bb, at);
+        }
+        return at;
+    }
+
+    // private classes ----------------------------------------------------
+
+    /** Where one SCR is kept in the file. */
+    private static class Extent {
+        private long offset;
+        private int length;
+        public Extent(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package qars.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import qars.util.ReturnCode;
+
+/**
+ * <p>A client connection serviced by a ClientSelector. Bytes are gathered on
+ * the selector thread until a whole frame has arrived; frames are then
+ * decoded one at a time, in the order received, by a worker thread. Frames
+ * without a correlation id are performed in that order too, while those with
+ * one are handed to another worker so a slow action does not hold up the
+ * ones behind it.</p>
+ *
+ * @author Jaren Belt
+ */
+public class ClientChannel implements ClientConnection {
+    private static final int BUFSIZE = 8192;
+
+    private ReleaseServer rs;
+    private ClientSelector cs;
+    private SocketChannel sc;
+    private SelectionKey key;
+    private FrameCodec codec;
+    private int myTrack;
+    private ByteBuffer in;                        // partially received frames
+    private LinkedList<byte[]> frames;          // frames waiting for a worker
+    private boolean busy;                    // is a worker draining frames?
+    private ConcurrentLinkedQueue<ByteBuffer> out;   // responses to be sent
+    private Activity activity;           // when the client was last heard
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new ClientChannel for an accepted connection.
+     * @param rs ReleaseServer that performs the client actions.
+     * @param cs ClientSelector servicing this connection.
+     * @param sc Non-blocking channel from the accept method.
+     * @param track Unique tracking id assigned to this connection.
+     */
+    public ClientChannel(ReleaseServer rs, ClientSelector cs, SocketChannel sc,
+                         int track) {
+        this.rs = rs;
+        this.cs = cs;
+        this.sc = sc;
+        this.myTrack = track;
+        this.codec = new FrameCodec();
+        this.in = ByteBuffer.allocate(BUFSIZE);
+        this.frames = new LinkedList<byte[]>();
+        this.busy = false;
+        this.out = new ConcurrentLinkedQueue<ByteBuffer>();
+        this.activity = new Activity();
+        this.closing = false;
+        this.closed = false;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Gets the tracking number assigned to this connection.
+     * @return Unique tracking id for this connection.
+     */
+    public int getTrack() {
+        return this.myTrack;
+    }
+
+    /**
+     * Tells the client the server is shutting down. The connection is closed
+     * once everything queued for the client has been written.
+     */
+    public void shutdown() {
+        if (!this.closing && !this.closed) {
+            send(ReleaseServer.SHUTDOWN, 0, null);
+            this.closing = true;
+            this.cs.changed(this);
+        }
+    }
+
+    /**
+     * Queues a frame the client did not ask for behind any waiting responses.
+     * @param action The action code to send.
+     * @param o The object associated with the action.
+     */
+    public void push(int action, Object o) {
+        if (!this.closing && !this.closed) {
+            send(action, 0, o);
+        }
+    }
+
+    /**
+     * Gets the record of when the client was last heard from.
+     * @return Activity of this connection.
+     */
+    public Activity getActivity() {
+        return this.activity;
+    }
+
+    /**
+     * Closes the channel without telling the client.
+     */
+    public void evict() {
+        close();
+    }
+
+    // package methods ----------------------------------------------------
+
+    /**
+     * Sets the key this connection is registered under.
+     * @param key Key returned when registering with the selector.
+     */
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Called on the selector thread when bytes can be read. Every complete
+     * frame is queued for a worker.
+     */
+    void readReady() {
+        int n = -1;
+        try {
+            n = this.sc.read(this.in);
+        } catch (IOException ioe) {
+        }
+        if (n < 0) {
+            System.err.println("Could not read " + this.myTrack);
+            this.rs.reportSuicide(this);
+            close();
+            return;
+        }
+        this.activity.touch();
+        int needed = 0;
+        this.in.flip();
+        while (this.in.remaining() >= FrameCodec.PREFIX) {
+            int length = this.in.getInt(this.in.position());
+            if (length < 0 || length > FrameCodec.MAXFRAME) {
+                System.err.println("Invalid frame from " + this.myTrack);
+                this.rs.reportSuicide(this);
+                close();
+                return;
+            }
+            if (this.in.remaining() < FrameCodec.PREFIX + length) {
+                needed = FrameCodec.PREFIX + length;
+                break;
+            }
+            this.in.getInt();
+            byte[] body = new byte[length];
+            this.in.get(body);
+            queue(body);
+        }
+        this.in.compact();
+        if (needed > this.in.capacity()) {
+            // frame is bigger than the buffer, make room for all of it
+            ByteBuffer bigger = ByteBuffer.allocate(needed);
+            this.in.flip();
+            bigger.put(this.in);
+            this.in = bigger;
+        }
+    }
+
+    /**
+     * Called on the selector thread when bytes can be written.
+     */
+    void writeReady() {
+        try {
+            ByteBuffer bb = this.out.peek();
+            while (bb != null) {
+                this.sc.write(bb);
+                if (bb.hasRemaining()) {
+                    break;
+                }
+                this.out.poll();
+                bb = this.out.peek();
+            }
+        } catch (IOException ioe) {
+            System.err.println("Could not write " + this.myTrack);
+            this.rs.reportSuicide(this);
+            close();
+            return;
+        }
+        updateInterest();
+    }
+
+    /**
+     * Called on the selector thread to register interest in writing while
+     * output is waiting, and to close the connection once it has drained.
+     */
+    void updateInterest() {
+        if (this.closed || !this.key.isValid()) {
+            return;
+        }
+        if (this.out.isEmpty()) {
+            if (this.closing) {
+                close();
+            } else {
+                this.key.interestOps(SelectionKey.OP_READ);
+            }
+        } else if (this.closing) {
+            this.key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Queues a frame, starting a worker if none is draining this connection. */
+    private void queue(byte[] body) {
+        boolean start = false;
+        synchronized (this.frames) {
+            this.frames.add(body);
+            if (!this.busy) {
+                this.busy = true;
+                start = true;
+            }
+        }
+        if (start) {
+            this.cs.execute(new FrameWorker());
+        }
+    }
+
+    /* Passes an action on to the server and queues the response. */
+    private void perform(ReturnCode action, int id, Object o) {
+        boolean sentEmail = (action.getCode() == ReleaseServer.EMAIL);
+        this.activity.begin();
+        try {
+            o = this.rs.dispatch(this.myTrack, action, o);
+        } finally {
+            this.activity.end();
+        }
+        if (action.getCode() == ReleaseServer.SHUTDOWN) {
+            shutdown();
+        } else if (!this.closing && !this.closed) {
+            send(action.getCode(), id, o);
+            if (sentEmail && action.getCode() == ReleaseServer.SUCCESS) {
+                // the qars client is done with the release
+                shutdown();
+            }
+        }
+    }
+
+    /* Decodes a frame and performs it, or hands it to another worker if it
+     * need not wait its turn. */
+    private void process(byte[] body) {
+        ReturnCode action = new ReturnCode(0);
+        ReturnCode id = new ReturnCode(0);
+        Object o = null;
+        try {
+            o = this.codec.decode(body, action, id);
+        } catch (IOException ioe) {
+            ioe.printStackTrace(System.err);
+            System.err.println("Could not read " + this.myTrack);
+            this.rs.reportSuicide(this);
+            close();
+            return;
+        }
+        if (action.getCode() == ReleaseServer.HELLO) {
+            synchronized (this.codec) {
+                // the answer is the first frame in the agreed form
+                send(ReleaseServer.HELLO, id.getCode(), this.codec.accept(o));
+            }
+            return;
+        }
+        if (id.getCode() != 0 && !ReleaseServer.isOrdered(action.getCode())) {
+            this.cs.execute(new Exchange(action, id.getCode(), o));
+        } else {
+            perform(action, id.getCode(), o);
+        }
+    }
+
+    /* Queues a frame for the selector thread to write. Frames are queued in
+     * the order they are encoded, as the codec's dictionary requires. */
+    private void send(int action, int id, Object o) {
+        try {
+            synchronized (this.codec) {
+                this.out.add(ByteBuffer.wrap(this.codec.encode(action, id, o)));
+            }
+            this.cs.changed(this);
+        } catch (IOException ioe) {
+            ioe.printStackTrace(System.err);
+            System.err.println("Could not write " + this.myTrack);
+            this.rs.reportSuicide(this);
+            close();
+        }
+    }
+
+    /* Closes the channel; any queued frames are dropped. */
+    private void close() {
+        this.closed = true;
+        if (this.key != null) {
+            this.key.cancel();
+        }
+        try {
+            this.sc.close();
+        } catch (IOException ioe) {
+        }
+    }
+
+    // private classes ----------------------------------------------------
+
+    /** Performs queued frames one at a time until none are left. */
+    private class FrameWorker implements Runnable {
+        public void run() {
+            byte[] body = null;
+            do {
+                synchronized (frames) {
+                    body = frames.poll();
+                    if (body == null) {
+                        busy = false;
+                    }
+                }
+                if (body != null && !closed) {
+                    process(body);
+                }
+            } while (body != null);
+        }
+    }
+
+    /** Performs one correlated action and queues its response. */
+    private class Exchange implements Runnable {
+        private ReturnCode action;
+        private int id;
+        private Object o;
+        public Exchange(ReturnCode action, int id, Object o) {
+            this.action = action;
+            this.id = id;
+            this.o = o;
+        }
+        public void run() {
+            if (!closed) {
+                perform(this.action, this.id, this.o);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package qars.net;
+
+/**
+ * <p>A connection from a client to the ReleaseServer. The server keeps one of
+ * these for every connected client, no matter how the connection is being
+ * serviced.</p>
+ *
+ * @author Jaren Belt
+ */
+public interface ClientConnection {
+    /**
+     * Gets the tracking number assigned when the connection was accepted.
+     * @return Unique tracking id for this connection.
+     */
+    public int getTrack();
+
+    /**
+     * Sends the client a frame it did not ask for. A failure is not reported
+     * here; the connection notices it the next time it reads or writes.
+     * @param action The action code to send.
+     * @param o The object associated with the action.
+     */
+    public void push(int action, Object o);
+
+    /**
+     * Notifies the client that the server is shutting down and closes the
+     * connection.
+     */
+    public void shutdown();
+
+    /**
+     * Gets the record of when the client was last heard from.
+     * @return Activity of this connection.
+     */
+    public Activity getActivity();
+
+    /**
+     * Closes a connection the client has stopped using, without telling it.
+     * Anything still waiting to be sent is dropped.
+     */
+    public void evict();
+}
@@ -0,0 +1,135 @@
+package qars.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Services every client connection of a ReleaseServer from a single
+ * thread using a non-blocking Selector. Complete frames are handed to a small
+ * pool of worker threads, so the number of threads no longer grows with the
+ * number of connected clients.</p>
+ *
+ * @author Jaren Belt
+ */
+public class ClientSelector {
+    private ReleaseServer rs;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private ExecutorService workers;
+    // connections with output waiting or needing to be closed
+    private ConcurrentLinkedQueue<ClientChannel> changes;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Opens the listening channel for a ReleaseServer.
+     * @param rs ReleaseServer that will perform the client actions.
+     * @param port Port to listen on.
+     * @param numWorkers Number of threads performing client actions.
+     * @throws IOException if the port cannot be opened.
+     */
+    public ClientSelector(ReleaseServer rs, int port, int numWorkers)
+                          throws IOException {
+        this.rs = rs;
+        this.changes = new ConcurrentLinkedQueue<ClientChannel>();
+        this.workers = Executors.newFixedThreadPool(numWorkers);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.socket().bind(new InetSocketAddress(port));
+        this.server.configureBlocking(false);
+        this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Accepts connections and moves bytes for as long as the server is up.
+     * @throws IOException if the selector itself fails.
+     */
+    public void serve() throws IOException {
+        while (this.selector.isOpen()) {
+            this.selector.select();
+            applyChanges();
+            Iterator<SelectionKey> it = this.selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ClientChannel cc = (ClientChannel) key.attachment();
+                        if (key.isReadable()) {
+                            cc.readReady();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            cc.writeReady();
+                        }
+                    }
+                } catch (CancelledKeyException cke) {
+                }
+            }
+        }
+    }
+
+    // package methods ----------------------------------------------------
+
+    /**
+     * Asks the selector thread to look at a connection again, either because
+     * output is waiting or because it should be closed.
+     * @param cc The connection that changed.
+     */
+    void changed(ClientChannel cc) {
+        this.changes.add(cc);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Runs a task on one of the worker threads.
+     * @param task The work to perform.
+     */
+    void execute(Runnable task) {
+        this.workers.execute(task);
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Accepts a waiting connection and registers it for reading. */
+    private void accept() throws IOException {
+        SocketChannel sc = this.server.accept();
+        if (sc != null) {
+            int tk;
+            try {
+                tk = this.rs.nextTrack();
+            } catch (IOException ioe) {
+                // no number could be reserved; turn the client away
+                System.err.println(ioe.getMessage());
+                sc.close();
+                return;
+            }
+            sc.configureBlocking(false);
+            ClientChannel cc = new ClientChannel(this.rs, this, sc, tk);
+            SelectionKey key = sc.register(this.selector, SelectionKey.OP_READ,
+                                           cc);
+            cc.setKey(key);
+            this.rs.addClient(cc);
+        }
+    }
+
+    /* Updates interest in writing for connections that changed. */
+    private void applyChanges() {
+        ClientChannel cc = this.changes.poll();
+        while (cc != null) {
+            cc.updateInterest();
+            cc = this.changes.poll();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package qars.net;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Keeps track of how far the saved copy of the SCRs and Requests lags
+ * behind the tables. Every change counts itself here and leaves the saving
+ * to someone else; whoever writes the snapshot notes how many changes it
+ * holds. Between the two, any number of changes are folded into one write,
+ * and the counts show how well that is working.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Durability {
+    private AtomicLong changes;                   // changes made so far
+    private volatile long saved;      // changes held by the last snapshot
+    private AtomicLong since;    // time of the oldest unsaved change, or 0
+    private AtomicLong writes;                      // snapshots written
+    private AtomicLong failures;          // snapshots that could not be
+    private volatile long lastWrite;       // when the last one was written
+    private volatile long lastTook;        // milliseconds it took to write
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Durability with nothing unsaved.
+     */
+    public Durability() {
+        this.changes = new AtomicLong(0);
+        this.saved = 0;
+        this.since = new AtomicLong(0);
+        this.writes = new AtomicLong(0);
+        this.failures = new AtomicLong(0);
+        this.lastWrite = 0;
+        this.lastTook = 0;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Counts a change. Call after the change is in the tables.
+     */
+    public void changed() {
+        this.changes.incrementAndGet();
+        this.since.compareAndSet(0, System.currentTimeMillis());
+    }
+
+    /**
+     * Marks the start of a snapshot. Call before the tables are read, so
+     * every change counted so far is in what is written.
+     * @return The count to hand to saved once the snapshot is on disk.
+     */
+    public long begin() {
+        return this.changes.get();
+    }
+
+    /**
+     * Notes that a snapshot is safely on disk. Snapshots must not overlap.
+     * @param upTo The count begin returned.
+     * @param started When the snapshot was started.
+     */
+    public void saved(long upTo, long started) {
+        long now = System.currentTimeMillis();
+        this.saved = upTo;
+        this.lastWrite = now;
+        this.lastTook = now - started;
+        this.writes.incrementAndGet();
+        if (this.changes.get() > upTo) {
+            // changed while writing; the change is no older than the start
+            this.since.set(started);
+        } else {
+            this.since.set(0);
+            if (this.changes.get() > upTo) {
+                this.since.compareAndSet(0, started);
+            }
+        }
+    }
+
+    /**
+     * Notes that a snapshot could not be written.
+     */
+    public void failed() {
+        this.failures.incrementAndGet();
+    }
+
+    /**
+     * @return true if a change has been made since the last snapshot began.
+     */
+    public boolean isDirty() {
+        return this.changes.get() > this.saved;
+    }
+
+    /**
+     * @return Changes made since the last snapshot began.
+     */
+    public long getUnsaved() {
+        return this.changes.get() - this.saved;
+    }
+
+    /**
+     * Describes the counts for a status report.
+     * @return One line per measure.
+     */
+    public ArrayList<String> getStatus() {
+        long now = System.currentTimeMillis();
+        long w = this.writes.get();
+        long oldest = this.since.get();
+        ArrayList<String> lines = new ArrayList<String>(4);
+        lines.add("snapshots " + w + " written, " + this.failures.get() +
+                  " failed" + (w > 0 ? ", last " + (now - this.lastWrite) +
+                  "ms ago took " + this.lastTook + "ms" : ""));
+        lines.add("changes " + this.changes.get() + " made, " +
+                  (w > 0 ? this.saved / w : 0) + " per snapshot");
+        lines.add("unsaved " + getUnsaved() + (oldest > 0 && isDirty() ?
+                  ", oldest " + (now - oldest) + "ms" : ""));
+        return lines;
+    }
+}
@@ -0,0 +1,297 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import qars.util.ReturnCode;
+import qars.util.WireReader;
+import qars.util.WireWriter;
+
+/**
+ * <p>Converts an action code and its associated object to a length-prefixed
+ * frame and back again. A frame is a four byte length followed by a flags
+ * byte, the action code, an optional correlation id and the encoded object.
+ * Every object is encoded on its own, so a frame can be decoded as soon as
+ * all of its bytes have arrived.</p>
+ *
+ * <p>A client that wants several requests in flight gives each one a non-zero
+ * correlation id, and the server answers with the same id. Frames without an
+ * id are answered in the order they were sent, as they always have been.</p>
+ *
+ * <p>Objects are written with Java serialization until both ends agree, with
+ * a HELLO exchange, to use the compact binary form of WireWriter. The flags
+ * byte says which form each frame uses. The binary form shares strings
+ * through a dictionary kept across frames, so frames must be written in the
+ * order they were encoded and decoded in the order they were received.</p>
+ *
+ * <p>No object outlives the frame it was encoded in: each serialized frame
+ * has its own object stream and each binary frame its own handle table. Only
+ * the string dictionary is carried over, and the sender starts it afresh once
+ * it holds WIREDICTSIZE strings or WIREDICTBYTES bytes of them, marking that
+ * frame with the RESET flag so the receiver drops its copy as well. The
+ * memory held for a connection therefore stays bounded however long it
+ * lasts. A frame that fails to encode may already have numbered some of its
+ * strings, so the next frame starts the dictionary over too.</p>
+ *
+ * @author Jaren Belt
+ */
+public class FrameCodec {
+    /** Number of bytes in the length prefix. */
+    public static final int PREFIX = 4;
+    /** Largest frame body accepted from the other end. */
+    public static final int MAXFRAME = 64 * 1024 * 1024;
+    /** Version of the binary form offered and accepted in a HELLO. */
+    public static final int WIREVERSION = 1;
+
+    // flag bits
+    static final int BINARY = 1;    // body is in the binary form
+    static final int RESET = 2;     // dictionary starts over
+    static final int CORRELATED = 4;   // action followed by an id
+    // number of strings, and bytes of them, that start the dictionary over
+    static final int MAXDICT = System.getenv("WIREDICTSIZE") != null ?
+        Integer.parseInt(System.getenv("WIREDICTSIZE")) : 4096;
+    static final int MAXDICTBYTES =
+        System.getenv("WIREDICTBYTES") != null ?
+        Integer.parseInt(System.getenv("WIREDICTBYTES")) : 256 * 1024;
+    // most strings accepted from the other end between resets
+    private static final int HARDDICT = 65536;
+    // set WIRECODEC=serial to neither offer nor accept the binary form
+    private static final boolean ALLOWBINARY =
+        !"serial".equals(System.getenv("WIRECODEC"));
+
+    private boolean binary;              // does the other end read binary?
+    private HashMap<String, Integer> sent;      // strings already encoded
+    private int sentBytes;                      // bytes of them
+    private boolean stale;          // holds strings the other end never got
+    private ArrayList<String> received;         // strings already decoded
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new FrameCodec. Each connection should have its own.
+     */
+    public FrameCodec() {
+        this.binary = false;
+        this.sent = new HashMap<String, Integer>();
+        this.sentBytes = 0;
+        this.stale = false;
+        this.received = new ArrayList<String>();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Builds a complete frame, length prefix included.
+     * @param action The action code to send.
+     * @param o The object associated with the action; may be null.
+     * @return The bytes of the frame.
+     * @throws IOException if the object could not be encoded.
+     */
+    public byte[] encode(int action, Object o) throws IOException {
+        return encode(action, 0, o);
+    }
+
+    /**
+     * Builds a complete frame carrying a correlation id.
+     * @param action The action code to send.
+     * @param id The correlation id, or 0 for none.
+     * @param o The object associated with the action; may be null.
+     * @return The bytes of the frame.
+     * @throws IOException if the object could not be encoded.
+     */
+    public byte[] encode(int action, int id, Object o) throws IOException {
+        int correlated = (id != 0 ? CORRELATED : 0);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        DataOutputStream dos = new DataOutputStream(bos);
+        // length is filled in once the body is known
+        dos.writeInt(0);
+        if (this.binary) {
+            int flags = BINARY;
+            if (this.stale || this.sent.size() >= MAXDICT ||
+                this.sentBytes >= MAXDICTBYTES) {
+                this.sent.clear();
+                this.sentBytes = 0;
+                this.stale = false;
+                flags |= RESET;
+            }
+            dos.write(flags | correlated);
+            writeHeader(dos, action, id);
+            WireWriter w = new WireWriter(dos, this.sent, MAXDICT);
+            boolean written = false;
+            try {
+                w.writeValue(o);
+                dos.flush();
+                written = true;
+            } finally {
+                if (!written) {
+                    // strings numbered for a frame that will never be sent
+                    this.stale = true;
+                }
+            }
+            this.sentBytes += w.getAdded();
+        } else {
+            dos.write(correlated);
+            writeHeader(dos, action, id);
+            ObjectOutputStream oos = new ObjectOutputStream(dos);
+            oos.writeObject(o);
+            oos.close();
+        }
+        byte[] frame = bos.toByteArray();
+        int length = frame.length - PREFIX;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    /**
+     * Decodes the body of a frame, which is everything after the length prefix.
+     * @param body The frame body.
+     * @param action Updated with the action code found in the frame.
+     * @return The object carried by the frame.
+     * @throws IOException if the body is not a valid frame.
+     */
+    public Object decode(byte[] body, ReturnCode action) throws IOException {
+        return decode(body, action, new ReturnCode(0));
+    }
+
+    /**
+     * Decodes the body of a frame that may carry a correlation id.
+     * @param body The frame body.
+     * @param action Updated with the action code found in the frame.
+     * @param id Updated with the correlation id, or 0 if there is none.
+     * @return The object carried by the frame.
+     * @throws IOException if the body is not a valid frame.
+     */
+    public Object decode(byte[] body, ReturnCode action, ReturnCode id)
+                         throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(body));
+        int flags = dis.readUnsignedByte();
+        action.setCode(dis.readInt());
+        id.setCode((flags & CORRELATED) != 0 ? dis.readInt() : 0);
+        if ((flags & BINARY) != 0) {
+            if ((flags & RESET) != 0) {
+                this.received.clear();
+            }
+            WireReader r = new WireReader(dis, this.received);
+            Object o = r.readValue();
+            if (this.received.size() > HARDDICT) {
+                throw new IOException("String dictionary overflow");
+            }
+            return o;
+        }
+        ObjectInputStream ois = new ObjectInputStream(dis);
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Could not find class " + cnfe.getMessage());
+        }
+    }
+
+    /**
+     * Writes a frame to a stream and flushes it.
+     * @param out Stream connected to the other end.
+     * @param action The action code to send.
+     * @param o The object associated with the action; may be null.
+     * @throws IOException if the frame could not be written.
+     */
+    public void write(OutputStream out, int action, Object o)
+                      throws IOException {
+        write(out, action, 0, o);
+    }
+
+    /**
+     * Writes a frame carrying a correlation id to a stream and flushes it.
+     * @param out Stream connected to the other end.
+     * @param action The action code to send.
+     * @param id The correlation id, or 0 for none.
+     * @param o The object associated with the action; may be null.
+     * @throws IOException if the frame could not be written.
+     */
+    public void write(OutputStream out, int action, int id, Object o)
+                      throws IOException {
+        out.write(encode(action, id, o));
+        out.flush();
+    }
+
+    /**
+     * Blocks until a whole frame has been read from a stream.
+     * @param in Stream connected to the other end.
+     * @param action Updated with the action code found in the frame.
+     * @return The object carried by the frame.
+     * @throws IOException if the stream fails or the frame is not valid.
+     */
+    public Object read(DataInputStream in, ReturnCode action)
+                       throws IOException {
+        return read(in, action, new ReturnCode(0));
+    }
+
+    /**
+     * Blocks until a whole frame that may carry a correlation id has been
+     * read from a stream.
+     * @param in Stream connected to the other end.
+     * @param action Updated with the action code found in the frame.
+     * @param id Updated with the correlation id, or 0 if there is none.
+     * @return The object carried by the frame.
+     * @throws IOException if the stream fails or the frame is not valid.
+     */
+    public Object read(DataInputStream in, ReturnCode action, ReturnCode id)
+                       throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAXFRAME) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return decode(body, action, id);
+    }
+
+    /**
+     * Gets what a client should offer in a HELLO.
+     * @return The binary version this end can read, or 0 for none.
+     */
+    public Integer offer() {
+        return Integer.valueOf(ALLOWBINARY ? WIREVERSION : 0);
+    }
+
+    /**
+     * Answers a HELLO from the other end. If it offered a version this end
+     * understands, every frame encoded from now on, the answer included, uses
+     * the binary form.
+     * @param offered What the other end sent with its HELLO.
+     * @return The version accepted, or 0 to keep using serialization.
+     */
+    public Integer accept(Object offered) {
+        int version = 0;
+        if (ALLOWBINARY && offered instanceof Integer &&
+            ((Integer) offered).intValue() >= WIREVERSION) {
+            version = WIREVERSION;
+            this.binary = true;
+        }
+        return Integer.valueOf(version);
+    }
+
+    /**
+     * Handles the answer to this end's HELLO. Frames are encoded in the binary
+     * form from now on if the other end accepted it.
+     * @param answer What the other end sent in reply to the HELLO.
+     * @return true if the binary form will be used.
+     */
+    public boolean accepted(Object answer) {
+        this.binary = ALLOWBINARY && answer instanceof Integer &&
+            ((Integer) answer).intValue() == WIREVERSION;
+        return this.binary;
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Writes the action code and, if there is one, the correlation id. */
+    private static void writeHeader(DataOutputStream dos, int action, int id)
+                                    throws IOException {
+        dos.writeInt(action);
+        if (id != 0) {
+            dos.writeInt(id);
+        }
+    }
+}
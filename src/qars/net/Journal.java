@@ -0,0 +1,338 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * <p>An append-only record of every change made to the SCRs and Requests
+ * since the lists were last written out whole. Each change costs one short
+ * record instead of a rewrite of a whole list; on startup the records are
+ * replayed on top of the saved lists.</p>
+ *
+ * <p>A record is a four byte length, a CRC32 of everything after it, a type
+ * byte and the serialized object. A record cut short or damaged by a crash
+ * ends the replay, and it and anything after it are dropped.</p>
+ *
+ * <p>When the lists are written out again the journal is first rotated: the
+ * records so far are set aside as the old journal and new records go to a
+ * fresh one. Once the lists are safely on disk the old journal is dropped;
+ * until then both are replayed, oldest first.</p>
+ *
+ * <p>How soon a record reaches the disk depends on the policy: "always"
+ * forces every record before append returns, "interval" forces whatever has
+ * been written every so often, and "none" leaves it to the operating
+ * system.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Journal {
+    /** An SCR was added or updated; the object is the SCR. */
+    public static final int SCRPUT = 1;
+    /** An SCR was deleted; the object is its lower case id. */
+    public static final int SCRDELETE = 2;
+    /** A Request was submitted; the object is the Request. */
+    public static final int RQSTPUT = 3;
+    /** A Request was deleted; the object is its tracking number. */
+    public static final int RQSTDELETE = 4;
+    /** A transfer started; the object is the list of Requests moved. */
+    public static final int XFERSTART = 5;
+    /** The transfer finished; there is no object. */
+    public static final int XFERFINISH = 6;
+    /** An SCR was archived; the object is its lower case id and segment. */
+    public static final int SCRARCHIVE = 7;
+
+    /** Force every record to disk before append returns. */
+    public static final String ALWAYS = "always";
+    /** Force records to disk every so often. */
+    public static final String INTERVAL = "interval";
+    /** Never force records to disk. */
+    public static final String NONE = "none";
+
+    // record header: length, checksum and type
+    private static final int HEADER = 9;
+
+    private java.io.File file;
+    private java.io.File old;              // records set aside by rotate
+    private String policy;
+    private FileOutputStream out;
+    private ReentrantLock lock;                // guards out and dirty
+    private volatile boolean dirty;     // written but not yet forced?
+    private volatile long size;          // bytes in the current journal
+    private ScheduledExecutorService syncer;   // forces on an interval
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Journal. Nothing is opened until replay is called.
+     * @param path Name of the journal file.
+     * @param policy ALWAYS, INTERVAL or NONE.
+     * @param interval Milliseconds between forces for the INTERVAL policy.
+     */
+    public Journal(String path, String policy, long interval) {
+        this.file = new java.io.File(path);
+        this.old = new java.io.File(path + ".old");
+        this.policy = policy;
+        this.lock = new ReentrantLock();
+        this.dirty = false;
+        if (INTERVAL.equals(policy)) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor();
+            this.syncer.scheduleWithFixedDelay(new Syncer(), interval,
+                                               interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Reads every whole record in the old journal and then the current one,
+     * drops anything after the last whole record of each and opens the
+     * current journal for appending.
+     * @return The records in the order they were appended.
+     * @throws IOException if the journal cannot be read or opened.
+     */
+    public ArrayList<Entry> replay() throws IOException {
+        ArrayList<Entry> entries = new ArrayList<Entry>();
+        read(this.old, entries);
+        read(this.file, entries);
+        this.out = new FileOutputStream(this.file, true);
+        this.size = this.file.length();
+        return entries;
+    }
+
+    /**
+     * Adds a record to the end of the journal.
+     * @param type One of the record types.
+     * @param o The object for that type; may be null.
+     * @throws IOException if the record could not be written.
+     */
+    public void append(int type, Object o) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(o);
+        oos.close();
+        byte[] payload = bos.toByteArray();
+        ByteArrayOutputStream rec =
+            new ByteArrayOutputStream(HEADER + payload.length);
+        DataOutputStream dos = new DataOutputStream(rec);
+        dos.writeInt(payload.length);
+        dos.writeInt(checksum(type, payload));
+        dos.write(type);
+        dos.write(payload);
+        dos.flush();
+        this.lock.lock();
+        try {
+            // one write per record, so a crash tears at most the last one
+            rec.writeTo(this.out);
+            this.size += rec.size();
+            if (ALWAYS.equals(this.policy)) {
+                this.out.getFD().sync();
+            } else {
+                this.dirty = true;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the records so far aside as the old journal and starts a new one.
+     * Anything already set aside and not yet dropped is kept ahead of them.
+     * @throws IOException if the journal could not be rotated.
+     */
+    public void rotate() throws IOException {
+        this.lock.lock();
+        try {
+            this.out.getFD().sync();
+            this.out.close();
+            this.dirty = false;
+            if (this.old.exists()) {
+                // the last rotation was never finished, keep adding to it
+                FileOutputStream os = new FileOutputStream(this.old, true);
+                FileInputStream is = new FileInputStream(this.file);
+                try {
+                    byte[] buf = new byte[8192];
+                    int n = is.read(buf);
+                    while (n > 0) {
+                        os.write(buf, 0, n);
+                        n = is.read(buf);
+                    }
+                    os.getFD().sync();
+                } finally {
+                    is.close();
+                    os.close();
+                }
+                this.file.delete();
+            } else if (!this.file.renameTo(this.old)) {
+                this.out = new FileOutputStream(this.file, true);
+                throw new IOException("Could not rotate " + this.file);
+            }
+            this.out = new FileOutputStream(this.file, true);
+            this.size = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the old journal. Call only once everything it records has been
+     * written out with the lists.
+     */
+    public void dropOld() {
+        this.old.delete();
+    }
+
+    /**
+     * @return Bytes written to the current journal.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Forces anything written to disk and closes the journal.
+     */
+    public void close() {
+        if (this.syncer != null) {
+            this.syncer.shutdown();
+        }
+        this.lock.lock();
+        try {
+            if (this.out != null) {
+                this.out.getFD().sync();
+                this.out.close();
+            }
+        } catch (IOException ioe) {
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Adds every whole record in a journal file to a list, cutting off
+     * anything torn or damaged at its end. A record that is whole but cannot
+     * be decoded is not damage, so it stops the read instead. */
+    private static void read(java.io.File f, ArrayList<Entry> entries)
+                             throws IOException {
+        if (!f.exists()) {
+            return;
+        }
+        long good = 0;
+        long size = f.length();
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(f)));
+        try {
+            while (size - good >= HEADER) {
+                int length = in.readInt();
+                int crc = in.readInt();
+                int type = in.readUnsignedByte();
+                if (length < 0 || length > size - good - HEADER) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksum(type, payload) != crc) {
+                    break;
+                }
+                Object o;
+                try {
+                    o = decode(payload);
+                } catch (IOException ioe) {
+                    throw new IOException(f + ": record at " + good +
+                        " could not be decoded (" + ioe.getMessage() + ")");
+                }
+                entries.add(new Entry(type, o));
+                good += HEADER + length;
+            }
+        } finally {
+            in.close();
+        }
+        if (good < size) {
+            RandomAccessFile raf = new RandomAccessFile(f, "rw");
+            raf.setLength(good);
+            raf.close();
+        }
+    }
+
+    /* Checksum of a record's type and payload. */
+    private static int checksum(int type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /* Deserializes a record's payload. */
+    private static Object decode(byte[] payload) throws IOException {
+        ObjectInputStream ois =
+            new ObjectInputStream(new ByteArrayInputStream(payload));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class " + cnfe.getMessage());
+        } finally {
+            ois.close();
+        }
+    }
+
+    // private classes ----------------------------------------------------
+
+    /**
+     * One record read back from the journal.
+     */
+    public static class Entry {
+        private int type;
+        private Object o;
+
+        /**
+         * Creates a new Entry.
+         * @param type One of the record types.
+         * @param o The object recorded; may be null.
+         */
+        public Entry(int type, Object o) {
+            this.type = type;
+            this.o = o;
+        }
+
+        /**
+         * @return One of the record types.
+         */
+        public int getType() {
+            return this.type;
+        }
+
+        /**
+         * @return The object recorded; may be null.
+         */
+        public Object getObject() {
+            return this.o;
+        }
+    }
+
+    /** Forces records written since the last run to disk. */
+    private class Syncer implements Runnable {
+        public void run() {
+            boolean force = false;
+            lock.lock();
+            try {
+                force = dirty && out != null;
+                dirty = false;
+            } finally {
+                lock.unlock();
+            }
+            if (force) {
+                // appends carry on while the disk catches up
+                try {
+                    out.getFD().sync();
+                } catch (IOException ioe) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import qars.util.Request;
+import qars.util.SCR;
+import qars.util.User;
+
+/**
+ * <p>Keeps the tables in a KVStore, one key per SCR, Request and user, so a
+ * change costs a write of the one thing changed and nothing is ever written
+ * whole. Each record is one transaction: an SCR and the time it was saved,
+ * or a transfer and the Requests it takes from the pending list, change
+ * together or not at all.</p>
+ *
+ * <p>A change whose commit fails is kept in memory and written again with
+ * the next commit that succeeds, or at the latest when the store is flushed
+ * or closed. Until then reads see the kept value.</p>
+ *
+ * <p>The first time it is opened it imports whatever the snapshot, journal
+ * and legacy files hold, including the users. After that the users file is
+ * only read again when the server is told it changed.</p>
+ *
+ * @author Jaren Belt
+ */
+public class KVStorage implements Storage {
+    // name of the key-value store file
+    private final String KVFILE = System.getenv("KVFILE") != null ?
+        System.getenv("KVFILE") : "qars.kv";
+    // when commits are forced to disk: always, interval or none
+    private final String FSYNC = System.getenv("FSYNC") != null ?
+        System.getenv("FSYNC") : Journal.INTERVAL;
+    // milliseconds between forces for the interval policy
+    private final int FSYNCINTERVAL = System.getenv("FSYNCINTERVAL") != null ?
+        Integer.parseInt(System.getenv("FSYNCINTERVAL")) : 1000;
+    // pages of the store file kept in memory
+    private final int KVCACHE = System.getenv("KVCACHE") != null ?
+        Integer.parseInt(System.getenv("KVCACHE")) : 1024;
+    // seconds between looks at whether the store needs compacting
+    private final int COMPACTINTERVAL =
+        System.getenv("COMPACTINTERVAL") != null ?
+        Integer.parseInt(System.getenv("COMPACTINTERVAL")) : 300;
+    // smallest store in bytes worth compacting
+    private final int COMPACTBYTES = System.getenv("COMPACTBYTES") != null ?
+        Integer.parseInt(System.getenv("COMPACTBYTES")) : 4 * 1024 * 1024;
+
+    // key prefixes, each followed by a lower case SCR id, a tracking number
+    // or a user name
+    private static final String SCRKEY = "scr/";
+    private static final String TOUCHKEY = "touch/";
+    private static final String COLDKEY = "cold/";
+    private static final String RQSTKEY = "rqst/";
+    private static final String USERKEY = "user/";
+    // the Requests being transferred, if any
+    private static final String XFERKEY = "xfer";
+    // present once the old files have been imported
+    private static final String IMPORTED = "meta/imported";
+
+    private String dataDir;
+    private LegacyFiles legacy;
+    private KVStore store;
+    private ScheduledExecutorService compactor;  // compacts the store
+    private LinkedHashMap<String, byte[]> unsaved;  // failed; null deletes
+    private ReentrantLock commitLock;        // guards unsaved and commits
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new KVStorage. Nothing is read until open is called.
+     * @param dataDir Directory for the files, ending with a separator.
+     */
+    public KVStorage(String dataDir) {
+        this.dataDir = dataDir;
+        this.legacy = new LegacyFiles(dataDir);
+        this.store = new KVStore(dataDir + KVFILE, FSYNC, FSYNCINTERVAL,
+                                 KVCACHE);
+        this.unsaved = new LinkedHashMap<String, byte[]>();
+        this.commitLock = new ReentrantLock();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Opens the store, importing the old files the first time. SCRs are
+     * attached unread; everything else is read.
+     * @param scrs The empty SCR table.
+     * @param pending The empty Request table.
+     * @param archive The archive, to be told which SCRs are in it.
+     * @return The Requests put back from an unfinished transfer, or null.
+     * @throws IOException if the store cannot be read.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<Request> open(SCRTable scrs, RequestTable pending,
+                                   Archive archive) throws IOException {
+        this.store.open();
+        ArrayList<Request> undone = null;
+        if (!this.store.contains(IMPORTED)) {
+            undone = importOld(scrs, pending, archive);
+        } else {
+            ArrayList<String> ids = strip(this.store.keys(SCRKEY), SCRKEY);
+            HashMap<String, Long> touched = new HashMap<String, Long>();
+            ArrayList<String> keys = this.store.keys(TOUCHKEY);
+            for (int i = 0; i < keys.size(); i++) {
+                touched.put(keys.get(i).substring(TOUCHKEY.length()),
+                            (Long) get(keys.get(i)));
+            }
+            scrs.attach(this, ids, touched);
+            keys = this.store.keys(RQSTKEY);
+            for (int i = 0; i < keys.size(); i++) {
+                pending.put((Request) get(keys.get(i)));
+            }
+            HashMap<String, String> cold = new HashMap<String, String>();
+            keys = this.store.keys(COLDKEY);
+            for (int i = 0; i < keys.size(); i++) {
+                cold.put(keys.get(i).substring(COLDKEY.length()),
+                         (String) get(keys.get(i)));
+            }
+            archive.load(cold);
+            if (this.store.contains(XFERKEY)) {
+                undone = (ArrayList<Request>) get(XFERKEY);
+                KVStore.Transaction t = this.store.begin();
+                for (int i = 0; i < undone.size(); i++) {
+                    pending.put(undone.get(i));
+                    t.put(RQSTKEY + undone.get(i).query(Request.TK),
+                          encode(undone.get(i)));
+                }
+                t.delete(XFERKEY);
+                t.commit();
+            }
+        }
+        // every segment the store names is safely recorded
+        archive.prune(archive.getIndex());
+        if (COMPACTINTERVAL > 0) {
+            this.compactor = Executors.newSingleThreadScheduledExecutor();
+            this.compactor.scheduleWithFixedDelay(new Compactor(),
+                COMPACTINTERVAL, COMPACTINTERVAL, TimeUnit.SECONDS);
+        }
+        return undone;
+    }
+
+    /**
+     * Reads an SCR from the store.
+     * @param id Lower case SCR id.
+     * @return The SCR, or null if there is none.
+     * @throws IOException if the SCR cannot be read.
+     */
+    public SCR loadSCR(String id) throws IOException {
+        return (SCR) get(SCRKEY + id);
+    }
+
+    /**
+     * Records a change as one transaction, along with any earlier change
+     * that could not be committed.
+     * @param type One of the Journal record types.
+     * @param o The object for that type; may be null.
+     * @throws IOException if the transaction could not be committed; the
+     * change is kept and tried again with the next one.
+     */
+    @SuppressWarnings("unchecked")
+    public void record(int type, Object o) throws IOException {
+        LinkedHashMap<String, byte[]> changes =
+            new LinkedHashMap<String, byte[]>();
+        switch (type) {
+            case Journal.SCRPUT:
+                String id = o.toString().toLowerCase();
+                changes.put(SCRKEY + id, encode(o));
+                changes.put(TOUCHKEY + id,
+                            encode(Long.valueOf(System.currentTimeMillis())));
+                if (has(COLDKEY + id)) {
+                    changes.put(COLDKEY + id, null);
+                }
+                break;
+            case Journal.SCRDELETE:
+                changes.put(SCRKEY + o, null);
+                changes.put(TOUCHKEY + o, null);
+                break;
+            case Journal.SCRARCHIVE:
+                String[] moved = (String[]) o;
+                changes.put(SCRKEY + moved[0], null);
+                changes.put(TOUCHKEY + moved[0], null);
+                changes.put(COLDKEY + moved[0], encode(moved[1]));
+                break;
+            case Journal.RQSTPUT:
+                changes.put(RQSTKEY + ((Request) o).query(Request.TK),
+                            encode(o));
+                break;
+            case Journal.RQSTDELETE:
+                changes.put(RQSTKEY + o, null);
+                break;
+            case Journal.XFERSTART:
+                ArrayList<Request> moving = (ArrayList<Request>) o;
+                for (int i = 0; i < moving.size(); i++) {
+                    changes.put(RQSTKEY + moving.get(i).query(Request.TK),
+                                null);
+                }
+                changes.put(XFERKEY, encode(moving));
+                break;
+            case Journal.XFERFINISH:
+                changes.put(XFERKEY, null);
+                break;
+        }
+        commit(changes);
+    }
+
+    /**
+     * Writes any change that could not be committed, then forces every
+     * commit to disk.
+     * @throws IOException if the store could not be written or forced.
+     */
+    public void flush() throws IOException {
+        commit(new LinkedHashMap<String, byte[]>());
+        this.store.sync();
+    }
+
+    /**
+     * Reads the users from the store, or from the users file when it has
+     * just changed, replacing the users in the store.
+     * @param refresh true to read the users file again.
+     * @return Every user.
+     * @throws IOException if the users cannot be read.
+     */
+    public ArrayList<User> loadUsers(boolean refresh) throws IOException {
+        ArrayList<User> list = new ArrayList<User>();
+        if (refresh) {
+            list = this.legacy.readUsers();
+            saveUsers(this.store.begin(), list).commit();
+            return list;
+        }
+        ArrayList<String> keys = this.store.keys(USERKEY);
+        for (int i = 0; i < keys.size(); i++) {
+            list.add((User) get(keys.get(i)));
+        }
+        return list;
+    }
+
+    /**
+     * Describes the store for a status report.
+     * @return One line per measure.
+     */
+    public ArrayList<String> getStatus() {
+        ArrayList<String> lines = new ArrayList<String>();
+        lines.add("persist kv");
+        lines.addAll(this.store.getStatus());
+        this.commitLock.lock();
+        try {
+            if (!this.unsaved.isEmpty()) {
+                lines.add("kv " + this.unsaved.size() + " changes unsaved");
+            }
+        } finally {
+            this.commitLock.unlock();
+        }
+        return lines;
+    }
+
+    /**
+     * Writes any change that could not be committed, forces every commit to
+     * disk and closes the store.
+     */
+    public void close() {
+        if (this.compactor != null) {
+            this.compactor.shutdown();
+        }
+        try {
+            commit(new LinkedHashMap<String, byte[]>());
+        } catch (IOException ioe) {
+            System.err.println(this.unsaved.size() +
+                " changes could not be saved: " + ioe.getMessage());
+        }
+        this.store.close();
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Reads the tables as the snapshot storage keeps them, then writes all
+     * of it, with the users, in one transaction. Until that commits nothing
+     * counts as imported, so a crash part way imports again. */
+    private ArrayList<Request> importOld(SCRTable scrs, RequestTable pending,
+                                         Archive archive) throws IOException {
+        SnapshotStorage old = new SnapshotStorage(this.dataDir, false);
+        ArrayList<Request> undone = old.open(scrs, pending, archive);
+        KVStore.Transaction t = this.store.begin();
+        Iterator<SCR> it = scrs.values().iterator();
+        HashMap<String, Long> touched = scrs.getTouched();
+        while (it.hasNext()) {
+            SCR s = it.next();
+            String id = s.toString().toLowerCase();
+            t.put(SCRKEY + id, encode(s));
+            Long when = touched.get(id);
+            if (when != null) {
+                t.put(TOUCHKEY + id, encode(when));
+            }
+        }
+        ArrayList<Request> rqsts =
+            new ArrayList<Request>(pending.snapshot().getItems());
+        for (int i = 0; i < rqsts.size(); i++) {
+            t.put(RQSTKEY + rqsts.get(i).query(Request.TK),
+                  encode(rqsts.get(i)));
+        }
+        Iterator<Map.Entry<String, String>> cold =
+            archive.getIndex().entrySet().iterator();
+        while (cold.hasNext()) {
+            Map.Entry<String, String> e = cold.next();
+            t.put(COLDKEY + e.getKey(), encode(e.getValue()));
+        }
+        saveUsers(t, this.legacy.readUsers());
+        t.put(IMPORTED, encode(Long.valueOf(System.currentTimeMillis())));
+        t.commit();
+        this.store.sync();
+        old.close();
+        return undone;
+    }
+
+    /* Commits a set of changes after whatever is still unsaved, as one
+     * transaction. If it fails, all of it is kept for the next commit. */
+    private void commit(LinkedHashMap<String, byte[]> changes)
+                        throws IOException {
+        this.commitLock.lock();
+        try {
+            LinkedHashMap<String, byte[]> all = changes;
+            if (!this.unsaved.isEmpty()) {
+                // later changes to a key replace the unsaved ones
+                all = new LinkedHashMap<String, byte[]>(this.unsaved);
+                all.putAll(changes);
+            }
+            KVStore.Transaction t = this.store.begin();
+            Iterator<Map.Entry<String, byte[]>> it = all.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, byte[]> e = it.next();
+                if (e.getValue() != null) {
+                    t.put(e.getKey(), e.getValue());
+                } else {
+                    t.delete(e.getKey());
+                }
+            }
+            try {
+                t.commit();
+            } catch (IOException ioe) {
+                this.unsaved = all;
+                throw ioe;
+            }
+            this.unsaved = new LinkedHashMap<String, byte[]>();
+        } finally {
+            this.commitLock.unlock();
+        }
+    }
+
+    /* Determines whether a key has a value, counting unsaved changes. */
+    private boolean has(String key) {
+        this.commitLock.lock();
+        try {
+            if (this.unsaved.containsKey(key)) {
+                return this.unsaved.get(key) != null;
+            }
+        } finally {
+            this.commitLock.unlock();
+        }
+        return this.store.contains(key);
+    }
+
+    /* Adds replacing every user in the store to a transaction. */
+    private KVStore.Transaction saveUsers(KVStore.Transaction t,
+                                          ArrayList<User> list)
+                                          throws IOException {
+        ArrayList<String> keys = this.store.keys(USERKEY);
+        for (int i = 0; i < keys.size(); i++) {
+            t.delete(keys.get(i));
+        }
+        for (int i = 0; i < list.size(); i++) {
+            t.put(USERKEY + list.get(i).getWin(), encode(list.get(i)));
+        }
+        return t;
+    }
+
+    /* Reads and decodes a value, an unsaved one first; null if the key has
+     * none. */
+    private Object get(String key) throws IOException {
+        byte[] b = null;
+        this.commitLock.lock();
+        try {
+            if (this.unsaved.containsKey(key)) {
+                b = this.unsaved.get(key);
+                if (b == null) {
+                    return null;
+                }
+            }
+        } finally {
+            this.commitLock.unlock();
+        }
+        if (b == null) {
+            b = this.store.get(key);
+        }
+        if (b == null) {
+            return null;
+        }
+        ObjectInputStream ois =
+            new ObjectInputStream(new ByteArrayInputStream(b));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /* Serializes a value. */
+    private static byte[] encode(Object o) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(o);
+        oos.close();
+        return bos.toByteArray();
+    }
+
+    /* Drops a prefix from every key. */
+    private static ArrayList<String> strip(ArrayList<String> keys,
+                                           String prefix) {
+        ArrayList<String> ids = new ArrayList<String>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            ids.add(keys.get(i).substring(prefix.length()));
+        }
+        return ids;
+    }
+
+    // private classes ----------------------------------------------------
+
+    /**
+     * Writes any unsaved changes, then compacts the store once most of it is
+     * values no longer current.
+     */
+    private class Compactor implements Runnable {
+        public void run() {
+            try {
+                commit(new LinkedHashMap<String, byte[]>());
+            } catch (IOException ioe) {
+                // kept for the next commit
+            }
+            if (store.needsCompaction(COMPACTBYTES)) {
+                try {
+                    store.compact();
+                } catch (IOException ioe) {
+                    ioe.printStackTrace(System.err);
+                }
+            }
+        }
+    }
+}
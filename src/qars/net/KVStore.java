@@ -0,0 +1,592 @@
+package qars.net;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * <p>A small key-value store kept in one file inside the process. Values are
+ * byte arrays under string keys. Changes are made in transactions: every put
+ * and delete in a transaction is written as one record at the end of the
+ * file, with a checksum, so after a crash a transaction is either all there
+ * or not there at all. Writing a value costs the size of that value, however
+ * many others there are.</p>
+ *
+ * <p>Where the latest value of each key is kept is held in memory, so a read
+ * is one positional read of the file. Reads go through a cache of file pages;
+ * pages only ever get appended to, so a cached page never goes stale. Old
+ * values are left behind in the file until it is compacted, which copies the
+ * current values into a new file and renames it over the old one.</p>
+ *
+ * <p>How soon a commit reaches the disk follows the same policies as the
+ * Journal.</p>
+ *
+ * @author Jaren Belt
+ */
+public class KVStore {
+    // bytes in a cached page
+    private static final int PAGE = 4096;
+    // record header: length and checksum
+    private static final int HEADER = 8;
+    // operations in a record
+    private static final int PUT = 1;
+    private static final int DELETE = 2;
+    // compaction writes records of about this many bytes
+    private static final int BATCH = 1024 * 1024;
+
+    private java.io.File file;
+    private String policy;
+    private FileChannel channel;
+    private ConcurrentHashMap<String, Location> keys;  // latest of each key
+    private volatile long end;            // bytes of whole transactions
+    private AtomicLong live;               // bytes of values still current
+    // commits and reads share the file; compaction replaces it
+    private ReentrantReadWriteLock fileLock;
+    private ReentrantLock appendLock;             // one commit at a time
+    private LinkedHashMap<Long, byte[]> pages;    // least recently used last
+    private int maxPages;
+    private ReentrantLock cacheLock;                     // guards pages
+    private volatile boolean dirty;     // written but not yet forced?
+    private ScheduledExecutorService syncer;   // forces on an interval
+    private AtomicLong commits;
+    private AtomicLong lookups;                         // pages asked for
+    private AtomicLong hits;                    // pages found in the cache
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new KVStore. Nothing is opened until open is called.
+     * @param path Name of the file.
+     * @param policy Journal.ALWAYS, Journal.INTERVAL or Journal.NONE.
+     * @param interval Milliseconds between forces for the INTERVAL policy.
+     * @param maxPages Most file pages to keep cached.
+     */
+    public KVStore(String path, String policy, long interval, int maxPages) {
+        this.file = new java.io.File(path);
+        this.policy = policy;
+        this.keys = new ConcurrentHashMap<String, Location>();
+        this.live = new AtomicLong(0);
+        this.fileLock = new ReentrantReadWriteLock();
+        this.appendLock = new ReentrantLock();
+        this.pages = new LinkedHashMap<Long, byte[]>(16, 0.75f, true);
+        this.maxPages = Math.max(1, maxPages);
+        this.cacheLock = new ReentrantLock();
+        this.dirty = false;
+        this.commits = new AtomicLong(0);
+        this.lookups = new AtomicLong(0);
+        this.hits = new AtomicLong(0);
+        if (Journal.INTERVAL.equals(policy)) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor();
+            this.syncer.scheduleWithFixedDelay(new Syncer(), interval,
+                                               interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Reads where every key is from the file, drops anything after the last
+     * whole transaction and opens the file for commits.
+     * @throws IOException if the file cannot be read or opened.
+     */
+    public void open() throws IOException {
+        long good = 0;
+        if (this.file.exists()) {
+            long size = this.file.length();
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(this.file)));
+            try {
+                while (size - good >= HEADER) {
+                    int length = in.readInt();
+                    int crc = in.readInt();
+                    if (length < 0 || length > size - good - HEADER) {
+                        break;
+                    }
+                    byte[] body = new byte[length];
+                    in.readFully(body);
+                    if (checksum(body) != crc) {
+                        break;
+                    }
+                    apply(body, good + HEADER);
+                    good += HEADER + length;
+                }
+            } catch (IOException ioe) {
+                // a transaction that cannot be decoded ends the file too
+            } finally {
+                in.close();
+            }
+        }
+        this.channel = FileChannel.open(this.file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        if (this.channel.size() > good) {
+            this.channel.truncate(good);
+        }
+        this.end = good;
+    }
+
+    /**
+     * Reads the latest value of a key.
+     * @param key The key.
+     * @return The value, or null if the key has none.
+     * @throws IOException if the value cannot be read.
+     */
+    public byte[] get(String key) throws IOException {
+        this.fileLock.readLock().lock();
+        try {
+            Location loc = this.keys.get(key);
+            if (loc == null) {
+                return null;
+            }
+            return read(loc.offset, loc.length);
+        } finally {
+            this.fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param key The key.
+     * @return true if the key has a value.
+     */
+    public boolean contains(String key) {
+        return this.keys.containsKey(key);
+    }
+
+    /**
+     * Lists the keys that start with a prefix.
+     * @param prefix The start of the keys wanted.
+     * @return The keys, in no particular order.
+     */
+    public ArrayList<String> keys(String prefix) {
+        ArrayList<String> found = new ArrayList<String>();
+        Iterator<String> it = this.keys.keySet().iterator();
+        while (it.hasNext()) {
+            String k = it.next();
+            if (k.startsWith(prefix)) {
+                found.add(k);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Starts a transaction. Nothing in it is seen until it is committed.
+     * @return The new transaction.
+     */
+    public Transaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * Forces every committed transaction to disk.
+     * @throws IOException if the file could not be forced.
+     */
+    public void sync() throws IOException {
+        this.fileLock.readLock().lock();
+        try {
+            this.dirty = false;
+            this.channel.force(false);
+        } finally {
+            this.fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param minBytes Smallest file worth compacting.
+     * @return true if the file is at least minBytes and more than half of it
+     *         is values no longer current.
+     */
+    public boolean needsCompaction(long minBytes) {
+        return this.end >= minBytes && this.live.get() * 2 < this.end;
+    }
+
+    /**
+     * Copies the current value of every key to a new file and puts it in
+     * place of the old one. Commits and reads wait until it is done. Should
+     * the rename be lost in a crash, the old file still holds every value.
+     * @throws IOException if the new file could not be written.
+     */
+    public void compact() throws IOException {
+        this.fileLock.writeLock().lock();
+        try {
+            java.io.File tmp = new java.io.File(this.file.getPath() + ".tmp");
+            HashMapWriter w = new HashMapWriter(tmp);
+            ConcurrentHashMap<String, Location> moved =
+                new ConcurrentHashMap<String, Location>();
+            try {
+                Iterator<Map.Entry<String, Location>> it =
+                    this.keys.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Location> e = it.next();
+                    Location loc = e.getValue();
+                    w.put(e.getKey(), read(loc.offset, loc.length), moved);
+                }
+                w.finish(moved);
+            } finally {
+                w.close();
+            }
+            if (!tmp.renameTo(this.file)) {
+                tmp.delete();
+                throw new IOException("Could not replace " + this.file);
+            }
+            this.channel.close();
+            this.channel = FileChannel.open(this.file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.keys.clear();
+            this.keys.putAll(moved);
+            this.end = w.getSize();
+            this.cacheLock.lock();
+            try {
+                this.pages.clear();
+            } finally {
+                this.cacheLock.unlock();
+            }
+        } finally {
+            this.fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Describes the store for a status report.
+     * @return One line per measure.
+     */
+    public ArrayList<String> getStatus() {
+        ArrayList<String> lines = new ArrayList<String>(3);
+        lines.add("kv " + this.keys.size() + " keys, " + this.end +
+                  " bytes, " + this.live.get() + " current");
+        lines.add("kv " + this.commits.get() + " commits, " + policy);
+        lines.add("kv cache " + this.hits.get() + " of " +
+                  this.lookups.get() + " pages hit");
+        return lines;
+    }
+
+    /**
+     * Forces everything committed to disk and closes the file.
+     */
+    public void close() {
+        if (this.syncer != null) {
+            this.syncer.shutdown();
+        }
+        this.fileLock.writeLock().lock();
+        try {
+            if (this.channel != null) {
+                this.channel.force(false);
+                this.channel.close();
+            }
+        } catch (IOException ioe) {
+        } finally {
+            this.fileLock.writeLock().unlock();
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Writes one transaction at the end of the file and then makes its
+     * changes seen. Offsets are those of each put's value in the body. */
+    private void append(byte[] body, ArrayList<String> names,
+                        ArrayList<Location> values) throws IOException {
+        this.fileLock.readLock().lock();
+        this.appendLock.lock();
+        try {
+            long at = this.end;
+            ByteBuffer bb = ByteBuffer.allocate(HEADER + body.length);
+            bb.putInt(body.length);
+            bb.putInt(checksum(body));
+            bb.put(body);
+            bb.flip();
+            long pos = at;
+            while (bb.hasRemaining()) {
+                pos += this.channel.write(bb, pos);
+            }
+            if (Journal.ALWAYS.equals(this.policy)) {
+                this.channel.force(false);
+            } else {
+                this.dirty = true;
+            }
+            this.end = pos;
+            for (int i = 0; i < names.size(); i++) {
+                Location v = values.get(i);
+                Location old = (v == null ? this.keys.remove(names.get(i)) :
+                    this.keys.put(names.get(i),
+                        new Location(at + HEADER + v.offset, v.length)));
+                if (old != null) {
+                    this.live.addAndGet(-old.length);
+                }
+                if (v != null) {
+                    this.live.addAndGet(v.length);
+                }
+            }
+            this.commits.incrementAndGet();
+        } finally {
+            this.appendLock.unlock();
+            this.fileLock.readLock().unlock();
+        }
+    }
+
+    /* Applies a transaction read back from the file at a given offset. */
+    private void apply(byte[] body, long at) throws IOException {
+        ByteArrayInputStream bis = new ByteArrayInputStream(body);
+        DataInputStream in = new DataInputStream(bis);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int op = in.readUnsignedByte();
+            String key = in.readUTF();
+            Location old = null;
+            if (op == PUT) {
+                int length = in.readInt();
+                long offset = at + body.length - bis.available();
+                in.skipBytes(length);
+                old = this.keys.put(key, new Location(offset, length));
+                this.live.addAndGet(length);
+            } else {
+                old = this.keys.remove(key);
+            }
+            if (old != null) {
+                this.live.addAndGet(-old.length);
+            }
+        }
+    }
+
+    /* Reads bytes of the file through the page cache. */
+    private byte[] read(long offset, int length) throws IOException {
+        byte[] out = new byte[length];
+        int done = 0;
+        while (done < length) {
+            long pos = offset + done;
+            long number = pos / PAGE;
+            byte[] page = page(number);
+            int from = (int) (pos - number * PAGE);
+            int n = Math.min(page.length - from, length - done);
+            if (n <= 0) {
+                throw new EOFException("Value past end of " + this.file);
+            }
+            System.arraycopy(page, from, out, done, n);
+            done += n;
+        }
+        return out;
+    }
+
+    /* Gets a page of the file, from the cache if it is there. Only pages
+     * wholly inside committed transactions are cached; they never change. */
+    private byte[] page(long number) throws IOException {
+        this.lookups.incrementAndGet();
+        Long key = Long.valueOf(number);
+        this.cacheLock.lock();
+        try {
+            byte[] page = this.pages.get(key);
+            if (page != null) {
+                this.hits.incrementAndGet();
+                return page;
+            }
+        } finally {
+            this.cacheLock.unlock();
+        }
+        // read outside the lock so other pages can be served meanwhile
+        ByteBuffer bb = ByteBuffer.allocate(PAGE);
+        long at = number * PAGE;
+        while (bb.hasRemaining()) {
+            if (this.channel.read(bb, at + bb.position()) < 0) {
+                break;
+            }
+        }
+        byte[] page = new byte[bb.position()];
+        System.arraycopy(bb.array(), 0, page, 0, page.length);
+        if (page.length == PAGE && at + PAGE <= this.end) {
+            this.cacheLock.lock();
+            try {
+                this.pages.put(key, page);
+                if (this.pages.size() > this.maxPages) {
+                    Iterator<Long> it = this.pages.keySet().iterator();
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                this.cacheLock.unlock();
+            }
+        }
+        return page;
+    }
+
+    /* Checksum of a transaction's body. */
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+
+    // private classes ----------------------------------------------------
+
+    /**
+     * Changes to be made together. Later changes to the same key in one
+     * transaction replace earlier ones.
+     */
+    public class Transaction {
+        private LinkedHashMap<String, byte[]> changes;  // null value deletes
+
+        /**
+         * Creates a new, empty Transaction.
+         */
+        public Transaction() {
+            this.changes = new LinkedHashMap<String, byte[]>();
+        }
+
+        /**
+         * Sets the value of a key.
+         * @param key The key.
+         * @param value The new value.
+         */
+        public void put(String key, byte[] value) {
+            this.changes.put(key, value);
+        }
+
+        /**
+         * Removes a key and its value.
+         * @param key The key.
+         */
+        public void delete(String key) {
+            this.changes.put(key, null);
+        }
+
+        /**
+         * Writes every change as one record and makes them seen.
+         * @throws IOException if the record could not be written.
+         */
+        public void commit() throws IOException {
+            if (this.changes.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+            DataOutputStream dos = new DataOutputStream(bos);
+            ArrayList<String> names = new ArrayList<String>();
+            ArrayList<Location> values = new ArrayList<Location>();
+            dos.writeInt(this.changes.size());
+            Iterator<Map.Entry<String, byte[]>> it =
+                this.changes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, byte[]> e = it.next();
+                byte[] value = e.getValue();
+                dos.write(value != null ? PUT : DELETE);
+                dos.writeUTF(e.getKey());
+                names.add(e.getKey());
+                if (value != null) {
+                    dos.writeInt(value.length);
+                    values.add(new Location(dos.size(), value.length));
+                    dos.write(value);
+                } else {
+                    values.add(null);
+                }
+            }
+            dos.flush();
+            append(bos.toByteArray(), names, values);
+        }
+    }
+
+    /** Where a value is in the file. */
+    private static class Location {
+        private long offset;
+        private int length;
+        public Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** Writes current values to a new file in large transactions. */
+    private static class HashMapWriter {
+        private FileOutputStream fos;
+        private ByteArrayOutputStream bos;
+        private DataOutputStream dos;
+        private ArrayList<String> names;
+        private ArrayList<Long> offsets;            // of values in the body
+        private ArrayList<Integer> lengths;
+        private long size;                         // bytes written so far
+        public HashMapWriter(java.io.File f) throws IOException {
+            this.fos = new FileOutputStream(f);
+            this.bos = new ByteArrayOutputStream(BATCH + PAGE);
+            this.dos = new DataOutputStream(this.bos);
+            this.names = new ArrayList<String>();
+            this.offsets = new ArrayList<Long>();
+            this.lengths = new ArrayList<Integer>();
+            this.size = 0;
+        }
+        public void put(String key, byte[] value,
+                        Map<String, Location> moved) throws IOException {
+            if (this.names.isEmpty()) {
+                // room for the count, filled in when the batch is written
+                this.dos.writeInt(0);
+            }
+            this.dos.write(PUT);
+            this.dos.writeUTF(key);
+            this.dos.writeInt(value.length);
+            this.names.add(key);
+            this.offsets.add(Long.valueOf(this.dos.size()));
+            this.lengths.add(Integer.valueOf(value.length));
+            this.dos.write(value);
+            if (this.dos.size() >= BATCH) {
+                finish(moved);
+            }
+        }
+        public void finish(Map<String, Location> moved) throws IOException {
+            if (this.names.isEmpty()) {
+                this.fos.getFD().sync();
+                return;
+            }
+            this.dos.flush();
+            byte[] body = this.bos.toByteArray();
+            int count = this.names.size();
+            body[0] = (byte) (count >>> 24);
+            body[1] = (byte) (count >>> 16);
+            body[2] = (byte) (count >>> 8);
+            body[3] = (byte) count;
+            DataOutputStream out = new DataOutputStream(this.fos);
+            out.writeInt(body.length);
+            out.writeInt(checksum(body));
+            out.write(body);
+            out.flush();
+            for (int i = 0; i < count; i++) {
+                moved.put(this.names.get(i), new Location(
+                    this.size + HEADER + this.offsets.get(i).longValue(),
+                    this.lengths.get(i).intValue()));
+            }
+            this.size += HEADER + body.length;
+            this.bos.reset();
+            this.dos = new DataOutputStream(this.bos);
+            this.names.clear();
+            this.offsets.clear();
+            this.lengths.clear();
+            this.fos.getFD().sync();
+        }
+        public long getSize() {
+            return this.size;
+        }
+        public void close() throws IOException {
+            this.fos.close();
+        }
+    }
+
+    /** Forces commits made since the last run to disk. */
+    private class Syncer implements Runnable {
+        public void run() {
+            if (dirty) {
+                try {
+                    sync();
+                } catch (IOException ioe) {
+                    dirty = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import qars.util.Request;
+import qars.util.SCR;
+import qars.util.User;
+
+/**
+ * <p>Reads and writes the files QARS kept before it had a Storage: each list
+ * serialized whole, the SCRs to qars.active, the pending Requests to
+ * qars.pending and the users to .userxref. A Storage imports them the first
+ * time it starts, the users file stays the master list of users, and the
+ * lists can be exported back for tools that still read them.</p>
+ *
+ * @author Jaren Belt
+ */
+public class LegacyFiles {
+    // names of the files, relative to the data directory
+    private final String ALLACTIVE = System.getenv("ACTIVE") != null ?
+        System.getenv("ACTIVE") : "qars.active";
+    private final String PENDING = System.getenv("PENDING") != null ?
+        System.getenv("PENDING") : "qars.pending";
+    private final String USERS = System.getenv("USERSFILE") != null ?
+        System.getenv("USERSFILE") : ".userxref";
+
+    private String dataDir;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new LegacyFiles.
+     * @param dataDir Directory the files are in, ending with a separator.
+     */
+    public LegacyFiles(String dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return true if there are SCR or Request files to import.
+     */
+    public boolean exist() {
+        return new java.io.File(this.dataDir + ALLACTIVE).exists() ||
+               new java.io.File(this.dataDir + PENDING).exists();
+    }
+
+    /**
+     * Reads the SCR file.
+     * @return Every SCR; empty if there is no file.
+     * @throws IOException if the file cannot be read.
+     */
+    public ArrayList<SCR> readSCRs() throws IOException {
+        return read(new ArrayList<SCR>(), ALLACTIVE);
+    }
+
+    /**
+     * Reads the pending Request file.
+     * @return Every pending Request; empty if there is no file.
+     * @throws IOException if the file cannot be read.
+     */
+    public ArrayList<Request> readPending() throws IOException {
+        return read(new ArrayList<Request>(), PENDING);
+    }
+
+    /**
+     * Reads the users file.
+     * @return Every user; empty if there is no file.
+     * @throws IOException if the file cannot be read.
+     */
+    public ArrayList<User> readUsers() throws IOException {
+        return read(new ArrayList<User>(), USERS);
+    }
+
+    /**
+     * Writes the SCR and pending Request files, each replaced in one step.
+     * The users file is the master list and is never written here.
+     * @param scrs Every SCR.
+     * @param pending Every pending Request.
+     * @throws IOException if a file could not be written.
+     */
+    public void write(ArrayList<SCR> scrs, ArrayList<Request> pending)
+                      throws IOException {
+        write(scrs, ALLACTIVE);
+        write(pending, PENDING);
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Opens a file and returns the list. If the file does not exist or is
+     * empty, the list given is returned. */
+    @SuppressWarnings("unchecked")
+    private <T> ArrayList<T> read(ArrayList<T> list, String file)
+                                  throws IOException {
+        java.io.File f = new java.io.File(this.dataDir + file);
+        if (!f.exists() || f.length() == 0) {
+            return list;
+        }
+        ObjectInputStream ois =
+            new ObjectInputStream(new BufferedInputStream(new FileInputStream(f)));
+        try {
+            list = (ArrayList<T>) ois.readObject();
+            if (!list.isEmpty()) {
+                Object o = list.get(0);
+                if (o != null && !(o instanceof SCR || o instanceof Request ||
+                                   o instanceof User)) {
+                    throw new IOException("Unrecognized class");
+                }
+            }
+            return list;
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class");
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /* Replaces a file with a list. */
+    private void write(ArrayList<?> list, String file) throws IOException {
+        java.io.File f = new java.io.File(this.dataDir + file);
+        java.io.File tmp = new java.io.File(f.getPath() + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            ObjectOutputStream oos =
+                new ObjectOutputStream(new BufferedOutputStream(fos));
+            oos.writeObject(list);
+            oos.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(f)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + f);
+        }
+    }
+}
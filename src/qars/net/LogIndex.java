@@ -0,0 +1,564 @@
+package qars.net;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Keeps the server log in segments and finds the lines about a tracking
+ * number without reading the rest. The log being written is a plain text
+ * file, as it always was. When it is rotated it is renamed to a segment
+ * named for the time, then compressed on a thread of its own in blocks that
+ * can each be read alone, and given a sidecar index from each tracking
+ * number to the block and offset of every line about it.</p>
+ *
+ * <p>A line is about the tracking number it starts with and about any
+ * Requests it was logged with. The Requests are kept in a keys file beside
+ * the log as lines are written, since they cannot be told from the text.
+ * A segment whose compression was cut short is compressed again the next
+ * time the log is opened.</p>
+ *
+ * @author Jaren Belt
+ */
+public class LogIndex {
+    // uncompressed bytes in each separately compressed block
+    private static final int BLOCK = 64 * 1024;
+    // suffixes of a segment's files
+    private static final String SEALED = ".gz";
+    private static final String INDEX = ".idx";
+    private static final String KEYS = ".keys";
+    private static final String TMP = ".tmp";
+
+    private java.io.File dir;
+    private String name;                        // name of the active log
+    private ArrayList<String> segments;       // sealed, oldest first
+    private ArrayList<String> sealing;   // rotated, not yet compressed
+    private HashMap<Integer, ArrayList<String>> found;  // key to segments
+    // rotation renames the active log, which lookups must not see halfway
+    private ReentrantReadWriteLock lock;
+    private ExecutorService sealer;            // compresses segments
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Opens the segments of a log. Segments not yet compressed, and an
+     * active log left from the last run, are queued to be compressed.
+     * @param path Name of the active log file.
+     * @throws IOException if the directory cannot be read.
+     */
+    public LogIndex(String path) throws IOException {
+        java.io.File f = new java.io.File(path).getAbsoluteFile();
+        this.dir = f.getParentFile();
+        this.name = f.getName();
+        this.segments = new ArrayList<String>();
+        this.sealing = new ArrayList<String>();
+        this.found = new HashMap<Integer, ArrayList<String>>();
+        this.lock = new ReentrantReadWriteLock();
+        this.sealer = Executors.newSingleThreadExecutor();
+        String[] names = this.dir.list();
+        if (names == null) {
+            throw new IOException("Could not read " + this.dir);
+        }
+        Arrays.sort(names);
+        for (int i = 0; i < names.length; i++) {
+            String base = segmentOf(names[i]);
+            if (base == null) {
+                continue;
+            }
+            if (names[i].endsWith(TMP)) {
+                new java.io.File(this.dir, names[i]).delete();
+            } else if (names[i].equals(base)) {
+                this.sealing.add(base);
+            } else if (names[i].equals(base + INDEX)) {
+                load(base);
+            }
+        }
+        for (int i = 0; i < this.sealing.size(); i++) {
+            this.sealer.execute(new Sealer(this.sealing.get(i)));
+        }
+        if (f.length() > 0) {
+            rotate(System.currentTimeMillis());
+        }
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return Name of the active log file.
+     */
+    public String getPath() {
+        return new java.io.File(this.dir, this.name).getPath();
+    }
+
+    /**
+     * @return Name of the keys file beside the active log.
+     */
+    public String getKeysPath() {
+        return new java.io.File(this.dir, this.name + KEYS).getPath();
+    }
+
+    /**
+     * Turns the active log into a segment and queues it to be compressed.
+     * The writer must have closed the active log and its keys file, and
+     * opens new ones afterwards.
+     * @param now The time the segment is named for.
+     * @throws IOException if the active log could not be renamed.
+     */
+    public void rotate(long now) throws IOException {
+        String base = this.name + "." + now;
+        this.lock.writeLock().lock();
+        try {
+            java.io.File active = new java.io.File(this.dir, this.name);
+            if (!active.renameTo(new java.io.File(this.dir, base))) {
+                throw new IOException("Could not rotate " + active);
+            }
+            new java.io.File(this.dir, this.name + KEYS).renameTo(
+                new java.io.File(this.dir, base + KEYS));
+            this.sealing.add(base);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        this.sealer.execute(new Sealer(base));
+    }
+
+    /**
+     * Finds the lines about a tracking number, oldest first. Lines still
+     * in the writer's buffer are not found.
+     * @param key A connection's or a Request's tracking number.
+     * @param max Most lines to return.
+     * @return The lines, without line ends.
+     * @throws IOException if a segment cannot be read.
+     */
+    public ArrayList<String> lookup(int key, int max) throws IOException {
+        ArrayList<String> lines = new ArrayList<String>();
+        ArrayList<String> in = null;
+        // plain files and their keys files, opened while none can move;
+        // once open they can be read even if they are renamed or deleted
+        ArrayList<InputStream> plain = new ArrayList<InputStream>();
+        this.lock.readLock().lock();
+        try {
+            ArrayList<String> s = this.found.get(Integer.valueOf(key));
+            in = (s != null ? new ArrayList<String>(s) :
+                              new ArrayList<String>());
+            for (int i = 0; i < this.sealing.size(); i++) {
+                open(this.sealing.get(i), plain);
+            }
+            open(this.name, plain);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        try {
+            for (int i = 0; i < in.size() && lines.size() < max; i++) {
+                readSealed(in.get(i), key, max, lines);
+            }
+            for (int i = 0; i < plain.size() && lines.size() < max; i += 2) {
+                readPlain(plain.get(i), plain.get(i + 1), key, max, lines);
+            }
+        } finally {
+            for (int i = 0; i < plain.size(); i++) {
+                if (plain.get(i) != null) {
+                    plain.get(i).close();
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return The number of compressed segments.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.segments.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops compressing once the segments queued are done. Any the process
+     * ends before are compressed the next time the log is opened.
+     */
+    public void close() {
+        this.sealer.shutdown();
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* The segment a file in the directory belongs to, or null if it is not
+     * one of this log's segment files. */
+    private String segmentOf(String file) {
+        if (!file.startsWith(this.name + ".")) {
+            return null;
+        }
+        int start = this.name.length() + 1;
+        int end = start;
+        while (end < file.length() && Character.isDigit(file.charAt(end))) {
+            end++;
+        }
+        return (end > start ? file.substring(0, end) : null);
+    }
+
+    /* Opens a plain log file and its keys file, adding both to a list; the
+     * keys file is added as null if there is none. */
+    private void open(String base, ArrayList<InputStream> plain)
+                      throws IOException {
+        java.io.File f = new java.io.File(this.dir, base);
+        java.io.File k = new java.io.File(this.dir, base + KEYS);
+        if (!f.exists()) {
+            return;
+        }
+        plain.add(new FileInputStream(f));
+        plain.add(k.exists() ? new FileInputStream(k) : null);
+    }
+
+    /* Adds the keys in a sealed segment's index to those found. */
+    private void load(String base) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(new java.io.File(this.dir, base + INDEX))));
+        try {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int key = in.readInt();
+                int n = in.readInt();
+                in.skipBytes(n * 12);
+                found(key, base);
+            }
+        } finally {
+            in.close();
+        }
+        this.segments.add(base);
+    }
+
+    /* Notes that a segment holds lines about a key. Callers hold the write
+     * lock, or run before anyone else can see this index. */
+    private void found(int key, String base) {
+        Integer k = Integer.valueOf(key);
+        ArrayList<String> s = this.found.get(k);
+        if (s == null) {
+            s = new ArrayList<String>(2);
+            this.found.put(k, s);
+        }
+        s.add(base);
+    }
+
+    /* Compresses a segment in blocks and writes its index. The compressed
+     * file is in place before the index, and the index before the plain
+     * file goes, so a crash part way leaves the plain file to seal again. */
+    private void seal(String base) throws IOException {
+        java.io.File plain = new java.io.File(this.dir, base);
+        java.io.File keysFile = new java.io.File(this.dir, base + KEYS);
+        HashMap<Long, ArrayList<Integer>> refs = readKeys(keysFile);
+        TreeMap<Integer, ArrayList<long[]>> index =
+            new TreeMap<Integer, ArrayList<long[]>>();
+        java.io.File gzTmp = new java.io.File(this.dir, base + SEALED + TMP);
+        FileOutputStream fos = new FileOutputStream(gzTmp);
+        InputStream in = new BufferedInputStream(new FileInputStream(plain));
+        try {
+            ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK * 2);
+            ArrayList<long[]> waiting = new ArrayList<long[]>();  // key, at
+            long offset = 0;
+            byte[] line;
+            while ((line = readLine(in)) != null) {
+                ArrayList<Integer> keys = new ArrayList<Integer>(2);
+                int track = leadingNumber(line);
+                if (track >= 0) {
+                    keys.add(Integer.valueOf(track));
+                }
+                ArrayList<Integer> more = refs.get(Long.valueOf(offset));
+                if (more != null) {
+                    keys.addAll(more);
+                }
+                for (int i = 0; i < keys.size(); i++) {
+                    waiting.add(new long[] {keys.get(i).intValue(),
+                                            block.size()});
+                }
+                block.write(line);
+                offset += line.length;
+                if (block.size() >= BLOCK) {
+                    writeBlock(fos, block, waiting, index);
+                }
+            }
+            writeBlock(fos, block, waiting, index);
+            fos.getFD().sync();
+        } finally {
+            in.close();
+            fos.close();
+        }
+        java.io.File gz = new java.io.File(this.dir, base + SEALED);
+        if (!gzTmp.renameTo(gz)) {
+            gzTmp.delete();
+            throw new IOException("Could not create " + gz);
+        }
+        writeIndex(base, index);
+        this.lock.writeLock().lock();
+        try {
+            Iterator<Integer> it = index.keySet().iterator();
+            while (it.hasNext()) {
+                found(it.next().intValue(), base);
+            }
+            this.segments.add(base);
+            this.sealing.remove(base);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        plain.delete();
+        keysFile.delete();
+    }
+
+    /* Compresses one block on its own and notes where each line waiting in
+     * it is. The block is emptied. */
+    private static void writeBlock(FileOutputStream fos,
+                                   ByteArrayOutputStream block,
+                                   ArrayList<long[]> waiting,
+                                   TreeMap<Integer, ArrayList<long[]>> index)
+                                   throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+        long at = fos.getChannel().position();
+        GZIPOutputStream gz = new GZIPOutputStream(new Shield(fos), 8192);
+        block.writeTo(gz);
+        gz.close();
+        for (int i = 0; i < waiting.size(); i++) {
+            long[] w = waiting.get(i);
+            Integer k = Integer.valueOf((int) w[0]);
+            ArrayList<long[]> e = index.get(k);
+            if (e == null) {
+                e = new ArrayList<long[]>();
+                index.put(k, e);
+            }
+            e.add(new long[] {at, w[1]});
+        }
+        waiting.clear();
+        block.reset();
+    }
+
+    /* Writes a sealed segment's index: the keys in order, each with the
+     * block and offset in the block of every line about it. */
+    private void writeIndex(String base,
+                            TreeMap<Integer, ArrayList<long[]>> index)
+                            throws IOException {
+        java.io.File f = new java.io.File(this.dir, base + INDEX);
+        java.io.File tmp = new java.io.File(this.dir, base + INDEX + TMP);
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(fos));
+            out.writeInt(index.size());
+            Iterator<Map.Entry<Integer, ArrayList<long[]>>> it =
+                index.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, ArrayList<long[]>> e = it.next();
+                out.writeInt(e.getKey().intValue());
+                out.writeInt(e.getValue().size());
+                for (int i = 0; i < e.getValue().size(); i++) {
+                    out.writeLong(e.getValue().get(i)[0]);
+                    out.writeInt((int) e.getValue().get(i)[1]);
+                }
+            }
+            out.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(f)) {
+            tmp.delete();
+            throw new IOException("Could not create " + f);
+        }
+    }
+
+    /* Reads the lines about a key out of a sealed segment, decompressing
+     * only the blocks that hold them. */
+    private void readSealed(String base, int key, int max,
+                            ArrayList<String> lines) throws IOException {
+        ArrayList<long[]> at = new ArrayList<long[]>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(new java.io.File(this.dir, base + INDEX))));
+        try {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int k = in.readInt();
+                int n = in.readInt();
+                if (k != key) {
+                    in.skipBytes(n * 12);
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    at.add(new long[] {in.readLong(), in.readInt()});
+                }
+                break;
+            }
+        } finally {
+            in.close();
+        }
+        java.io.File gz = new java.io.File(this.dir, base + SEALED);
+        int i = 0;
+        while (i < at.size() && lines.size() < max) {
+            long block = at.get(i)[0];
+            FileInputStream fis = new FileInputStream(gz);
+            try {
+                fis.getChannel().position(block);
+                InputStream bin = new BufferedInputStream(
+                    new GZIPInputStream(fis, 8192));
+                long offset = 0;
+                byte[] line;
+                // lines of one block are listed together, in order
+                while (i < at.size() && at.get(i)[0] == block &&
+                       lines.size() < max &&
+                       (line = readLine(bin)) != null) {
+                    if (offset == at.get(i)[1]) {
+                        lines.add(text(line));
+                        i++;
+                    }
+                    offset += line.length;
+                }
+            } finally {
+                fis.close();
+            }
+            // skip anything the block did not hold
+            while (i < at.size() && at.get(i)[0] == block) {
+                i++;
+            }
+        }
+    }
+
+    /* Reads the lines about a key out of a plain log file. Only lines
+     * wholly written are returned. */
+    private void readPlain(InputStream log, InputStream keys,
+                           int key, int max, ArrayList<String> lines)
+                           throws IOException {
+        HashMap<Long, ArrayList<Integer>> refs = (keys != null ?
+            readKeys(keys) : new HashMap<Long, ArrayList<Integer>>());
+        InputStream in = new BufferedInputStream(log);
+        long offset = 0;
+        byte[] line;
+        while (lines.size() < max && (line = readLine(in)) != null) {
+            if (line[line.length - 1] != '\n') {
+                break;
+            }
+            ArrayList<Integer> more = refs.get(Long.valueOf(offset));
+            if (leadingNumber(line) == key ||
+                (more != null && more.contains(Integer.valueOf(key)))) {
+                lines.add(text(line));
+            }
+            offset += line.length;
+        }
+    }
+
+    /* Reads a keys file into the Requests logged with the line at each
+     * offset. A torn last entry is ignored. */
+    private static HashMap<Long, ArrayList<Integer>> readKeys(java.io.File f)
+                                                      throws IOException {
+        if (!f.exists()) {
+            return new HashMap<Long, ArrayList<Integer>>();
+        }
+        InputStream in = new FileInputStream(f);
+        try {
+            return readKeys(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /* Reads keys file entries from a stream: a key and the offset of the
+     * line it was logged with. */
+    private static HashMap<Long, ArrayList<Integer>> readKeys(InputStream is)
+                                                      throws IOException {
+        HashMap<Long, ArrayList<Integer>> refs =
+            new HashMap<Long, ArrayList<Integer>>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        try {
+            while (true) {
+                int key = in.readInt();
+                Long at = Long.valueOf(in.readLong());
+                ArrayList<Integer> keys = refs.get(at);
+                if (keys == null) {
+                    keys = new ArrayList<Integer>(1);
+                    refs.put(at, keys);
+                }
+                keys.add(Integer.valueOf(key));
+            }
+        } catch (EOFException eofe) {
+        }
+        return refs;
+    }
+
+    /* Reads a line, with its line end if it has one; null at the end. */
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) >= 0) {
+            line.write(b);
+            if (b == '\n') {
+                break;
+            }
+        }
+        return (line.size() > 0 ? line.toByteArray() : null);
+    }
+
+    /* The tracking number a log line starts with, or -1 if none. */
+    private static int leadingNumber(byte[] line) {
+        int n = 0;
+        int i = 0;
+        while (i < line.length && i < 10 && line[i] >= '0' && line[i] <= '9') {
+            n = n * 10 + (line[i] - '0');
+            i++;
+        }
+        return (i > 0 && i < line.length && line[i] == ' ' ? n : -1);
+    }
+
+    /* A log line as text, without its line end. */
+    private static String text(byte[] line) {
+        int n = line.length;
+        if (n > 0 && line[n - 1] == '\n') {
+            n--;
+        }
+        return new String(line, 0, n);
+    }
+
+    // private classes ----------------------------------------------------
+
+    /**
+     * Compresses one segment.
+     */
+    private class Sealer implements Runnable {
+        private String base;
+        public Sealer(String base) {
+            this.base = base;
+        }
+        public void run() {
+            try {
+                seal(this.base);
+            } catch (IOException ioe) {
+                // the plain segment stays, to be sealed on the next open
+                ioe.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * Lets a block be compressed onto the segment file without closing it.
+     */
+    private static class Shield extends FilterOutputStream {
+        public Shield(OutputStream out) {
+            super(out);
+        }
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package qars.net;
+
+import qars.util.Notice;
+
+/**
+ * <p>Receives the changes a ReleaseServer pushes to a subscribed
+ * ReleaseClient. Notices are delivered on the client's reader thread, so a
+ * listener that updates Swing components must hand the work to the event
+ * dispatch thread.</p>
+ *
+ * @author Jaren Belt
+ */
+public interface NoticeListener {
+    /**
+     * Called for every Notice pushed by the server, in the order sent.
+     * @param n The change that was made.
+     */
+    public void noticeReceived(Notice n);
+}
@@ -1,170 +1,418 @@
-package qars.net;
-
-import java.io.*;
-import java.net.*;
-import qars.util.*;
-
-/**
- * Handles client side of client-server communication. Accepts server responses
- * over a Socket.
- */
-public class ReleaseClient {
-    // instance variables
-    private Socket sock;          // communications channel with ReleaseServer
-    private ObjectInputStream is;                  // messages from the server
-    private ObjectOutputStream os;                   // messages to the server
-    private User user;
-    
-    // constructors -------------------------------------------------------
-    
-    /**
-     * Creates a new ReleaseClient, opens a socket to the ReleaseServer, and
-     * waits for client to send data.
-     * @param port Server listening port
-     * @param id User ID of client.
-     */
-    public ReleaseClient(int port, String id) throws IOException {
-        Runtime.getRuntime().addShutdownHook(new RCShutdownThread(this));
-        this.sock = new Socket(ReleaseServer.HOST, port);
-        this.os = new ObjectOutputStream(sock.getOutputStream());
-        // have to flush or else server will block
-        this.os.flush();
-        this.is = new ObjectInputStream(sock.getInputStream());
-        Object ob = send(new ReturnCode(ReleaseServer.LOGNAME), id);
-        if (ob instanceof User) {
-            this.user = (User) ob;
-        } else {
-            throw new IOException("No name returned");
-        }
-    }
-    
-    // public methods -----------------------------------------------------
-    
-    /**
-     * Shuts down this client as gracefully as possible. This method is called
-     * in the event of a system interrupt signal received by the executing
-     * thread.
-     */
-    public void shutdown() {
-        // notify server that we'll be shutting down
-        if (os != null) {
-            synchronized (os) {
-                try {
-                    os.writeInt(ReleaseServer.SHUTDOWN);
-                    os.writeObject(new Integer(ReleaseServer.SHUTDOWN));
-                } catch (IOException ioe) {
-                }
-            }
-            // close input and output to the socket
-            if (is != null) {
-                try {
-                    synchronized (is) {
-                        is.close();
-                    }
-                    os.close();
-                    sock.close();
-                } catch (IOException ioe) {
-                }
-            }
-        }
-    }
-    
-    /**
-     * Send an action and an object to the server. The object will be modified
-     * and available to the calling entity.
-     * @param action The action to be performed.
-     * @param obj An object to deliver to the server.
-     * @return Response code from server after processing action.
-     * @throws IOException if error occurs while sending or receiving data.
-     */
-    public Object send(ReturnCode action, Object obj) throws IOException {
-        Object returnObject = null;
-        // check to see if server has shut down
-        synchronized (is) {
-            try {
-                if (is.available() > 0) {
-                    action.setCode(is.readInt());
-                    try {
-                        returnObject = is.readObject();
-                    } catch (ClassNotFoundException cnfe) {
-                    }
-                    if (action.getCode() == ReleaseServer.SHUTDOWN) {
-                        throw new IOException("Server unavailable");
-                    }
-                }
-            } catch (IOException ioe) {
-            }
-        }
-        synchronized (os) {
-            try {
-                os.writeInt(action.getCode());
-                os.writeObject(obj);
-            } catch (IOException ioe) {
-                throw new IOException("Error during transmission");
-            }
-        }
-        synchronized (is) {
-            try {
-                action.setCode(is.readInt());
-                returnObject = is.readObject();
-            } catch (IOException ioe) {
-                throw new IOException("Error during server response");
-            } catch (ClassNotFoundException cnfe) {
-                throw new IOException("Could not find return object class");
-            }
-        }
-        return returnObject;
-    }
-    
-    /**
-     * Returns the unix user name, which may differ from Windows.
-     * @return Unix user name returned from server
-     */
-    public String getUnixName() {
-        return this.user.getUnix();
-    }
-    
-    /**
-     * Returns the security level of this user.
-     * @return One of ReleaseServer's access codes 
-     */
-    public int getSecurity() {
-        return this.user.getSecurity();
-    }
-    
-    // private methods ----------------------------------------------------
-    
-    /** Opens the port file and reads the server's listening port. */
-    @SuppressWarnings("unused")
-	private int getServerPort(String portFile) throws IOException {
-        int port = 0;
-        try {
-            FileReader fr = new FileReader(portFile);
-            BufferedReader br = new BufferedReader(fr);
-            try {
-                port = Integer.parseInt(br.readLine());
-            } catch (NumberFormatException nfe) {
-            	br.close();
-                throw new IOException("Server port file corrupt!");
-            }
-            br.close();
-            fr.close();
-        } catch (FileNotFoundException fnfe) {
-            throw new IOException("Server port file does not exist!");
-        }
-        return port;
-    }
-    
-    // private classes ----------------------------------------------------
-    
-    /** Handles shutdown of client in event of interrupt. */
-    private class RCShutdownThread extends Thread {
-        private ReleaseClient rc;
-        public RCShutdownThread(ReleaseClient rc) {
-            this.rc = rc;
-        }
-        public void run() {
-            rc.shutdown();
-        }
-    }
+package qars.net;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import qars.util.*;
+
+/**
+ * Handles client side of client-server communication. Accepts server responses
+ * over a Socket. Every request carries a correlation id, so any number may be
+ * in flight at once; a reader thread takes every frame off the socket,
+ * completing the future waiting on its id and handing Notices to the
+ * NoticeListener. A PING is sent whenever the connection has been quiet for
+ * a while, so the server does not take an idle client for a dead one.
+ */
+public class ReleaseClient {
+    // seconds of quiet after which a PING is sent; 0 sends none
+    private static final int HEARTBEAT = System.getenv("HEARTBEAT") != null ?
+        Integer.parseInt(System.getenv("HEARTBEAT")) : 60;
+    
+    // instance variables
+    private Socket sock;          // communications channel with ReleaseServer
+    private DataInputStream is;                    // messages from the server
+    private OutputStream os;                         // messages to the server
+    private FrameCodec codec;         // converts messages to and from frames
+    private User user;
+    private Mirror<SCR> scrs;               // local copy of the server's SCRs
+    private Mirror<Request> requests;   // local copy of the pending Requests
+    private AtomicInteger nextId;            // correlation id of next request
+    // requests still waiting for an answer, by correlation id
+    private ConcurrentHashMap<Integer, CompletableFuture<Reply>> waiting;
+    private volatile boolean lost;       // has the connection been lost?
+    private volatile long lastSent;          // when a frame was last sent
+    private Timer heartbeat;                           // sends the PINGs
+    private volatile NoticeListener listener;    // told of pushed changes
+    
+    // constructors -------------------------------------------------------
+    
+    /**
+     * Creates a new ReleaseClient, opens a socket to the ReleaseServer, and
+     * waits for client to send data.
+     * @param port Server listening port
+     * @param id User ID of client.
+     */
+    public ReleaseClient(int port, String id) throws IOException {
+        Runtime.getRuntime().addShutdownHook(new RCShutdownThread(this));
+        this.sock = new Socket(ReleaseServer.HOST, port);
+        this.codec = new FrameCodec();
+        this.scrs = new Mirror<SCR>();
+        this.requests = new Mirror<Request>();
+        this.os = new BufferedOutputStream(sock.getOutputStream());
+        this.is = new DataInputStream(
+            new BufferedInputStream(sock.getInputStream()));
+        this.nextId = new AtomicInteger(0);
+        this.waiting = new ConcurrentHashMap<Integer, CompletableFuture<Reply>>();
+        this.lost = false;
+        this.lastSent = System.currentTimeMillis();
+        Reader reader = new Reader();
+        reader.setDaemon(true);
+        reader.start();
+        // agree on the binary form if the server understands it
+        Object answer = send(new ReturnCode(ReleaseServer.HELLO),
+                             this.codec.offer());
+        this.codec.accepted(answer);
+        Object ob = send(new ReturnCode(ReleaseServer.LOGNAME), id);
+        if (ob instanceof User) {
+            this.user = (User) ob;
+        } else {
+            throw new IOException("No name returned");
+        }
+        if (HEARTBEAT > 0) {
+            long period = HEARTBEAT * 1000L;
+            this.heartbeat = new Timer(true);
+            this.heartbeat.schedule(new Heartbeat(), period, period);
+        }
+    }
+    
+    // public methods -----------------------------------------------------
+    
+    /**
+     * Shuts down this client as gracefully as possible. This method is called
+     * in the event of a system interrupt signal received by the executing
+     * thread.
+     */
+    public void shutdown() {
+        if (this.heartbeat != null) {
+            this.heartbeat.cancel();
+        }
+        // notify server that we'll be shutting down
+        if (os != null) {
+            synchronized (os) {
+                try {
+                    codec.write(os, ReleaseServer.SHUTDOWN,
+                                Integer.valueOf(ReleaseServer.SHUTDOWN));
+                } catch (IOException ioe) {
+                }
+            }
+            // close input and output to the socket, which ends the reader
+            if (is != null) {
+                try {
+                    os.close();
+                    sock.close();
+                } catch (IOException ioe) {
+                }
+            }
+        }
+    }
+    
+    /**
+     * Send an action and an object to the server and wait for the answer.
+     * @param action The action to be performed; updated with the result.
+     * @param obj An object to deliver to the server.
+     * @return Response code from server after processing action.
+     * @throws IOException if error occurs while sending or receiving data.
+     */
+    public Object send(ReturnCode action, Object obj) throws IOException {
+        return receive(send(action.getCode(), obj), action);
+    }
+    
+    /**
+     * Send an action and an object to the server without waiting. Requests
+     * sent this way are answered as soon as the server has performed them,
+     * not necessarily in the order they were sent.
+     * @param action The action to be performed.
+     * @param obj An object to deliver to the server.
+     * @return Completed with the server's answer, or exceptionally with an
+     * IOException if the connection is lost first.
+     */
+    public CompletableFuture<Reply> send(int action, Object obj) {
+        CompletableFuture<Reply> f = new CompletableFuture<Reply>();
+        int id = this.nextId.incrementAndGet();
+        if (id == 0) {
+            // 0 marks a frame with no id, skip it when the counter wraps
+            id = this.nextId.incrementAndGet();
+        }
+        Integer key = Integer.valueOf(id);
+        this.waiting.put(key, f);
+        if (this.lost) {
+            // the reader may have failed everything before this was added
+            this.waiting.remove(key);
+            f.completeExceptionally(new IOException("Server unavailable"));
+            return f;
+        }
+        try {
+            // frames must go out in the order they are encoded
+            synchronized (os) {
+                codec.write(os, action, id, obj);
+            }
+            this.lastSent = System.currentTimeMillis();
+        } catch (IOException ioe) {
+            this.waiting.remove(key);
+            f.completeExceptionally(
+                new IOException("Error during transmission"));
+        }
+        return f;
+    }
+    
+    /**
+     * Waits for the answer to a request sent without waiting.
+     * @param f Returned when the request was sent.
+     * @param action Updated with the server's response code.
+     * @return The object sent back by the server.
+     * @throws IOException if the request could not be sent or answered.
+     */
+    public Object receive(CompletableFuture<Reply> f, ReturnCode action)
+                          throws IOException {
+        Reply r = null;
+        try {
+            r = f.get();
+        } catch (InterruptedException ie) {
+            throw new IOException("Interrupted during server response");
+        } catch (ExecutionException ee) {
+            action.setCode(ReleaseServer.SHUTDOWN);
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            }
+            throw new IOException("Server unavailable");
+        }
+        action.setCode(r.getAction());
+        return r.getObject();
+    }
+    
+    /**
+     * Asks the server to push a Notice whenever an SCR or Request changes.
+     * @param l Told of each change, on the reader thread.
+     * @throws IOException if error occurs while sending or receiving data.
+     */
+    public void subscribe(NoticeListener l) throws IOException {
+        this.listener = l;
+        send(new ReturnCode(ReleaseServer.SUBSCRIBE), null);
+    }
+    
+    /**
+     * Brings the local copy of the SCR list up to date. Only the SCRs changed
+     * since the last call are sent by the server. The SCRs returned are shared
+     * with the local copy and must be cloned before they are changed.
+     * @param action Should be ReleaseServer.SCRDELTA; updated with the result.
+     * @return Every active SCR.
+     * @throws IOException if error occurs while sending or receiving data.
+     */
+    public ArrayList<SCR> getSCRs(ReturnCode action) throws IOException {
+        return sync(action, this.scrs);
+    }
+    
+    /**
+     * Brings the local copy of the pending Request list up to date. Only the
+     * Requests changed since the last call are sent by the server. The
+     * Requests returned are shared with the local copy and must be cloned
+     * before they are changed.
+     * @param action Should be ReleaseServer.RQSTDELTA; updated with the result.
+     * @return Every pending Request.
+     * @throws IOException if error occurs while sending or receiving data.
+     */
+    public ArrayList<Request> getRequests(ReturnCode action)
+                                          throws IOException {
+        return sync(action, this.requests);
+    }
+    
+    /**
+     * Returns the unix user name, which may differ from Windows.
+     * @return Unix user name returned from server
+     */
+    public String getUnixName() {
+        return this.user.getUnix();
+    }
+    
+    /**
+     * Returns the security level of this user.
+     * @return One of ReleaseServer's access codes 
+     */
+    public int getSecurity() {
+        return this.user.getSecurity();
+    }
+    
+    // private methods ----------------------------------------------------
+    
+    /* Asks the server for the changes to a list and applies them to the
+     * local copy. */
+    @SuppressWarnings("unchecked")
+    private <T> ArrayList<T> sync(ReturnCode action, Mirror<T> m)
+                                  throws IOException {
+        synchronized (m) {
+            Object o = send(action, new Delta<T>(m.epoch, m.version));
+            if (o != null && o instanceof Delta) {
+                Delta<T> d = (Delta<T>) o;
+                if (d.isFull()) {
+                    m.items.clear();
+                }
+                ArrayList<Object> removed = d.getRemoved();
+                for (int i = 0; i < removed.size(); i++) {
+                    m.items.remove(removed.get(i));
+                }
+                ArrayList<T> changed = d.getChanged();
+                for (int i = 0; i < changed.size(); i++) {
+                    T item = changed.get(i);
+                    m.items.put(keyOf(item), item);
+                }
+                m.epoch = d.getEpoch();
+                m.version = d.getVersion();
+            }
+            return new ArrayList<T>(m.items.values());
+        }
+    }
+    
+    /* Gets the key the server uses for an item in a Delta. */
+    private static Object keyOf(Object item) {
+        Object key = item;
+        if (item instanceof SCR) {
+            key = item.toString().toLowerCase();
+        } else if (item instanceof Request) {
+            key = ((Request) item).query(Request.TK);
+        }
+        return key;
+    }
+    
+    /** Opens the port file and reads the server's listening port. */
+    @SuppressWarnings("unused")
+	private int getServerPort(String portFile) throws IOException {
+        int port = 0;
+        try {
+            FileReader fr = new FileReader(portFile);
+            BufferedReader br = new BufferedReader(fr);
+            try {
+                port = Integer.parseInt(br.readLine());
+            } catch (NumberFormatException nfe) {
+            	br.close();
+                throw new IOException("Server port file corrupt!");
+            }
+            br.close();
+            fr.close();
+        } catch (FileNotFoundException fnfe) {
+            throw new IOException("Server port file does not exist!");
+        }
+        return port;
+    }
+    
+    // private classes ----------------------------------------------------
+    
+    /** Takes frames off the socket for as long as it is open. */
+    private class Reader extends Thread {
+        public void run() {
+            ReturnCode action = new ReturnCode(0);
+            ReturnCode id = new ReturnCode(0);
+            while (true) {
+                Object o = null;
+                try {
+                    o = codec.read(is, action, id);
+                } catch (IOException ioe) {
+                    // fail every request still waiting, and every later one
+                    lost = true;
+                    fail(new IOException("Server unavailable"));
+                    break;
+                }
+                if (action.getCode() == ReleaseServer.EVENT) {
+                    NoticeListener l = listener;
+                    if (l != null && o instanceof Notice) {
+                        l.noticeReceived((Notice) o);
+                    }
+                } else if (id.getCode() != 0) {
+                    CompletableFuture<Reply> f =
+                        waiting.remove(Integer.valueOf(id.getCode()));
+                    if (f != null) {
+                        f.complete(new Reply(action.getCode(), o));
+                    }
+                } else if (action.getCode() == ReleaseServer.SHUTDOWN) {
+                    // the server is going away, everyone waiting is told so
+                    Iterator<CompletableFuture<Reply>> it =
+                        waiting.values().iterator();
+                    while (it.hasNext()) {
+                        it.next().complete(
+                            new Reply(ReleaseServer.SHUTDOWN, null));
+                        it.remove();
+                    }
+                }
+            }
+        }
+        
+        /* Completes every waiting request with an error. */
+        private void fail(IOException ioe) {
+            Iterator<CompletableFuture<Reply>> it = waiting.values().iterator();
+            while (it.hasNext()) {
+                it.next().completeExceptionally(ioe);
+                it.remove();
+            }
+        }
+    }
+    
+    /** Sends a PING if nothing else has been sent for a while. */
+    private class Heartbeat extends TimerTask {
+        public void run() {
+            if (lost) {
+                cancel();
+            } else if (System.currentTimeMillis() - lastSent >=
+                       HEARTBEAT * 1000L) {
+                // the answer says nothing, only that the server is there
+                send(ReleaseServer.PING, null);
+            }
+        }
+    }
+    
+    /**
+     * The server's answer to a request.
+     */
+    public static class Reply {
+        private int action;
+        private Object o;
+        
+        /**
+         * Creates a new Reply.
+         * @param action The response code sent by the server.
+         * @param o The object sent by the server.
+         */
+        public Reply(int action, Object o) {
+            this.action = action;
+            this.o = o;
+        }
+        
+        /**
+         * @return The response code sent by the server.
+         */
+        public int getAction() {
+            return this.action;
+        }
+        
+        /**
+         * @return The object sent by the server; may be null.
+         */
+        public Object getObject() {
+            return this.o;
+        }
+    }
+    
+    /** A local copy of one of the server's lists. */
+    private static class Mirror<T> {
+        private long epoch;
+        private long version;
+        private HashMap<Object, T> items = new HashMap<Object, T>();
+    }
+    
+    /** Handles shutdown of client in event of interrupt. */
+    private class RCShutdownThread extends Thread {
+        private ReleaseClient rc;
+        public RCShutdownThread(ReleaseClient rc) {
+            this.rc = rc;
+        }
+        public void run() {
+            rc.shutdown();
+        }
+    }
 }
\ No newline at end of file
@@ -1,793 +1,1413 @@
-package qars.net;
-
-import java.io.*;
-import java.net.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import qars.util.*;
-
-/**
- * The ReleaseServer provides synchronized methods for obtaining information
- * about the QA release. This allows several users to be connected to the QA
- * Release System (QARS) at the same time.
- * 
- * @author Jaren Belt
- */
-public class ReleaseServer {
-    /** No access allowed */
-    public static final int NOAC = -14;
-    /** Developer, limited access */
-    public static final int DVLP = 0;
-    /** QA associate access */
-    public static final int QAAS = 1;
-    /** Administrator access */
-    public static final int ADMN = 2;
-    /** Communication port */
-    public static final int PORT = 7277;
-    /** Server host **/
-    public static final String HOST = "dukat.as.csg.com";
-
-    // action constants
-    /** Success. */
-    public static final int SUCCESS = 99;
-    /** An error occurred. */
-    public static final int ERROR = -2;
-    /** Signifies that either the server or client is shutting down. */
-    public static final int SHUTDOWN = -1;
-    /** Acknowledgement, no op. */
-    public static final int NO_OP = 0;
-    /** Send client tracking number. */
-    public static final int TRK = 1;
-    /** Send SCR list. */
-    public static final int SCRS = 2;
-    /** Send Request list. */
-    public static final int RQSTS = 3;
-    /** Add the entity to its list. */
-    public static final int ADD = 4;
-    /** Delete the entitiy from its list. */
-    public static final int DELETE = 5;
-    /** Logs the user's name for the given tracking number. */
-    public static final int LOGNAME = 6;
-    /** Begin a transfer. */
-    public static final int TRANSFER = 7;
-    /** Log the supplied message to the log file. */
-    public static final int LOG = 8;
-    /** Check for the success of webspeed compile. */
-    public static final int WEBSPEED = 9;
-    /** Send email of successful release. */
-    public static final int EMAIL = 98;
-    /** Reload user list. */
-    public static final int USER = 22;
-    /** Obtain directory contents. */
-    public static final int DIR = 17;
-    /** Does this directory exist? */
-    public static final int EXISTS = 18;
-    /** Retrieve impacted files */
-    public static final int IMPACT = 19;
-    
-    // default tracking number value if tracking id cannot be loaded
-    private final int DEFTRACK = 10000;
-    // name of tracking number file
-    private final String TRACKFILE = System.getenv("TRACK") != null ?
-        System.getenv("TRACK") : "transaction.id";
-    // name of All Active SCR file
-    private final String ALLACTIVE = System.getenv("ACTIVE") != null ?
-        System.getenv("ACTIVE") : "qars.active";
-    // name of pending Request file
-    private final String PENDING = System.getenv("PENDING") != null ?
-        System.getenv("PENDING") : "qars.pending";
-    // name of release file
-    private final String INSTRUCTIONS = System.getenv("MFFILE") != null ?
-        System.getenv("MFFILE") : "qa_rel";
-    // name of user file
-    private final String USERS = System.getenv("USERSFILE") != null ?
-        System.getenv("USERSFILE") : ".userxref";
-    // address for super admin user
-    private final String SUPERADMIN = System.getenv("SUPERADMIN") != null ?
-        System.getenv("SUPERADMIN") : "jbelt";
-    
-    // instance variables
-    private ServerSocket server;              // accept new client connections
-    private ArrayList<ClientThread> clients;      // list of connected clients
-    private int myTrack;             // tracking number for this ReleaseServer
-    private int tracking;                   // tracking number for next client
-    private String dataDir;                  // directory for persistent files
-    private FileWriter log;                                        // log file
-    private ArrayList<SCR> scrs;                 // list of all available SCRs
-    private ArrayList<Request> pending;                    // pending requests
-    private ArrayList<Request> transfer; // list of requests sent for transfer
-    private HashMap<String, User> users;  // allowed users and security levels
-    
-    // constructors -------------------------------------------------------
-    
-    /**
-     * Constructs a new ReleaseServer by grabbing an available port.
-     * @param dataDir Path to directory where data files are found.
-     * @param logFile Name of the log file.
-     * @throws IOException If the server cannot be initialized.
-     */
-    public ReleaseServer(String dataDir, String logFile) throws IOException {
-        Runtime.getRuntime().addShutdownHook(new RSShutdownThread(this));
-        if (!dataDir.endsWith("/")) {
-            dataDir += "/";
-        }
-        this.dataDir = dataDir;
-        this.myTrack = getTracking();
-        this.tracking = this.myTrack + 1;
-        this.server = new ServerSocket(PORT);
-        this.log = new FileWriter(this.dataDir + logFile, true);
-        this.scrs = new ArrayList<SCR>();
-        this.scrs = handleList(this.scrs, ALLACTIVE, false);
-        this.pending = new ArrayList<Request>();
-        this.pending = handleList(this.pending, PENDING, false);
-        this.users = loadUsers();
-        msg(this.myTrack, "Server started on port " + PORT);
-        this.clients = new ArrayList<ClientThread>();
-        while (true) {
-            try {
-                Socket s = this.server.accept();
-                int tempTrack = this.tracking;
-                msg(tempTrack, "New connection accepted");
-                ClientThread ct = new ClientThread(this, s, this.tracking++);
-                synchronized (this.clients) {
-                    this.clients.add(ct);
-                }
-                ct.start();
-            } catch (SocketTimeoutException ste) {
-            }
-        }
-    }
-    
-    // public methods -----------------------------------------------------
-    
-    /**
-     * Handles incoming requested actions from clients.
-     * @param track Tracking number for client.
-     * @param action Action to be performed.
-     * @param o Associated object reference.
-     * @return Object dependent upon action and successful completion.
-     */
-    @SuppressWarnings("rawtypes")
-	public Object performClientAction(int track, ReturnCode action, Object o) {
-        Object returnObject = null;
-        int thisAction = NO_OP;
-        if (action != null) {
-            thisAction = action.getCode();
-            action.setCode(SUCCESS);
-        }
-        System.err.println("performClientAction: " + thisAction);
-        switch (thisAction) {
-            // client is shutting down
-            case SHUTDOWN:
-                try {
-                    remove(new ClientThread(null, null, track));
-                    msg(track, "Client shut down");
-                } catch (IOException ioe) {
-                }
-                action.setCode(SHUTDOWN);
-                break;
-            // client wants to know its tracking number
-            case TRK:
-            	try {msg(track, "Tracking number requested");}catch(IOException ioe){}
-                returnObject = new Integer(track);
-                break;
-            // client is supplying its Windows id, convert to User if match
-            case LOGNAME:
-                if (o != null && o instanceof String) {
-                    returnObject = buildUser(track, (String) o);
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // record incoming message to log file
-            case LOG:
-            	try {msg(track, "Log update requested");}catch(IOException ioe){}
-                if (o != null && o instanceof String) {
-                    try {
-                        msg(track, (String) o);
-                    } catch (IOException ioe) {
-                    }
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // qars client checking if webspeed compile was successful
-            case WEBSPEED:
-            	try {msg(track, "Webspeed status requested");}catch(IOException ioe){}
-                if (o != null && o instanceof String) {
-                    String flagFile = (String) o;
-                    java.io.File f2 = new java.io.File(flagFile);
-                    if (f2.exists()) {
-                        action.setCode(SUCCESS);
-                        returnObject = new Boolean(true);
-                    } else {
-                        action.setCode(ERROR);
-                        returnObject = new Boolean(false);
-                    }
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // send successful release email
-            case EMAIL:
-            	try {msg(track, "Email requested");}catch(IOException ioe){}
-                java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
-                // check to see that a transfer has already started
-                if (f.exists()) {
-                    notifySuccess(track);
-                    // remove instruction file
-                    if (!f.delete()) {
-                        try {
-                            msg(track, "Unable to delete instruction file");
-                        } catch (IOException ioe) {
-                        }
-                    }
-                }
-                break;
-            // get current list of SCRs
-            case SCRS:
-            	try {msg(track, "SCR list requested");}catch(IOException ioe){}
-                action.setCode(NO_OP);
-                if (this.scrs != null) {
-                    synchronized (this.scrs) {
-                        if (this.scrs.size() > 0) {
-                            // make a copy before sending
-                            ArrayList<SCR> list = 
-                                new ArrayList<SCR>(this.scrs.size());
-                            for (int i = 0; i < this.scrs.size(); i++) {
-                                list.add((SCR) this.scrs.get(i).clone());
-                                action.setCode(SUCCESS);
-                            }
-                            returnObject = list;
-                        } else {
-                            returnObject = new ArrayList<SCR>();
-                        }
-                    }
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // get current list of Requests
-            case RQSTS:
-            	try {msg(track, "Request list requested");}catch(IOException ioe){}
-                action.setCode(NO_OP);
-                if (this.pending != null) {
-                    synchronized (this.pending) {
-                        if (this.pending.size() > 0) {
-                            // make a copy before sending
-                            ArrayList<Request> list =
-                                new ArrayList<Request>(this.pending.size());
-                            for (int i = 0; i < this.pending.size(); i++) {
-                                list.add((Request) this.pending.get(i).clone());
-                                action.setCode(SUCCESS);
-                            }
-                            returnObject = list;
-                        } else {
-                            returnObject = new ArrayList<Request>();
-                        }
-                    }
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // add a new SCR or Request
-            case ADD:
-            	try {msg(track, "Add requested");}catch(IOException ioe){}
-                if (o != null && o instanceof SCR) {
-                    SCR s = (SCR) o;
-                    String addOrUpdate = "added";
-                    synchronized (this.scrs) {
-                        // check to see if this is new or update
-                        int index = this.scrs.indexOf(s);
-                        if (index >= 0) {
-                        	addOrUpdate = "updated";
-                            // SCR already existed, return old copy
-                            returnObject = this.scrs.remove(index);
-                            // keep same author
-                            s.setValue(SCR.AU, ((SCR) returnObject).query(SCR.AU));
-                        }
-                        if (this.scrs.add(s)) {
-                            try {
-                                msg(track, s + " " + addOrUpdate);
-                                this.handleList(this.scrs, ALLACTIVE, false);
-                            } catch (IOException ioe) {
-                            }
-                        } else {
-                            action.setCode(ERROR);
-                        }
-                    }
-                } else if (o != null && o instanceof Request) {
-                    Request r = (Request) o;
-                    int tk = ((Integer) r.query(Request.TK)).intValue();
-                    if (tk < 0) {
-                        // assign a new tracking number to it
-                        tk = this.tracking++;
-                        r.setValue(Request.TK, new Integer(tk));
-                    }
-                    synchronized (this.pending) {
-                        // check to see if this is new or update
-                        int index = this.pending.indexOf(r);
-                        if (index >= 0) {
-                            // request already exists, return old version
-                            returnObject = this.pending.remove(index);
-                        }
-                        if (this.pending.add(r)) {
-                            sendEmail(r, track);
-                            try {
-                                msg(track, "Request " + tk + " submitted");
-                                this.handleList(this.pending, PENDING, false);
-                            } catch (IOException ioe) {
-                            }
-                        } else {
-                            action.setCode(ERROR);
-                        }
-                    }
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // delete an SCR or Request
-            case DELETE:
-            	try {msg(track, "Delete requested");}catch(IOException ioe){}
-                if (o != null && o instanceof SCR) {
-                    SCR s = (SCR) o;
-                    synchronized (this.scrs) {
-                        // check to see if this SCR exists in the list
-                        int index = this.scrs.indexOf(s);
-                        if (index >= 0) {
-                            // SCR exists, return old copy
-                            returnObject = this.scrs.remove(index);
-                            try {
-								this.handleList(this.scrs, ALLACTIVE, true);
-							} catch (IOException e) {
-							}
-                        } else {
-                            action.setCode(ERROR);
-                        }
-                    }
-                } else if (o != null && o instanceof Request) {
-                    Request r = (Request) o;
-                    int tk = ((Integer) r.query(Request.TK)).intValue();
-                    synchronized (this.pending) {
-                        // check to see if this is new or update
-                        int index = this.pending.indexOf(r);
-                        if (index >= 0) {
-                            // request exists, return old version
-                            returnObject = this.pending.remove(index);
-                            try {
-                                msg(track, "Request " + tk + " deleted");
-                                this.handleList(this.pending, PENDING, true);
-                            } catch (IOException ioe) {
-                            }
-                        } else {
-                            action.setCode(ERROR);
-                        }
-                    }
-                }
-                break;
-            case TRANSFER:
-            	try {msg(track, "Xfer requested");}catch(IOException ioe){}
-                // QA request
-                if (this.transfer == null) {
-                	System.err.println("request is null dummy!");
-                    if (o != null && o instanceof ArrayList) {
-                    	System.err.println("arrayList good grief");
-                        ArrayList list = (ArrayList) o;
-                        this.transfer = new ArrayList<Request>();
-                        String mess = "Transfer of ";
-                        for (int i = 0; i < list.size(); i++) {
-                            Object listObject = list.get(i);
-                            if (listObject instanceof Request) {
-                                Request or = (Request) listObject;
-                                Integer tk = (Integer) or.query(Request.TK);
-                                mess += tk + ",";
-                                this.transfer.add(or);
-                                synchronized (this.pending) {
-                                    this.pending.remove(or);
-                                }
-                            }
-                        }
-                        // write text file transfer instructions
-                        try {
-                            createXferFile();
-                            msg(track, mess);
-                        } catch (IOException ioe) {
-                            action.setCode(ERROR);
-                            returnObject = new Integer(ERROR);
-                        }
-                        if (action.getCode() != ERROR) {
-                        }
-                    }
-                // client from qars performing the transfer
-                } else if (o != null && o instanceof Integer &&
-                           ((Integer) o).intValue() == TRANSFER) {
-                	System.err.println("Xfer integer baby");
-                    returnObject = this.transfer;
-                    synchronized (this.pending) {
-                    	try {
-							this.handleList(this.pending, PENDING, true);
-						} catch (IOException e) {
-						}
-                    }
-                    System.err.println("Xfer handled splendidly");
-                } else {
-                    action.setCode(ERROR);
-                }
-                break;
-            // reload users because someone just updated the master list
-            case USER:
-            	try {msg(track, "User update requested");}catch(IOException ioe){}
-                synchronized (this.users) {
-                    this.users = loadUsers();
-                }
-                try {
-                    msg(track, "User file updated");
-                } catch (IOException ioe) {
-                }
-                break;
-        }
-        writeNum(TRACKFILE, this.tracking, false);
-        return returnObject;
-    }
-    
-    /**
-     * Reports a client connection suicide so its thread can be removed.
-     * @param victim The ClientThread that killed itself.
-     */
-    public void reportSuicide(ClientThread victim) {
-        remove(victim);
-    }
-    
-    /**
-     * Shuts down all client connections.
-     */
-    public void shutdown() {
-        if (this.clients != null) {
-            for (int i = 0; i < this.clients.size(); i++) {
-                ClientThread ct = this.clients.get(i);
-                CTShutdownThread ctst = new CTShutdownThread(ct);
-                ctst.start();
-            }
-        }
-        writeNum(TRACKFILE, this.tracking, false);
-        try {
-            msg(this.myTrack, "Server died");
-            this.log.close();
-        } catch (IOException ioe) {
-        }
-        try {
-            synchronized (this.scrs) {
-                handleList(this.scrs, ALLACTIVE, true);
-            }
-            synchronized (this.pending) {
-                if (this.transfer != null && this.transfer.size() > 0) {
-                    for (int i = 0; i < this.transfer.size(); i++) {
-                        this.pending.add(this.transfer.get(i));
-                    }
-                    java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
-                    f.delete();
-                }
-                handleList(this.pending, PENDING, true);
-            }
-        } catch (IOException ioe) {
-        }
-    }
-    
-    /**
-     * Validates a security level.
-     * @param s Security level in question
-     * @return true if s is a valid access level, false otherwise
-     */
-    public static boolean validSecurity(int s) {
-        boolean retVal = false;
-        switch (s) {
-            case NOAC:
-            case DVLP:
-            case QAAS:
-            case ADMN:
-                retVal = true;
-        }
-        return retVal;
-    }
-    
-    // private methods ----------------------------------------------------
-    
-    /* Sends an email to QA and all requestors of successful release. */
-    private void notifySuccess(int track) {
-        OutputStream os = null;
-        String eDist = System.getenv("QAEMAIL");
-        for (int i = 0; i < this.transfer.size(); i++) {
-            Request r = this.transfer.get(i);
-            eDist += " " + (String) r.query(Request.RQ);
-            if (((Boolean) r.query(Request.DC)).booleanValue()) {
-                eDist += " " + System.getenv("DBEMAIL");
-            }
-        }
-        try {
-            os = qars.io.Filer.sendEmail("QA Release Success", eDist);
-            PrintStream ps = new PrintStream(os);
-            ps.println("The following items were successfully released on QA. " +
-                       "Testing may resume.");
-            ps.println();
-            for (int i = 0; i < this.transfer.size(); i++) {
-                Request r = this.transfer.get(i);
-                r.print(os);
-            }
-            os.close();
-        } catch (IOException ioe) {
-            try {
-                msg(track, "Email delivery failed (2)");
-            } catch (IOException ioe2) {
-            }
-        }
-        this.transfer = null;
-    }
-    
-    /* Transfers the contents of a User ArrayList to a HashMap */
-    private HashMap<String, User> loadUsers() {
-        ArrayList<User> ulist = new ArrayList<User>();
-        try {
-            ulist = handleList(ulist, USERS, false);
-        } catch (IOException ioe) {
-        }
-        HashMap<String, User> map = new HashMap<String, User>();
-        for (int i = 0; i < ulist.size(); i++) {
-            User u = ulist.get(i);
-            map.put(u.getWin(), u);
-        }
-        return map;
-    }
-    
-    /* Sends an email to QA and the requestor. */
-    private void sendEmail(Object o, int track) {
-        OutputStream os = null;
-        String eDist = System.getenv("QAEMAIL");
-        if (eDist != null) {
-            eDist += " "; 
-        } else {
-            eDist = "";
-        }
-        //eDist += Thread.currentThread().getName();
-        if (o instanceof Request) {
-            Request or = (Request) o;
-            eDist += (String) or.query(Request.RQ);
-            if (((Boolean) or.query(Request.DC)).booleanValue()) {
-                eDist += " " + System.getenv("DBEMAIL");
-            }
-            try {
-                os = qars.io.Filer.sendEmail("QA Transfer Request", eDist);
-                PrintStream ps = new PrintStream(os);
-                ps.println("A transfer request has been submitted for QA. " +
-                           "The details are shown below.");
-                ps.println();
-                ((Request) o).print(os);
-                os.close();
-            } catch (IOException ioe) {
-                try {
-                    msg(track, "Email delivery failed (1)");
-                } catch (IOException ioe2) {
-                }
-            }
-        }
-    }
-    
-    /* Writes the transfer instructions to a file. */
-    private void createXferFile() throws IOException {
-        java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
-        // check to see that a transfer hasn't already started
-        if (f.exists()) {
-            throw new IOException("Instruction file already exists");
-        }
-        FileOutputStream fos = new FileOutputStream(f);
-        PrintStream ps = new PrintStream(fos);
-        /* temporary */
-        OutputStream os = qars.io.Filer.sendEmail("QA Transfer Submitted", SUPERADMIN);
-        for (int i = 0; i < this.transfer.size(); i++) {
-            Request r = this.transfer.get(i);
-            r.print(fos);
-            r.print(os);
-        }
-        ps.close();
-        fos.close();
-        os.close();
-    }
-    
-    /* Removes a client thread from the list. Returns a reference to the
-     * thread if it existed. */
-    private synchronized ClientThread remove(ClientThread ct) {
-        ClientThread ctReturn = null;
-        if (this.clients != null) {
-            int index = this.clients.indexOf(ct);
-            if (index >= 0) {
-                ctReturn = this.clients.remove(index);
-            }
-        }
-        return ctReturn;
-    }
-    
-    /* Opens the tracking file and returns the id. */
-    private int getTracking() throws IOException {
-        int t = DEFTRACK;
-        BufferedReader br = null;
-        try {
-            FileReader fr = new FileReader(this.dataDir + TRACKFILE);
-            br = new BufferedReader(fr);
-            try {
-                t = Integer.parseInt(br.readLine());
-            } catch (NumberFormatException nfe) {
-                br.close();
-                throw new IOException("Tracking number could not be read!");
-            }
-            try {
-                br.close();
-            } catch (IOException ioe) {
-            }
-        } catch (FileNotFoundException fnfe) {
-            // just use default tracking id
-        }
-        return t;
-    }
-    
-    /* Writes an integer to the given file. Returns true if successful.
-     * @param fileName Name of the file.
-     * @param content The integer value to be written to the file.
-     * @param doe Delete On Exit?
-     */
-    private boolean writeNum(String fileName, int content, boolean doe) {
-        boolean success = false;
-        try {
-            java.io.File f = new java.io.File(this.dataDir + fileName);
-            if (doe) {
-                f.deleteOnExit();
-            }
-            FileWriter fw = new FileWriter(f);
-            fw.write(content + "");
-            fw.close();
-            success = true;
-        } catch (IOException ioe) {
-        }
-        return success;
-    }
-    
-    /* Writes a message along with tracking number and timestamp to the log. */
-    private void msg(int track, String message) throws IOException {
-        StringBuffer timestamp = new StringBuffer(track + " ");
-        TimeStamp.punch(timestamp);
-        synchronized (this.log) {
-            this.log.write(timestamp.toString() + " " + message + "\n");
-            this.log.flush();
-        }
-    }
-    
-    /* Opens a file and returns the list. If the file does not exist, a new
-     * empty list is returned. */
-    @SuppressWarnings("unchecked")
-    private <T> ArrayList<T> handleList(ArrayList<T> list, String file, boolean overrideSave)
-                             throws IOException {
-        java.io.File f = new java.io.File(this.dataDir + file);
-        boolean saveFile = false;
-        if (f.exists() && f.length() > 0 && !overrideSave) {
-            if (list.isEmpty()) {
-                // load the data
-                FileInputStream fis = new FileInputStream(f);
-                ObjectInputStream ois = new ObjectInputStream(fis);
-                try {
-                    list = (ArrayList<T>) ois.readObject();
-                    Object o = list.get(0);
-                    if (o != null && 
-                        !(o instanceof SCR || o instanceof Request ||
-                          o instanceof User)) {
-                    	try {
-                    		ois.close();
-                    	} catch (IOException ioe) {}
-                        throw new ClassNotFoundException();
-                    }
-                } catch (ClassNotFoundException cnfe) {
-                	try {
-                		ois.close();
-                	} catch (IOException ioe) {}
-                    throw new IOException("Unrecognized class");
-                } catch (IndexOutOfBoundsException ioobe) {
-                }
-                fis.close();
-            } else {
-                // otherwise, save it
-                saveFile = true;
-            }
-        } else {
-            saveFile = true;
-        }
-        
-        if (saveFile && (!list.isEmpty() || overrideSave)) {
-            FileOutputStream fos = new FileOutputStream(f);
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
-            oos.writeObject(list);
-            fos.close();
-        }
-        return list;
-    }
-    
-    /* Retrieves user from user list if valid, if not, return null */
-    private User buildUser(int track, String userName) {
-        User u = null;
-        synchronized (this.users) {
-            if (this.users.containsKey(userName)) {
-                u = this.users.get(userName);
-            } else {
-                u = new User(userName);
-            }
-        }
-        if (u != null && u.getUnix().length() > 0) {
-            userName = u.getUnix();
-        } else {
-            try {
-                OutputStream os = 
-                    qars.io.Filer.sendEmail("Unrecognized QARS User", SUPERADMIN);
-                PrintStream ps = new PrintStream(os);
-                ps.println(userName + " attempted to access the QA" +
-                           " Automated Release System");
-                os.close();
-            } catch (IOException ioe) {
-                try {
-                    msg(track, "Unrecognized user: " + userName);
-                } catch (IOException ioe2) {
-                }
-            }
-        }
-        try {
-            msg(track, "User: " + userName);
-            Thread.currentThread().setName(userName);
-        } catch (IOException ioe) {
-        }
-        return u;
-    }
-    
-    // main ---------------------------------------------------------------
-    
-    /** Allows a ReleaseServer to be started from the command-line. */
-    @SuppressWarnings("unused")
-	public static void main(String[] args) {
-        if (args != null && args.length == 2) {
-            try {
-                ReleaseServer rs = new ReleaseServer(args[0], args[1]);
-            } catch (IOException ioe) {
-                ioe.printStackTrace(System.err);
-            }
-        } else {
-            System.err.println("usage: java [-cp <classpath>] <datadir> <logfilename>");
-        }
-    }
-    
-    // private classes ----------------------------------------------------
-    
-    /**
-     * Handles server shutdown in the event of a system interrupt.
-     */
-    private class RSShutdownThread extends Thread {
-        private ReleaseServer rs;
-        public RSShutdownThread(ReleaseServer rs) {
-            this.rs = rs;
-        }
-        public void run() {
-            if (this.rs != null) {
-                this.rs.shutdown();
-            }
-        }
-    }
-    
-    /**
-     * Handles client shutdown to prevent the server from blocking.
-     */
-    private class CTShutdownThread extends Thread {
-        private ClientThread ct;
-        public CTShutdownThread(ClientThread ct) {
-            this.ct = ct;
-        }
-        public void run() {
-            if (this.ct != null) {
-                this.ct.shutdown();
-            }
-        }
-    }
-}
+package qars.net;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import qars.util.*;
+
+/**
+ * The ReleaseServer provides synchronized methods for obtaining information
+ * about the QA release. This allows several users to be connected to the QA
+ * Release System (QARS) at the same time.
+ * 
+ * @author Jaren Belt
+ */
+public class ReleaseServer {
+    /** No access allowed */
+    public static final int NOAC = -14;
+    /** Developer, limited access */
+    public static final int DVLP = 0;
+    /** QA associate access */
+    public static final int QAAS = 1;
+    /** Administrator access */
+    public static final int ADMN = 2;
+    /** Communication port */
+    public static final int PORT = 7277;
+    /** Server host **/
+    public static final String HOST = "dukat.as.csg.com";
+
+    // action constants
+    /** Success. */
+    public static final int SUCCESS = 99;
+    /** An error occurred. */
+    public static final int ERROR = -2;
+    /** Signifies that either the server or client is shutting down. */
+    public static final int SHUTDOWN = -1;
+    /** Acknowledgement, no op. */
+    public static final int NO_OP = 0;
+    /** Send client tracking number. */
+    public static final int TRK = 1;
+    /** Send SCR list. */
+    public static final int SCRS = 2;
+    /** Send Request list. */
+    public static final int RQSTS = 3;
+    /** Add the entity to its list. */
+    public static final int ADD = 4;
+    /** Delete the entitiy from its list. */
+    public static final int DELETE = 5;
+    /** Logs the user's name for the given tracking number. */
+    public static final int LOGNAME = 6;
+    /** Begin a transfer. */
+    public static final int TRANSFER = 7;
+    /** Log the supplied message to the log file. */
+    public static final int LOG = 8;
+    /** Check for the success of webspeed compile. */
+    public static final int WEBSPEED = 9;
+    /** Send the SCRs changed since the supplied Delta's version. */
+    public static final int SCRDELTA = 10;
+    /** Send the Requests changed since the supplied Delta's version. */
+    public static final int RQSTDELTA = 11;
+    /** A Notice pushed by the server; never sent by a client. */
+    public static final int EVENT = 12;
+    /** Push a Notice to this client whenever something changes. */
+    public static final int SUBSCRIBE = 13;
+    /** Offer the binary wire form; answered by the connection itself. */
+    public static final int HELLO = 14;
+    /** Heartbeat; shows the client is still there. */
+    public static final int PING = 15;
+    /** Find an SCR by id, bringing it back from the archive if need be. */
+    public static final int GETSCR = 16;
+    /** List the open connections and server measures; administrators only. */
+    public static final int STATUS = 20;
+    /** Send the log lines about a tracking number; administrators only. */
+    public static final int LOGLOOKUP = 21;
+    /** Send the past transfers that match a TransferQuery. */
+    public static final int HISTORY = 23;
+    /** Send email of successful release. */
+    public static final int EMAIL = 98;
+    /** Reload user list. */
+    public static final int USER = 22;
+    /** Obtain directory contents. */
+    public static final int DIR = 17;
+    /** Does this directory exist? */
+    public static final int EXISTS = 18;
+    /** Retrieve impacted files */
+    public static final int IMPACT = 19;
+    
+    // default tracking number value if tracking id cannot be loaded
+    private final int DEFTRACK = 10000;
+    // name of tracking number file
+    private final String TRACKFILE = System.getenv("TRACK") != null ?
+        System.getenv("TRACK") : "transaction.id";
+    // tracking numbers reserved each time the tracking file is written
+    private final int TRACKBLOCK = System.getenv("TRACKBLOCK") != null ?
+        Integer.parseInt(System.getenv("TRACKBLOCK")) : 100;
+    // name of release file
+    private final String INSTRUCTIONS = System.getenv("MFFILE") != null ?
+        System.getenv("MFFILE") : "qa_rel";
+    // address for super admin user
+    private final String SUPERADMIN = System.getenv("SUPERADMIN") != null ?
+        System.getenv("SUPERADMIN") : "jbelt";
+    // how client connections are serviced: selector, thread or virtual
+    private final String MODE = System.getenv("SERVERMODE") != null ?
+        System.getenv("SERVERMODE") : "selector";
+    // number of worker threads performing actions for the selector
+    private final int WORKERS = System.getenv("WORKERS") != null ?
+        Integer.parseInt(System.getenv("WORKERS")) : 4;
+    // how changes are saved: journal, writebehind to only mark them unsaved
+    // and write the snapshot on an interval, or kv for the key-value store
+    private final String PERSIST = System.getenv("PERSIST") != null ?
+        System.getenv("PERSIST") : "journal";
+    // yes to write the SCR and Request files of old on shutdown
+    private final String EXPORT = System.getenv("EXPORT") != null ?
+        System.getenv("EXPORT") : "no";
+    // name of the file of transfers that have ended
+    private final String HISTORYFILE = System.getenv("HISTORYFILE") != null ?
+        System.getenv("HISTORYFILE") : "qars.history";
+    // directory the archived SCRs are kept in
+    private final String ARCHIVE = System.getenv("ARCHIVE") != null ?
+        System.getenv("ARCHIVE") : "qars.archive";
+    // days an SCR goes unsaved before it is archived; 0 never archives
+    private final int ARCHIVEAGE = System.getenv("ARCHIVEAGE") != null ?
+        Integer.parseInt(System.getenv("ARCHIVEAGE")) : 180;
+    // seconds between looks for SCRs to archive
+    private final int ARCHIVEINTERVAL =
+        System.getenv("ARCHIVEINTERVAL") != null ?
+        Integer.parseInt(System.getenv("ARCHIVEINTERVAL")) : 3600;
+    // seconds a client may go unheard before its connection is closed; 0
+    // keeps connections open until the client closes them. Clients PING
+    // every HEARTBEAT (60) seconds, so this allows several to go missing
+    private final int IDLETIMEOUT = System.getenv("IDLETIMEOUT") != null ?
+        Integer.parseInt(System.getenv("IDLETIMEOUT")) : 600;
+    // log messages that may wait for the log writer
+    private final int LOGQUEUE = System.getenv("LOGQUEUE") != null ?
+        Integer.parseInt(System.getenv("LOGQUEUE")) : 8192;
+    // what happens to a message when the queue is full: block or drop
+    private final String LOGOVERFLOW = System.getenv("LOGOVERFLOW") != null ?
+        System.getenv("LOGOVERFLOW") : "block";
+    // bytes of log messages that are written out together
+    private final int LOGFLUSHBYTES = System.getenv("LOGFLUSHBYTES") != null ?
+        Integer.parseInt(System.getenv("LOGFLUSHBYTES")) : 64 * 1024;
+    // longest in milliseconds a log message waits to be written out
+    private final int LOGFLUSHMS = System.getenv("LOGFLUSHMS") != null ?
+        Integer.parseInt(System.getenv("LOGFLUSHMS")) : 200;
+    // size in bytes the log is rotated at; 0 for no limit
+    private final int LOGROTATEBYTES = System.getenv("LOGROTATEBYTES") != null ?
+        Integer.parseInt(System.getenv("LOGROTATEBYTES")) : 64 * 1024 * 1024;
+    // age in hours the log is rotated at; 0 for no limit
+    private final int LOGROTATEHOURS = System.getenv("LOGROTATEHOURS") != null ?
+        Integer.parseInt(System.getenv("LOGROTATEHOURS")) : 24;
+    // most log lines a lookup sends back
+    private final int LOGLOOKUPMAX = System.getenv("LOGLOOKUPMAX") != null ?
+        Integer.parseInt(System.getenv("LOGLOOKUPMAX")) : 10000;
+    // most transfers a history query sends back
+    private final int HISTORYMAX = System.getenv("HISTORYMAX") != null ?
+        Integer.parseInt(System.getenv("HISTORYMAX")) : 1000;
+    
+    // instance variables
+    private ServerSocket server;              // accept new client connections
+    private ArrayList<ClientConnection> clients;  // list of connected clients
+    // clients that want Notices; iterated far more often than changed
+    private CopyOnWriteArrayList<ClientConnection> subscribers;
+    private ExecutorService notifier;   // sends Notices in the order raised
+    private ScheduledExecutorService reaper;   // closes idle connections
+    // name each connection logged in with, by tracking number
+    private ConcurrentHashMap<Integer, String> names;
+    private int myTrack;             // tracking number for this ReleaseServer
+    private TrackingAllocator tracks;     // numbers for clients and Requests
+    private String dataDir;                  // directory for persistent files
+    private AsyncLog log;                                          // log file
+    private LogIndex logIndex;          // finds log lines by tracking number
+    private SCRTable scrs;                            // all available SCRs
+    private Archive archive;           // SCRs nobody has saved for a while
+    private RequestTable pending;                          // pending requests
+    private ArrayList<Request> transfer; // list of requests sent for transfer
+    private long transferStarted;           // when transfer was sent
+    private long transferFetched;       // when QA picked it up, or 0
+    private TransferHistory history;          // transfers that have ended
+    private Storage storage;          // keeps the tables across restarts
+    private ScheduledExecutorService archiver;   // archives idle SCRs
+    private HashMap<String, User> users;  // allowed users and security levels
+    // locks are used instead of monitors since they are held during file I/O,
+    // which would otherwise pin the carrier of a virtual thread
+    private ReentrantLock usersLock;                         // guards users
+    
+    // constructors -------------------------------------------------------
+    
+    /**
+     * Constructs a new ReleaseServer by grabbing an available port.
+     * @param dataDir Path to directory where data files are found.
+     * @param logFile Name of the log file.
+     * @throws IOException If the server cannot be initialized.
+     */
+    public ReleaseServer(String dataDir, String logFile) throws IOException {
+        Runtime.getRuntime().addShutdownHook(new RSShutdownThread(this));
+        if (!dataDir.endsWith("/")) {
+            dataDir += "/";
+        }
+        this.dataDir = dataDir;
+        this.tracks = new TrackingAllocator(this.dataDir + TRACKFILE, DEFTRACK,
+                                            TRACKBLOCK);
+        this.myTrack = this.tracks.next();
+        this.usersLock = new ReentrantLock();
+        this.logIndex = new LogIndex(this.dataDir + logFile);
+        this.log = new AsyncLog(this.logIndex, LOGQUEUE,
+                                "drop".equalsIgnoreCase(LOGOVERFLOW),
+                                LOGFLUSHBYTES, LOGFLUSHMS, LOGROTATEBYTES,
+                                LOGROTATEHOURS * 3600000L);
+        this.scrs = new SCRTable();
+        this.pending = new RequestTable();
+        this.archive = new Archive(this.dataDir + ARCHIVE);
+        Storage storage;
+        if ("kv".equalsIgnoreCase(PERSIST)) {
+            storage = new KVStorage(this.dataDir);
+        } else {
+            storage = new SnapshotStorage(this.dataDir,
+                "writebehind".equalsIgnoreCase(PERSIST));
+        }
+        ArrayList<Request> undone =
+            storage.open(this.scrs, this.pending, this.archive);
+        // only kept once it opened, so a failed start never writes back
+        // what little was loaded
+        this.storage = storage;
+        this.history = new TransferHistory(this.dataDir + HISTORYFILE);
+        if (undone != null) {
+            // when it started was not kept
+            remember(undone, 0, 0, Transfer.UNDONE);
+            // the transfer never finished, so its instructions are stale
+            java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
+            f.delete();
+            msg(this.myTrack, "Undid transfer of " + undone.size() +
+                " requests");
+        }
+        // a crash while restoring can leave an SCR both active and archived
+        Iterator<String> cold = this.archive.getIndex().keySet().iterator();
+        while (cold.hasNext()) {
+            String id = cold.next();
+            if (this.scrs.get(id) != null) {
+                this.archive.forget(id);
+            }
+        }
+        if (ARCHIVEAGE > 0 && ARCHIVEINTERVAL > 0) {
+            this.archiver = Executors.newSingleThreadScheduledExecutor();
+            this.archiver.scheduleWithFixedDelay(new Archiver(),
+                ARCHIVEINTERVAL, ARCHIVEINTERVAL, TimeUnit.SECONDS);
+        }
+        this.users = loadUsers(false);
+        msg(this.myTrack, "Server started on port " + PORT + " (" + MODE + ")");
+        this.clients = new ArrayList<ClientConnection>();
+        this.subscribers = new CopyOnWriteArrayList<ClientConnection>();
+        this.notifier = Executors.newSingleThreadExecutor();
+        this.names = new ConcurrentHashMap<Integer, String>();
+        if (IDLETIMEOUT > 0) {
+            // look often enough that nothing lingers much past its timeout
+            long period = Math.max(1, IDLETIMEOUT / 4);
+            this.reaper = Executors.newSingleThreadScheduledExecutor();
+            this.reaper.scheduleWithFixedDelay(new Reaper(), period, period,
+                                               TimeUnit.SECONDS);
+        }
+        if (MODE.equals("thread") || MODE.equals("virtual")) {
+            // one blocking handler per connection
+            ExecutorService handlers = createHandlers();
+            this.server = new ServerSocket(PORT);
+            while (true) {
+                try {
+                    Socket s = this.server.accept();
+                    int tk;
+                    try {
+                        tk = nextTrack();
+                    } catch (IOException ioe) {
+                        // no number could be reserved; turn the client away
+                        System.err.println(ioe.getMessage());
+                        s.close();
+                        continue;
+                    }
+                    ClientThread ct = new ClientThread(this, s, tk, handlers);
+                    addClient(ct);
+                    handlers.execute(ct);
+                } catch (SocketTimeoutException ste) {
+                }
+            }
+        } else {
+            // a single selector thread feeding a small pool of workers
+            ClientSelector cs = new ClientSelector(this, PORT, WORKERS);
+            cs.serve();
+        }
+    }
+    
+    // public methods -----------------------------------------------------
+    
+    /**
+     * Handles incoming requested actions from clients.
+     * @param track Tracking number for client.
+     * @param action Action to be performed.
+     * @param o Associated object reference.
+     * @return Object dependent upon action and successful completion.
+     */
+    @SuppressWarnings("rawtypes")
+	public Object performClientAction(int track, ReturnCode action, Object o) {
+        Object returnObject = null;
+        int thisAction = NO_OP;
+        if (action != null) {
+            thisAction = action.getCode();
+            action.setCode(SUCCESS);
+        }
+        System.err.println("performClientAction: " + thisAction);
+        switch (thisAction) {
+            // client is shutting down
+            case SHUTDOWN:
+                try {
+                    remove(track);
+                    msg(track, "Client shut down");
+                } catch (IOException ioe) {
+                }
+                action.setCode(SHUTDOWN);
+                break;
+            // client wants to know its tracking number
+            case TRK:
+            	try {msg(track, "Tracking number requested");}catch(IOException ioe){}
+                returnObject = new Integer(track);
+                break;
+            // client is supplying its Windows id, convert to User if match
+            case LOGNAME:
+                if (o != null && o instanceof String) {
+                    returnObject = buildUser(track, (String) o);
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // record incoming message to log file
+            case LOG:
+            	try {msg(track, "Log update requested");}catch(IOException ioe){}
+                if (o != null && o instanceof String) {
+                    try {
+                        msg(track, (String) o);
+                    } catch (IOException ioe) {
+                    }
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // qars client checking if webspeed compile was successful
+            case WEBSPEED:
+            	try {msg(track, "Webspeed status requested");}catch(IOException ioe){}
+                if (o != null && o instanceof String) {
+                    String flagFile = (String) o;
+                    java.io.File f2 = new java.io.File(flagFile);
+                    if (f2.exists()) {
+                        action.setCode(SUCCESS);
+                        returnObject = new Boolean(true);
+                    } else {
+                        action.setCode(ERROR);
+                        returnObject = new Boolean(false);
+                    }
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // send successful release email
+            case EMAIL:
+            	try {msg(track, "Email requested");}catch(IOException ioe){}
+                java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
+                // check to see that a transfer has already started
+                if (f.exists()) {
+                    ArrayList<Request> released = this.transfer;
+                    notifySuccess(track);
+                    // the transferred requests are gone for good
+                    this.transfer = null;
+                    persist(Journal.XFERFINISH, null);
+                    if (released != null) {
+                        remember(released, this.transferStarted,
+                                 this.transferFetched, Transfer.RELEASED);
+                    }
+                    broadcast(new Notice(Notice.XFERFINISHED, null, null));
+                    // remove instruction file
+                    if (!f.delete()) {
+                        try {
+                            msg(track, "Unable to delete instruction file");
+                        } catch (IOException ioe) {
+                        }
+                    }
+                }
+                break;
+            // get current list of SCRs
+            case SCRS:
+            	try {msg(track, "SCR list requested");}catch(IOException ioe){}
+                action.setCode(NO_OP);
+                if (this.scrs != null) {
+                    // every reader shares the snapshot; serializing it for
+                    // the wire already gives each client its own copy
+                    ArrayList<SCR> list = this.scrs.snapshot().getItems();
+                    if (list.size() > 0) {
+                        action.setCode(SUCCESS);
+                    }
+                    returnObject = list;
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // find one SCR, even one that has been archived
+            case GETSCR:
+                if (o != null && o instanceof String) {
+                    String id = (String) o;
+                    boolean archived = this.scrs.get(id) == null &&
+                                       this.archive.contains(id);
+                    SCR s = (archived ? unarchive(id) : this.scrs.get(id));
+                    if (archived && s != null) {
+                        try {
+                            msg(track, s + " restored from archive");
+                        } catch (IOException ioe) {
+                        }
+                        broadcast(new Notice(Notice.SCRADDED,
+                                             id.toLowerCase(), null));
+                    }
+                    action.setCode(s != null ? SUCCESS : NO_OP);
+                    returnObject = s;
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // get current list of Requests
+            case RQSTS:
+            	try {msg(track, "Request list requested");}catch(IOException ioe){}
+                action.setCode(NO_OP);
+                if (this.pending != null) {
+                    ArrayList<Request> list =
+                        this.pending.snapshot().getItems();
+                    if (list.size() > 0) {
+                        action.setCode(SUCCESS);
+                    }
+                    returnObject = list;
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // get the SCRs changed since the client's version
+            case SCRDELTA:
+                if (o != null && o instanceof Delta) {
+                    Delta<SCR> d = this.scrs.delta((Delta<?>) o);
+                    try {
+                        msg(track, "SCR changes requested (" +
+                            (d.isFull() ? "all " : "") +
+                            d.getChanged().size() + ")");
+                    } catch (IOException ioe) {
+                    }
+                    returnObject = d;
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // get the Requests changed since the client's version
+            case RQSTDELTA:
+                if (o != null && o instanceof Delta) {
+                    Delta<Request> d = this.pending.delta((Delta<?>) o);
+                    try {
+                        msg(track, "Request changes requested (" +
+                            (d.isFull() ? "all " : "") +
+                            d.getChanged().size() + ")");
+                    } catch (IOException ioe) {
+                    }
+                    returnObject = d;
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // add a new SCR or Request
+            case ADD:
+            	try {msg(track, "Add requested");}catch(IOException ioe){}
+                if (o != null && o instanceof SCR) {
+                    SCR s = (SCR) o;
+                    String addOrUpdate = "added";
+                    String id = s.toString();
+                    // only this SCR's stripe is held while it is replaced
+                    this.scrs.lock(id);
+                    try {
+                        // check to see if this is new or update
+                        SCR old = this.scrs.get(id);
+                        if (old == null && this.archive.contains(id)) {
+                            old = unarchive(id);
+                        }
+                        if (old != null) {
+                        	addOrUpdate = "updated";
+                            // keep same author
+                            s.setValue(SCR.AU, old.query(SCR.AU));
+                        }
+                        // SCR already existed, return old copy
+                        returnObject = this.scrs.put(s);
+                        // recorded under the stripe lock, so records for the
+                        // same SCR are in the order the changes were made
+                        persist(Journal.SCRPUT, s);
+                    } finally {
+                        this.scrs.unlock(id);
+                    }
+                    try {
+                        msg(track, s + " " + addOrUpdate);
+                    } catch (IOException ioe) {
+                    }
+                    broadcast(new Notice(returnObject == null ?
+                        Notice.SCRADDED : Notice.SCRUPDATED,
+                        id.toLowerCase(), null));
+                } else if (o != null && o instanceof Request) {
+                    Request r = (Request) o;
+                    int tk = ((Integer) r.query(Request.TK)).intValue();
+                    if (tk < 0) {
+                        // assign a new tracking number to it
+                        try {
+                            tk = this.tracks.next();
+                        } catch (IOException ioe) {
+                            System.err.println(ioe.getMessage());
+                            action.setCode(ERROR);
+                            break;
+                        }
+                        r.setValue(Request.TK, new Integer(tk));
+                    }
+                    // if the request already exists, return old version
+                    this.pending.lock(tk);
+                    try {
+                        returnObject = this.pending.put(r);
+                        persist(Journal.RQSTPUT, r);
+                    } finally {
+                        this.pending.unlock(tk);
+                    }
+                    sendEmail(r, track);
+                    try {
+                        msg(track, "Request " + tk + " submitted", tk);
+                    } catch (IOException ioe) {
+                    }
+                    broadcast(new Notice(Notice.RQSTSUBMITTED, Integer.valueOf(tk),
+                                         r));
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // delete an SCR or Request
+            case DELETE:
+            	try {msg(track, "Delete requested");}catch(IOException ioe){}
+                if (o != null && o instanceof SCR) {
+                    SCR s = (SCR) o;
+                    String id = s.toString();
+                    this.scrs.lock(id);
+                    try {
+                        // if this SCR exists, return old copy
+                        returnObject = this.scrs.remove(s);
+                        if (returnObject != null) {
+                            persist(Journal.SCRDELETE, id.toLowerCase());
+                        }
+                    } finally {
+                        this.scrs.unlock(id);
+                    }
+                    if (returnObject != null) {
+                        broadcast(new Notice(Notice.SCRDELETED,
+                                             s.toString().toLowerCase(), null));
+                    } else {
+                        action.setCode(ERROR);
+                    }
+                } else if (o != null && o instanceof Request) {
+                    Request r = (Request) o;
+                    int tk = ((Integer) r.query(Request.TK)).intValue();
+                    // if the request exists, return old version
+                    this.pending.lock(tk);
+                    try {
+                        returnObject = this.pending.remove(tk);
+                        if (returnObject != null) {
+                            persist(Journal.RQSTDELETE, Integer.valueOf(tk));
+                        }
+                    } finally {
+                        this.pending.unlock(tk);
+                    }
+                    if (returnObject != null) {
+                        try {
+                            msg(track, "Request " + tk + " deleted", tk);
+                        } catch (IOException ioe) {
+                        }
+                        broadcast(new Notice(Notice.RQSTDELETED,
+                                             Integer.valueOf(tk), null));
+                    } else {
+                        action.setCode(ERROR);
+                    }
+                }
+                break;
+            case TRANSFER:
+            	try {msg(track, "Xfer requested");}catch(IOException ioe){}
+                // QA request
+                if (this.transfer == null) {
+                	System.err.println("request is null dummy!");
+                    if (o != null && o instanceof ArrayList) {
+                    	System.err.println("arrayList good grief");
+                        ArrayList list = (ArrayList) o;
+                        this.transfer = new ArrayList<Request>();
+                        this.transferStarted = System.currentTimeMillis();
+                        this.transferFetched = 0;
+                        ArrayList<Integer> moved = new ArrayList<Integer>();
+                        String mess = "Transfer of ";
+                        for (int i = 0; i < list.size(); i++) {
+                            Object listObject = list.get(i);
+                            if (listObject instanceof Request) {
+                                Request or = (Request) listObject;
+                                Integer tk = (Integer) or.query(Request.TK);
+                                mess += tk + ",";
+                                this.transfer.add(or);
+                                this.pending.remove(or);
+                                moved.add(tk);
+                            }
+                        }
+                        if (!persist(Journal.XFERSTART, this.transfer)) {
+                            // nothing was saved, so the files must not move;
+                            // the Requests go back as they were
+                            for (int i = 0; i < this.transfer.size(); i++) {
+                                this.pending.put(this.transfer.get(i));
+                                persist(Journal.RQSTPUT, this.transfer.get(i));
+                            }
+                            persist(Journal.XFERFINISH, null);
+                            this.transfer = null;
+                            action.setCode(ERROR);
+                            returnObject = Integer.valueOf(ERROR);
+                            break;
+                        }
+                        // write text file transfer instructions
+                        broadcast(new Notice(Notice.XFERSTARTED, moved, null));
+                        try {
+                            createXferFile();
+                            int[] refs = new int[moved.size()];
+                            for (int i = 0; i < refs.length; i++) {
+                                refs[i] = moved.get(i).intValue();
+                            }
+                            msg(track, mess, refs);
+                        } catch (IOException ioe) {
+                            action.setCode(ERROR);
+                            returnObject = new Integer(ERROR);
+                        }
+                        if (action.getCode() != ERROR) {
+                        }
+                    }
+                // client from qars performing the transfer
+                } else if (o != null && o instanceof Integer &&
+                           ((Integer) o).intValue() == TRANSFER) {
+                	System.err.println("Xfer integer baby");
+                    returnObject = this.transfer;
+                    if (this.transfer != null && this.transferFetched == 0) {
+                        this.transferFetched = System.currentTimeMillis();
+                    }
+                    System.err.println("Xfer handled splendidly");
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // find what happened to a connection or a Request
+            case LOGLOOKUP:
+            	try {msg(track, "Log lookup requested");}catch(IOException ioe){}
+                if (o != null && o instanceof Integer && isAdmin(track)) {
+                    try {
+                        returnObject = this.logIndex.lookup(
+                            ((Integer) o).intValue(), LOGLOOKUPMAX);
+                        action.setCode(SUCCESS);
+                    } catch (IOException ioe) {
+                        action.setCode(ERROR);
+                        try {
+                            msg(track, "Log lookup failed: " + ioe.getMessage());
+                        } catch (IOException ioe2) {
+                        }
+                    }
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // find past transfers
+            case HISTORY:
+            	try {msg(track, "History requested");}catch(IOException ioe){}
+                if (o != null && o instanceof TransferQuery) {
+                    try {
+                        returnObject =
+                            this.history.query((TransferQuery) o, HISTORYMAX);
+                        action.setCode(SUCCESS);
+                    } catch (IOException ioe) {
+                        action.setCode(ERROR);
+                    }
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            // reload users because someone just updated the master list
+            case USER:
+            	try {msg(track, "User update requested");}catch(IOException ioe){}
+                this.usersLock.lock();
+                try {
+                    this.users = loadUsers(true);
+                } finally {
+                    this.usersLock.unlock();
+                }
+                try {
+                    msg(track, "User file updated");
+                } catch (IOException ioe) {
+                }
+                break;
+        }
+        return returnObject;
+    }
+    
+    /**
+     * Reports a client connection suicide so its thread can be removed.
+     * @param victim The connection that killed itself.
+     */
+    public void reportSuicide(ClientConnection victim) {
+        remove(victim.getTrack());
+    }
+    
+    /**
+     * Shuts down all client connections.
+     */
+    public void shutdown() {
+        if (this.clients != null) {
+            for (int i = 0; i < this.clients.size(); i++) {
+                ClientConnection ct = this.clients.get(i);
+                CTShutdownThread ctst = new CTShutdownThread(ct);
+                ctst.start();
+            }
+        }
+        this.tracks.close();
+        try {
+            msg(this.myTrack, "Server died");
+        } catch (IOException ioe) {
+        }
+        if (this.archiver != null) {
+            this.archiver.shutdown();
+        }
+        if (this.transfer != null && this.transfer.size() > 0) {
+            for (int i = 0; i < this.transfer.size(); i++) {
+                this.pending.put(this.transfer.get(i));
+                persist(Journal.RQSTPUT, this.transfer.get(i));
+            }
+            persist(Journal.XFERFINISH, null);
+            remember(this.transfer, this.transferStarted, this.transferFetched,
+                     Transfer.UNDONE);
+            this.transfer = null;
+            java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
+            f.delete();
+        }
+        if (this.storage != null) {
+            if ("yes".equalsIgnoreCase(EXPORT)) {
+                try {
+                    new LegacyFiles(this.dataDir).write(
+                        new ArrayList<SCR>(this.scrs.values()),
+                        new ArrayList<Request>(
+                            this.pending.snapshot().getItems()));
+                } catch (IOException ioe) {
+                    try {
+                        msg(this.myTrack, "Export failed: " + ioe.getMessage());
+                    } catch (IOException ioe2) {
+                    }
+                }
+            }
+            this.storage.close();
+        }
+        if (this.history != null) {
+            this.history.close();
+        }
+        // last, so whatever the shutdown logged reaches the disk
+        this.log.close();
+        this.logIndex.close();
+    }
+    
+    /**
+     * Validates a security level.
+     * @param s Security level in question
+     * @return true if s is a valid access level, false otherwise
+     */
+    public static boolean validSecurity(int s) {
+        boolean retVal = false;
+        switch (s) {
+            case NOAC:
+            case DVLP:
+            case QAAS:
+            case ADMN:
+                retVal = true;
+        }
+        return retVal;
+    }
+    
+    // package methods ----------------------------------------------------
+    
+    /**
+     * Hands an action to the server on behalf of a connection. Requests for
+     * directory contents and impact lists do not need to bother the server
+     * and are answered here.
+     * @param track Tracking number for client.
+     * @param action Action to be performed.
+     * @param o Associated object reference.
+     * @return Object dependent upon action and successful completion.
+     */
+    Object dispatch(int track, ReturnCode action, Object o) {
+        Object returnObject = null;
+        switch (action.getCode()) {
+            case DIR:
+                returnObject = getDirectoryContents(o);
+                break;
+            case EXISTS:
+                returnObject = dirExists(o);
+                break;
+            case IMPACT:
+                returnObject = getImpact(track, o);
+                break;
+            case SUBSCRIBE:
+                subscribe(track);
+                action.setCode(SUCCESS);
+                break;
+            case PING:
+                action.setCode(SUCCESS);
+                break;
+            case STATUS:
+                if (isAdmin(track)) {
+                    returnObject = getStatus();
+                    action.setCode(SUCCESS);
+                } else {
+                    action.setCode(ERROR);
+                }
+                break;
+            case LOGNAME:
+                returnObject = performClientAction(track, action, o);
+                if (returnObject instanceof User) {
+                    this.names.put(Integer.valueOf(track),
+                                   ((User) returnObject).getWin());
+                }
+                break;
+            default:
+                returnObject = performClientAction(track, action, o);
+        }
+        return returnObject;
+    }
+    
+    /**
+     * Determines whether an action must be finished before the next frame
+     * from the same client is looked at. Other actions that carry a
+     * correlation id may be performed alongside each other.
+     * @param action The action code received.
+     * @return true if the action must be performed in order.
+     */
+    static boolean isOrdered(int action) {
+        return action == HELLO || action == LOGNAME || action == EMAIL ||
+               action == SHUTDOWN;
+    }
+    
+    /**
+     * Assigns the next tracking number to a new connection.
+     * @return Unique tracking id for the connection.
+     * @throws IOException if no number could be reserved.
+     */
+    int nextTrack() throws IOException {
+        return this.tracks.next();
+    }
+    
+    /**
+     * Adds a newly accepted connection to the list of clients.
+     * @param ct The connection that was accepted.
+     */
+    void addClient(ClientConnection ct) {
+        try {
+            msg(ct.getTrack(), "New connection accepted");
+        } catch (IOException ioe) {
+        }
+        synchronized (this.clients) {
+            this.clients.add(ct);
+        }
+    }
+    
+    // private methods ----------------------------------------------------
+    
+    /* Adds a connection to the clients that are sent Notices. */
+    private void subscribe(int track) {
+        synchronized (this.clients) {
+            for (int i = 0; i < this.clients.size(); i++) {
+                ClientConnection cc = this.clients.get(i);
+                if (cc.getTrack() == track && !this.subscribers.contains(cc)) {
+                    this.subscribers.add(cc);
+                }
+            }
+        }
+        try {
+            msg(track, "Subscribed to changes");
+        } catch (IOException ioe) {
+        }
+    }
+    
+    /* Describes every open connection, one line each, after a line giving
+     * how many there are. */
+    private ArrayList<String> getStatus() {
+        ArrayList<ClientConnection> open = null;
+        synchronized (this.clients) {
+            open = new ArrayList<ClientConnection>(this.clients);
+        }
+        long now = System.currentTimeMillis();
+        ArrayList<String> lines = new ArrayList<String>(open.size() + 5);
+        lines.addAll(this.storage.getStatus());
+        lines.add(this.scrs.size() + " SCRs active, " + this.archive.size() +
+                  " archived");
+        lines.add("log " + this.logIndex.size() + " compressed segments, " +
+                  this.log.getFailures() + " write failures");
+        lines.add("history " + this.history.size() + " transfers");
+        lines.add(open.size() + " connections");
+        for (int i = 0; i < open.size(); i++) {
+            ClientConnection cc = open.get(i);
+            Activity a = cc.getActivity();
+            String name = this.names.get(Integer.valueOf(cc.getTrack()));
+            lines.add(cc.getTrack() + " " + (name != null ? name : "-") +
+                      " idle " + (now - a.getLast()) / 1000 + "s" +
+                      (a.getActive() > 0 ? " busy " + a.getActive() : ""));
+        }
+        return lines;
+    }
+    
+    /* Closes every connection that has gone unheard for longer than the
+     * idle timeout, releasing it as if it had failed. */
+    private void reap() {
+        ArrayList<ClientConnection> open = null;
+        synchronized (this.clients) {
+            open = new ArrayList<ClientConnection>(this.clients);
+        }
+        long now = System.currentTimeMillis();
+        long timeout = IDLETIMEOUT * 1000L;
+        for (int i = 0; i < open.size(); i++) {
+            ClientConnection cc = open.get(i);
+            if (cc.getActivity().isIdle(now, timeout)) {
+                try {
+                    msg(cc.getTrack(), "Idle for " + IDLETIMEOUT +
+                        " seconds, connection closed");
+                } catch (IOException ioe) {
+                }
+                reportSuicide(cc);
+                cc.evict();
+            }
+        }
+    }
+    
+    /* Pushes a Notice to every subscriber. A single thread does the sending
+     * so Notices arrive in the order they were raised. */
+    private void broadcast(Notice n) {
+        if (this.subscribers != null && !this.subscribers.isEmpty()) {
+            this.notifier.execute(new Broadcaster(n));
+        }
+    }
+    
+    /* Creates the executor that runs one ClientThread per connection. In
+     * virtual mode each connection gets a virtual thread when the JDK has
+     * them; otherwise every connection gets its own platform thread. */
+    private ExecutorService createHandlers() {
+        ExecutorService handlers = null;
+        if (MODE.equals("virtual")) {
+            try {
+                // looked up reflectively so the server still runs on older JDKs
+                java.lang.reflect.Method m = Executors.class.getMethod(
+                    "newVirtualThreadPerTaskExecutor");
+                handlers = (ExecutorService) m.invoke(null);
+            } catch (Exception e) {
+                try {
+                    msg(this.myTrack, "Virtual threads unavailable, using " +
+                        "platform threads");
+                } catch (IOException ioe) {
+                }
+            }
+        }
+        if (handlers == null) {
+            handlers = Executors.newCachedThreadPool();
+        }
+        return handlers;
+    }
+    
+    /* Gathers directory contents */
+    private Object getDirectoryContents(Object o) {
+        Object contents = null;
+        if (o != null && o instanceof String) {
+            contents = qars.io.DirectoryViewer.view((String) o);
+        }
+        return contents;
+    }
+    
+    /* Determines if the given directory exists */
+    private Boolean dirExists(Object o) {
+        Boolean ex = null;
+        if (o != null && o instanceof String) {
+            java.io.File f = new java.io.File((String) o);
+            if (f.exists() && f.isDirectory()) {
+                ex = Boolean.valueOf(true);
+            } else {
+                ex = Boolean.valueOf(false);
+            }
+        }
+        return ex;
+    }
+    
+    /* Runs check-impact and returns results */
+    private ArrayList<String> getImpact(int track, Object o) {
+        ArrayList<String> files = null;
+        if (o != null && o instanceof String) {
+            String doti = (String) o;
+            if (doti.endsWith(".i")) {
+                try {
+                    String list[] = qars.io.Filer.getImpact(track + "", doti);
+                    files = new ArrayList<String>();
+                    for (int i = 0; i < list.length; i++) {
+                        files.add(list[i]);
+                    }
+                } catch (IOException ioe) {
+                    ioe.printStackTrace(System.err);
+                }
+            }
+        }
+        return files;
+    }
+    
+    /* Sends an email to QA and all requestors of successful release. */
+    private void notifySuccess(int track) {
+        OutputStream os = null;
+        String eDist = System.getenv("QAEMAIL");
+        for (int i = 0; i < this.transfer.size(); i++) {
+            Request r = this.transfer.get(i);
+            eDist += " " + (String) r.query(Request.RQ);
+            if (((Boolean) r.query(Request.DC)).booleanValue()) {
+                eDist += " " + System.getenv("DBEMAIL");
+            }
+        }
+        try {
+            os = qars.io.Filer.sendEmail("QA Release Success", eDist);
+            PrintStream ps = new PrintStream(os);
+            ps.println("The following items were successfully released on QA. " +
+                       "Testing may resume.");
+            ps.println();
+            for (int i = 0; i < this.transfer.size(); i++) {
+                Request r = this.transfer.get(i);
+                r.print(os);
+            }
+            os.close();
+        } catch (IOException ioe) {
+            try {
+                msg(track, "Email delivery failed (2)");
+            } catch (IOException ioe2) {
+            }
+        }
+        this.transfer = null;
+    }
+    
+    /* Transfers the contents of a User ArrayList to a HashMap */
+    private HashMap<String, User> loadUsers(boolean refresh) {
+        ArrayList<User> ulist = new ArrayList<User>();
+        try {
+            ulist = this.storage.loadUsers(refresh);
+        } catch (IOException ioe) {
+        }
+        HashMap<String, User> map = new HashMap<String, User>();
+        for (int i = 0; i < ulist.size(); i++) {
+            User u = ulist.get(i);
+            map.put(u.getWin(), u);
+        }
+        return map;
+    }
+    
+    /* Sends an email to QA and the requestor. */
+    private void sendEmail(Object o, int track) {
+        OutputStream os = null;
+        String eDist = System.getenv("QAEMAIL");
+        if (eDist != null) {
+            eDist += " "; 
+        } else {
+            eDist = "";
+        }
+        //eDist += Thread.currentThread().getName();
+        if (o instanceof Request) {
+            Request or = (Request) o;
+            eDist += (String) or.query(Request.RQ);
+            if (((Boolean) or.query(Request.DC)).booleanValue()) {
+                eDist += " " + System.getenv("DBEMAIL");
+            }
+            try {
+                os = qars.io.Filer.sendEmail("QA Transfer Request", eDist);
+                PrintStream ps = new PrintStream(os);
+                ps.println("A transfer request has been submitted for QA. " +
+                           "The details are shown below.");
+                ps.println();
+                ((Request) o).print(os);
+                os.close();
+            } catch (IOException ioe) {
+                try {
+                    msg(track, "Email delivery failed (1)",
+                        ((Integer) ((Request) o).query(Request.TK)).intValue());
+                } catch (IOException ioe2) {
+                }
+            }
+        }
+    }
+    
+    /* Writes the transfer instructions to a file. */
+    private void createXferFile() throws IOException {
+        java.io.File f = new java.io.File(this.dataDir + INSTRUCTIONS);
+        // check to see that a transfer hasn't already started
+        if (f.exists()) {
+            throw new IOException("Instruction file already exists");
+        }
+        FileOutputStream fos = new FileOutputStream(f);
+        PrintStream ps = new PrintStream(fos);
+        /* temporary */
+        OutputStream os = qars.io.Filer.sendEmail("QA Transfer Submitted", SUPERADMIN);
+        for (int i = 0; i < this.transfer.size(); i++) {
+            Request r = this.transfer.get(i);
+            r.print(fos);
+            r.print(os);
+        }
+        ps.close();
+        fos.close();
+        os.close();
+    }
+    
+    /* Removes a client connection from the list. Returns a reference to the
+     * connection if it existed. */
+    private ClientConnection remove(int track) {
+        ClientConnection ctReturn = null;
+        if (this.clients != null) {
+            synchronized (this.clients) {
+                for (int i = 0; i < this.clients.size(); i++) {
+                    if (this.clients.get(i).getTrack() == track) {
+                        ctReturn = this.clients.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+        if (ctReturn != null) {
+            this.subscribers.remove(ctReturn);
+            this.names.remove(Integer.valueOf(track));
+        }
+        return ctReturn;
+    }
+    
+    /* Writes a message along with tracking number and timestamp to the log.
+     * The message is only queued; the log writer stamps and writes it. Any
+     * Requests the message is about can be looked up by as well. */
+    private void msg(int track, String message, int... refs)
+                     throws IOException {
+        this.log.log(track, message, refs);
+    }
+    
+    /* Records a change with the Storage. The change is already in the
+     * tables, so if it cannot be recorded the Storage saves it some other
+     * way when it can; most clients are not failed for it. Returns whether
+     * it was recorded. */
+    private boolean persist(int type, Object o) {
+        try {
+            this.storage.record(type, o);
+            return true;
+        } catch (IOException ioe) {
+            try {
+                msg(this.myTrack, "Storage write failed: " + ioe.getMessage());
+            } catch (IOException ioe2) {
+            }
+            return false;
+        }
+    }
+    
+    /* Adds a transfer that has ended to the history. It is added after the
+     * end is recorded, so a crash in between loses only the history entry. */
+    private void remember(ArrayList<Request> moved, long started,
+                          long fetched, int outcome) {
+        try {
+            this.history.add(new Transfer(new ArrayList<Request>(moved),
+                started, fetched, System.currentTimeMillis(), outcome));
+        } catch (IOException ioe) {
+            try {
+                msg(this.myTrack, "History write failed: " + ioe.getMessage());
+            } catch (IOException ioe2) {
+            }
+        }
+    }
+    
+    /* Moves every SCR that has not been saved for ARCHIVEAGE days, and has
+     * no Request waiting on it, out of the active list into a new archive
+     * segment. The segment is on disk before any SCR leaves the list, and an
+     * SCR saved while the segment was written stays. */
+    private void archive() {
+        long cutoff = System.currentTimeMillis() - ARCHIVEAGE * 86400000L;
+        String segment = null;
+        try {
+            ArrayList<String> idle = this.scrs.idleSince(cutoff);
+            if (idle.isEmpty()) {
+                return;
+            }
+            HashSet<String> busy = new HashSet<String>();
+            ArrayList<Request> waiting =
+                new ArrayList<Request>(this.pending.snapshot().getItems());
+            ArrayList<Request> xfer = this.transfer;
+            if (xfer != null) {
+                waiting.addAll(xfer);
+            }
+            for (int i = 0; i < waiting.size(); i++) {
+                Object s = waiting.get(i).query(Request.IR);
+                if (s != null) {
+                    busy.add(s.toString().toLowerCase());
+                }
+            }
+            ArrayList<SCR> moving = new ArrayList<SCR>();
+            for (int i = 0; i < idle.size(); i++) {
+                SCR s = this.scrs.get(idle.get(i));
+                if (s != null && !busy.contains(idle.get(i))) {
+                    moving.add(s);
+                }
+            }
+            if (moving.isEmpty()) {
+                return;
+            }
+            segment = this.archive.write(moving);
+            int moved = 0;
+            for (int i = 0; i < moving.size(); i++) {
+                SCR s = moving.get(i);
+                String id = s.toString().toLowerCase();
+                this.scrs.lock(id);
+                try {
+                    // a save replaces the object, so this one is untouched
+                    if (this.scrs.get(id) != s) {
+                        continue;
+                    }
+                    this.scrs.remove(s);
+                    this.archive.moved(id, segment);
+                    persist(Journal.SCRARCHIVE, new String[] {id, segment});
+                    moved++;
+                } finally {
+                    this.scrs.unlock(id);
+                }
+                broadcast(new Notice(Notice.SCRDELETED, id, null));
+            }
+            msg(this.myTrack, "Archived " + moved + " SCRs to " + segment);
+        } catch (IOException ioe) {
+            try {
+                msg(this.myTrack, "Archiving failed: " + ioe.getMessage());
+            } catch (IOException ioe2) {
+            }
+        } finally {
+            // the Storage may now prune the segment if nothing went into it
+            if (segment != null) {
+                this.archive.done(segment);
+            }
+        }
+    }
+    
+    /* Brings an archived SCR back into the active list and returns it, or
+     * null if it could not be read. It is recorded as active before it is
+     * dropped from the archive, so a crash in between loses nothing. */
+    private SCR unarchive(String id) {
+        this.scrs.lock(id);
+        try {
+            SCR s = this.scrs.get(id);
+            if (s == null) {
+                s = this.archive.read(id);
+                if (s != null) {
+                    this.scrs.put(s);
+                    persist(Journal.SCRPUT, s);
+                }
+            }
+            this.archive.forget(id);
+            return s;
+        } catch (IOException ioe) {
+            try {
+                msg(this.myTrack, "Could not restore " + id + ": " +
+                    ioe.getMessage());
+            } catch (IOException ioe2) {
+            }
+            return null;
+        } finally {
+            this.scrs.unlock(id);
+        }
+    }
+    
+    /* Did the connection log in as an administrator? */
+    private boolean isAdmin(int track) {
+        String name = this.names.get(Integer.valueOf(track));
+        if (name == null) {
+            return false;
+        }
+        this.usersLock.lock();
+        try {
+            User u = this.users.get(name);
+            return u != null && u.getSecurity() == ADMN;
+        } finally {
+            this.usersLock.unlock();
+        }
+    }
+    
+    /* Retrieves user from user list if valid, if not, return null */
+    private User buildUser(int track, String userName) {
+        User u = null;
+        this.usersLock.lock();
+        try {
+            if (this.users.containsKey(userName)) {
+                u = this.users.get(userName);
+            } else {
+                u = new User(userName);
+            }
+        } finally {
+            this.usersLock.unlock();
+        }
+        if (u != null && u.getUnix().length() > 0) {
+            userName = u.getUnix();
+        } else {
+            try {
+                OutputStream os = 
+                    qars.io.Filer.sendEmail("Unrecognized QARS User", SUPERADMIN);
+                PrintStream ps = new PrintStream(os);
+                ps.println(userName + " attempted to access the QA" +
+                           " Automated Release System");
+                os.close();
+            } catch (IOException ioe) {
+                try {
+                    msg(track, "Unrecognized user: " + userName);
+                } catch (IOException ioe2) {
+                }
+            }
+        }
+        try {
+            msg(track, "User: " + userName);
+        } catch (IOException ioe) {
+        }
+        return u;
+    }
+    
+    // main ---------------------------------------------------------------
+    
+    /** Allows a ReleaseServer to be started from the command-line. */
+    @SuppressWarnings("unused")
+	public static void main(String[] args) {
+        if (args != null && args.length == 2) {
+            try {
+                ReleaseServer rs = new ReleaseServer(args[0], args[1]);
+            } catch (IOException ioe) {
+                ioe.printStackTrace(System.err);
+                // threads started before the failure would keep it alive
+                System.exit(1);
+            }
+        } else {
+            System.err.println("usage: java [-cp <classpath>] <datadir> <logfilename>");
+        }
+    }
+    
+    // private classes ----------------------------------------------------
+    
+    /**
+     * Handles server shutdown in the event of a system interrupt.
+     */
+    private class RSShutdownThread extends Thread {
+        private ReleaseServer rs;
+        public RSShutdownThread(ReleaseServer rs) {
+            this.rs = rs;
+        }
+        public void run() {
+            if (this.rs != null) {
+                this.rs.shutdown();
+            }
+        }
+    }
+    
+    /**
+     * Archives SCRs nobody is working on each time it is run.
+     */
+    private class Archiver implements Runnable {
+        public void run() {
+            archive();
+        }
+    }
+    
+    /**
+     * Closes idle connections each time it is run.
+     */
+    private class Reaper implements Runnable {
+        public void run() {
+            reap();
+        }
+    }
+    
+    /**
+     * Sends one Notice to every subscriber.
+     */
+    private class Broadcaster implements Runnable {
+        private Notice n;
+        public Broadcaster(Notice n) {
+            this.n = n;
+        }
+        public void run() {
+            Iterator<ClientConnection> it = subscribers.iterator();
+            while (it.hasNext()) {
+                it.next().push(EVENT, this.n);
+            }
+        }
+    }
+    
+    /**
+     * Handles client shutdown to prevent the server from blocking.
+     */
+    private class CTShutdownThread extends Thread {
+        private ClientConnection ct;
+        public CTShutdownThread(ClientConnection ct) {
+            this.ct = ct;
+        }
+        public void run() {
+            if (this.ct != null) {
+                this.ct.shutdown();
+            }
+        }
+    }
+}
     
\ No newline at end of file
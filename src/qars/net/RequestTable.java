@@ -0,0 +1,353 @@
+package qars.net;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import qars.util.Delta;
+import qars.util.Request;
+
+/**
+ * <p>Holds the pending Requests keyed by tracking number. The table is split
+ * into stripes, each with its own lock and its own open-addressed hash of
+ * primitive int keys, so Requests with different tracking numbers seldom
+ * contend and finding one never boxes its key. Readers of the whole table
+ * share a snapshot that is rebuilt only after a change, and clients that
+ * already have a copy can ask for only what changed.</p>
+ *
+ * <p>SCRTable keeps its SCRs in a ConcurrentHashMap instead, with the same
+ * stripes of locks beside it. Its keys are strings, objects already, and its
+ * lookups must not lock, since an SCR may be read from the Storage on first
+ * use. Here the keys are ints and every lookup is made by an update that
+ * holds the stripe anyway, so each stripe keeps the keys, Requests and change
+ * versions in parallel arrays, and delta() walks them without a map lookup
+ * per Request. Only the change log boxes a tracking number, once per
+ * change.</p>
+ *
+ * @author Jaren Belt
+ */
+public class RequestTable {
+    private static final int STRIPES = 16;
+    // marks an unused slot; never a valid tracking number
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private Stripe[] stripes;
+    private ChangeLog changes;                 // numbers every change
+    private volatile Snapshot<Request> snapshot;  // last published contents
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new, empty RequestTable.
+     */
+    public RequestTable() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.changes = new ChangeLog();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Finds the Request with the given tracking number.
+     * @param track Tracking number.
+     * @return The stored Request or null if there is none.
+     */
+    public Request get(int track) {
+        Stripe st = stripeFor(track);
+        st.lock.lock();
+        try {
+            int i = st.indexOf(track);
+            return (i >= 0 ? st.values[i] : null);
+        } finally {
+            st.lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a Request, replacing any Request with the same tracking number.
+     * @param r The Request to store.
+     * @return The Request that was replaced or null if r is new.
+     */
+    public Request put(Request r) {
+        int track = track(r);
+        Stripe st = stripeFor(track);
+        Request old = null;
+        st.lock.lock();
+        long v = this.changes.begin();
+        try {
+            old = st.put(track, r, v);
+            this.changes.restored(Integer.valueOf(track));
+        } finally {
+            this.changes.end();
+            st.lock.unlock();
+        }
+        return old;
+    }
+
+    /**
+     * Removes the Request with the given tracking number.
+     * @param track Tracking number.
+     * @return The Request that was removed or null if there was none.
+     */
+    public Request remove(int track) {
+        Stripe st = stripeFor(track);
+        Request old = null;
+        st.lock.lock();
+        long v = this.changes.begin();
+        try {
+            old = st.remove(track);
+            if (old != null) {
+                this.changes.removed(Integer.valueOf(track), v);
+            }
+        } finally {
+            this.changes.end();
+            st.lock.unlock();
+        }
+        return old;
+    }
+
+    /**
+     * Removes the Request with the same tracking number as the one given.
+     * @param r A Request with the tracking number to remove.
+     * @return The Request that was removed or null if there was none.
+     */
+    public Request remove(Request r) {
+        return remove(track(r));
+    }
+
+    /**
+     * Locks the stripe for a tracking number. Hold it while a change to the
+     * Request must be kept in step with something else, and release it with
+     * unlock.
+     * @param track Tracking number.
+     */
+    public void lock(int track) {
+        stripeFor(track).lock.lock();
+    }
+
+    /**
+     * Unlocks the stripe for a tracking number.
+     * @param track Tracking number.
+     */
+    public void unlock(int track) {
+        stripeFor(track).lock.unlock();
+    }
+
+    /**
+     * Copies the stored Requests into a new list. Each stripe is locked only
+     * while it is being copied.
+     * @return A list of every Request; changing it does not affect this table.
+     */
+    public ArrayList<Request> values() {
+        ArrayList<Request> list = new ArrayList<Request>();
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe st = this.stripes[i];
+            st.lock.lock();
+            try {
+                for (int j = 0; j < st.keys.length; j++) {
+                    if (st.keys[j] != EMPTY) {
+                        list.add(st.values[j]);
+                    }
+                }
+            } finally {
+                st.lock.unlock();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the contents of the table as of the latest change. The snapshot is
+     * only rebuilt when the table has changed since it was last taken.
+     * @return The current snapshot; its list must not be changed.
+     */
+    public Snapshot<Request> snapshot() {
+        Snapshot<Request> snap = this.snapshot;
+        long v = this.changes.stable();
+        if (snap == null || snap.getVersion() != v) {
+            // a change stored while copying is numbered above v, so the
+            // snapshot can only be newer than its label and is rebuilt later
+            snap = new Snapshot<Request>(v, values());
+            this.snapshot = snap;
+        }
+        return snap;
+    }
+
+    /**
+     * Gathers the Requests added, updated or deleted after a client's version.
+     * @param since The epoch and version the client already has.
+     * @return The changes, or every Request if they cannot be described.
+     */
+    public Delta<Request> delta(Delta<?> since) {
+        long v = this.changes.stable();
+        long from = since.getVersion();
+        ArrayList<Request> changed = new ArrayList<Request>();
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe st = this.stripes[i];
+            st.lock.lock();
+            try {
+                for (int j = 0; j < st.keys.length; j++) {
+                    if (st.keys[j] != EMPTY && st.versions[j] > from) {
+                        changed.add(st.values[j]);
+                    }
+                }
+            } finally {
+                st.lock.unlock();
+            }
+        }
+        ArrayList<Object> removed = this.changes.removedSince(from);
+        if (this.changes.covers(since.getEpoch(), from, v)) {
+            return new Delta<Request>(this.changes.getEpoch(), v, false,
+                                      changed, removed);
+        }
+        Snapshot<Request> snap = snapshot();
+        return new Delta<Request>(this.changes.getEpoch(), snap.getVersion(),
+                                  true, snap.getItems(), new ArrayList<Object>());
+    }
+
+    /**
+     * @return The number of Requests stored.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe st = this.stripes[i];
+            st.lock.lock();
+            try {
+                size += st.size;
+            } finally {
+                st.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Gets the tracking number of a Request. */
+    private static int track(Request r) {
+        return ((Integer) r.query(Request.TK)).intValue();
+    }
+
+    /* Scrambles a tracking number, since they are handed out in sequence. */
+    private static int spread(int track) {
+        int h = track * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* Picks the stripe holding a tracking number. */
+    private Stripe stripeFor(int track) {
+        return this.stripes[spread(track) & (STRIPES - 1)];
+    }
+
+    // private classes ----------------------------------------------------
+
+    /** One lock and an open-addressed table using linear probing. */
+    private static class Stripe {
+        private ReentrantLock lock;
+        private int[] keys;
+        private Request[] values;
+        private long[] versions;          // version of each slot's last change
+        private int size;
+
+        public Stripe() {
+            this.lock = new ReentrantLock();
+            allocate(16);
+        }
+
+        /* Slot of the key, or -1 if absent. */
+        private int indexOf(int key) {
+            int mask = this.keys.length - 1;
+            int i = home(key, mask);
+            while (this.keys[i] != EMPTY) {
+                if (this.keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Request put(int key, Request r, long v) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                Request old = this.values[i];
+                this.values[i] = r;
+                this.versions[i] = v;
+                return old;
+            }
+            if ((this.size + 1) * 4 > this.keys.length * 3) {
+                resize();
+            }
+            insert(key, r, v);
+            this.size++;
+            return null;
+        }
+
+        private Request remove(int key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return null;
+            }
+            Request old = this.values[i];
+            // shift later entries back so no probe sequence is broken
+            int mask = this.keys.length - 1;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (this.keys[j] == EMPTY) {
+                    break;
+                }
+                int h = home(this.keys[j], mask);
+                boolean movable = (i <= j) ? (h <= i || h > j)
+                                           : (h <= i && h > j);
+                if (movable) {
+                    this.keys[i] = this.keys[j];
+                    this.values[i] = this.values[j];
+                    this.versions[i] = this.versions[j];
+                    i = j;
+                }
+            }
+            this.keys[i] = EMPTY;
+            this.values[i] = null;
+            this.size--;
+            return old;
+        }
+
+        private void insert(int key, Request r, long v) {
+            int mask = this.keys.length - 1;
+            int i = home(key, mask);
+            while (this.keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+            this.values[i] = r;
+            this.versions[i] = v;
+        }
+
+        private void resize() {
+            int[] oldKeys = this.keys;
+            Request[] oldValues = this.values;
+            long[] oldVersions = this.versions;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insert(oldKeys[i], oldValues[i], oldVersions[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            this.keys = new int[capacity];
+            java.util.Arrays.fill(this.keys, EMPTY);
+            this.values = new Request[capacity];
+            this.versions = new long[capacity];
+        }
+
+        /* The stripe was chosen by the low bits, so probe with the rest. */
+        private static int home(int key, int mask) {
+            return (spread(key) >>> 4) & mask;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package qars.net;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import qars.util.Delta;
+import qars.util.SCR;
+
+/**
+ * <p>Holds the active SCRs keyed by case-folded SCR id. Lookups do not lock.
+ * Updates that must read an SCR before replacing it lock only the stripe the
+ * id hashes to, so developers saving different SCRs do not contend. Readers of
+ * the whole table share a snapshot that is rebuilt only after a change, and
+ * clients that already have a copy can ask for only what changed.</p>
+ *
+ * <p>SCRs a Storage attaches stay in it until they are first asked for;
+ * anything that needs the whole table reads the rest. That includes
+ * snapshot() and delta(), so the first client to ask for the SCR list loads
+ * every SCR still unread, and startup is only quicker until then.</p>
+ *
+ * <p>The table also remembers when each SCR was last saved, so SCRs nobody
+ * works on any more can be found and archived.</p>
+ *
+ * @author Jaren Belt
+ */
+public class SCRTable {
+    private static final int STRIPES = 16;
+
+    private ConcurrentHashMap<String, SCR> scrs;
+    private ReentrantLock[] stripes;
+    private ConcurrentHashMap<String, Long> versions; // last change per id
+    private ChangeLog changes;                 // numbers every change
+    private volatile Snapshot<SCR> snapshot;      // last published contents
+    private ConcurrentHashMap<String, Boolean> unread; // ids still in source
+    private volatile Storage source;            // where unread SCRs are
+    private ConcurrentHashMap<String, Long> touched;   // when each was saved
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new, empty SCRTable.
+     */
+    public SCRTable() {
+        this.scrs = new ConcurrentHashMap<String, SCR>();
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.versions = new ConcurrentHashMap<String, Long>();
+        this.changes = new ChangeLog();
+        this.unread = new ConcurrentHashMap<String, Boolean>();
+        this.touched = new ConcurrentHashMap<String, Long>();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Finds the SCR with the given id, ignoring case.
+     * @param id SCR id.
+     * @return The stored SCR or null if there is none.
+     */
+    public SCR get(String id) {
+        String k = key(id);
+        SCR s = this.scrs.get(k);
+        if (s == null && this.unread.containsKey(k)) {
+            s = read(k);
+        }
+        return s;
+    }
+
+    /**
+     * Adds SCRs kept in a Storage without reading them. Each is read the
+     * first time it is asked for; none of them counts as a change.
+     * @param source The Storage to read them from.
+     * @param ids Lower case ids of the SCRs.
+     * @param saved When each was last saved; may be null.
+     */
+    public void attach(Storage source, ArrayList<String> ids,
+                       HashMap<String, Long> saved) {
+        this.source = source;
+        Long now = Long.valueOf(System.currentTimeMillis());
+        for (int i = 0; i < ids.size(); i++) {
+            this.unread.put(ids.get(i), Boolean.TRUE);
+            Long t = (saved != null ? saved.get(ids.get(i)) : null);
+            this.touched.put(ids.get(i), (t != null ? t : now));
+        }
+    }
+
+    /**
+     * Lists the SCRs not read from the attached Storage yet. Call before
+     * loaded, so an SCR read in between is in at least one of the lists.
+     * @return Lower case ids of the unread SCRs.
+     */
+    public ArrayList<String> getUnread() {
+        return new ArrayList<String>(this.unread.keySet());
+    }
+
+    /**
+     * Stores an SCR, replacing any SCR with the same id.
+     * @param s The SCR to store.
+     * @return The SCR that was replaced or null if s is new.
+     */
+    public SCR put(SCR s) {
+        String id = key(s.toString());
+        SCR old = null;
+        lock(id);
+        long v = this.changes.begin();
+        try {
+            if (this.unread.containsKey(id)) {
+                // the one in the file is replaced without being read
+                this.unread.remove(id);
+            }
+            old = this.scrs.put(id, s);
+            this.versions.put(id, Long.valueOf(v));
+            this.touched.put(id, Long.valueOf(System.currentTimeMillis()));
+            this.changes.restored(id);
+        } finally {
+            this.changes.end();
+            unlock(id);
+        }
+        return old;
+    }
+
+    /**
+     * Removes the SCR with the same id as the one given.
+     * @param s An SCR with the id to remove.
+     * @return The SCR that was removed or null if there was none.
+     */
+    public SCR remove(SCR s) {
+        String id = key(s.toString());
+        SCR old = null;
+        lock(id);
+        if (this.unread.containsKey(id)) {
+            // the removed SCR is handed back, so it has to be read
+            read(id);
+        }
+        long v = this.changes.begin();
+        try {
+            old = this.scrs.remove(id);
+            if (old != null) {
+                this.versions.remove(id);
+                this.touched.remove(id);
+                this.changes.removed(id, v);
+            }
+        } finally {
+            this.changes.end();
+            unlock(id);
+        }
+        return old;
+    }
+
+    /**
+     * Locks the stripe for an SCR id. Hold it while reading an SCR in order to
+     * replace it, and release it with unlock.
+     * @param id SCR id.
+     */
+    public void lock(String id) {
+        stripeFor(id).lock();
+    }
+
+    /**
+     * Unlocks the stripe for an SCR id.
+     * @param id SCR id.
+     */
+    public void unlock(String id) {
+        stripeFor(id).unlock();
+    }
+
+    /**
+     * Copies the time each SCR was last saved, to be kept with the snapshot.
+     * @return Time in milliseconds by lower case SCR id.
+     */
+    public HashMap<String, Long> getTouched() {
+        return new HashMap<String, Long>(this.touched);
+    }
+
+    /**
+     * Finds the SCRs that have not been saved since a given time.
+     * @param cutoff Time in milliseconds.
+     * @return Lower case ids of the SCRs last saved before the cutoff.
+     */
+    public ArrayList<String> idleSince(long cutoff) {
+        ArrayList<String> ids = new ArrayList<String>();
+        Iterator<Map.Entry<String, Long>> it =
+            this.touched.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> e = it.next();
+            if (e.getValue().longValue() < cutoff) {
+                ids.add(e.getKey());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Copies the stored SCRs into a new list.
+     * @return A list of every SCR; changing it does not affect this table.
+     */
+    public ArrayList<SCR> values() {
+        readAll();
+        return loaded();
+    }
+
+    /**
+     * Copies the SCRs read so far into a new list, leaving the rest unread.
+     * @return A list of the SCRs in memory.
+     */
+    public ArrayList<SCR> loaded() {
+        return new ArrayList<SCR>(this.scrs.values());
+    }
+
+    /**
+     * Gets the contents of the table as of the latest change. The snapshot is
+     * only rebuilt when the table has changed since it was last taken.
+     * @return The current snapshot; its list must not be changed.
+     */
+    public Snapshot<SCR> snapshot() {
+        Snapshot<SCR> snap = this.snapshot;
+        long v = this.changes.stable();
+        if (snap == null || snap.getVersion() != v) {
+            // a change stored while copying is numbered above v, so the
+            // snapshot can only be newer than its label and is rebuilt later
+            snap = new Snapshot<SCR>(v, values());
+            this.snapshot = snap;
+        }
+        return snap;
+    }
+
+    /**
+     * Gathers the SCRs added, updated or deleted after a client's version.
+     * @param since The epoch and version the client already has.
+     * @return The changes, or every SCR if the changes cannot be described.
+     */
+    public Delta<SCR> delta(Delta<?> since) {
+        readAll();
+        long v = this.changes.stable();
+        long from = since.getVersion();
+        ArrayList<SCR> changed = new ArrayList<SCR>();
+        Iterator<Map.Entry<String, SCR>> it = this.scrs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, SCR> e = it.next();
+            Long ev = this.versions.get(e.getKey());
+            if (ev == null || ev.longValue() > from) {
+                changed.add(e.getValue());
+            }
+        }
+        ArrayList<Object> removed = this.changes.removedSince(from);
+        if (this.changes.covers(since.getEpoch(), from, v)) {
+            return new Delta<SCR>(this.changes.getEpoch(), v, false, changed,
+                                  removed);
+        }
+        Snapshot<SCR> snap = snapshot();
+        return new Delta<SCR>(this.changes.getEpoch(), snap.getVersion(), true,
+                              snap.getItems(), new ArrayList<Object>());
+    }
+
+    /**
+     * @return The number of SCRs stored.
+     */
+    public int size() {
+        return this.scrs.size() + this.unread.size();
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* SCR ids are compared without regard to case. */
+    private static String key(String id) {
+        return id.toLowerCase();
+    }
+
+    /* Reads an SCR from the attached Storage. It predates every change
+     * counted, so it is stored at version 0. An id the Storage has no SCR for
+     * is dropped. If reading fails the id stays unread, so the Storage still
+     * keeps the SCR and the next caller tries again. */
+    private SCR read(String k) {
+        lock(k);
+        try {
+            SCR s = this.scrs.get(k);
+            if (s == null && this.unread.containsKey(k)) {
+                s = this.source.loadSCR(k);
+                if (s != null) {
+                    this.scrs.put(k, s);
+                    this.versions.put(k, Long.valueOf(0));
+                }
+                // only reached when the Storage answered, SCR or none
+                this.unread.remove(k);
+            }
+            return s;
+        } catch (IOException ioe) {
+            ioe.printStackTrace(System.err);
+            return null;
+        } finally {
+            unlock(k);
+        }
+    }
+
+    /* Reads every SCR not read yet. */
+    private void readAll() {
+        if (this.unread.isEmpty()) {
+            return;
+        }
+        Iterator<String> it = this.unread.keySet().iterator();
+        while (it.hasNext()) {
+            read(it.next());
+        }
+    }
+
+    /* Picks the lock guarding an SCR id. */
+    private ReentrantLock stripeFor(String id) {
+        int h = key(id).hashCode();
+        h ^= (h >>> 16);
+        return this.stripes[h & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,45 @@
+package qars.net;
+
+import java.util.ArrayList;
+
+/**
+ * <p>A copy of a table's contents taken at a given version. Once published a
+ * snapshot is never changed, so any number of clients may be sent the same
+ * list without copying it or holding a lock.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Snapshot<T> {
+    private long version;
+    private ArrayList<T> items;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Snapshot. The list must not be changed afterwards.
+     * @param version Version of the table the items were copied from.
+     * @param items Contents of the table.
+     */
+    public Snapshot(long version, ArrayList<T> items) {
+        this.version = version;
+        this.items = items;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return Version of the table the items were copied from.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the items in the snapshot. The list is shared and must be treated
+     * as read-only.
+     * @return Contents of the table at this version.
+     */
+    public ArrayList<T> getItems() {
+        return this.items;
+    }
+}
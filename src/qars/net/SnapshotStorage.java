@@ -0,0 +1,350 @@
+package qars.net;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import qars.util.Request;
+import qars.util.SCR;
+import qars.util.User;
+
+/**
+ * <p>Keeps the tables in a snapshot file written whole every so often, with
+ * a journal of the changes made since. Each change costs one short journal
+ * record, and the journal is folded into a new snapshot once it has grown or
+ * enough time has passed.</p>
+ *
+ * <p>Under write-behind there is no journal: a change is only counted, and
+ * the snapshot is written at most once an interval while anything is unsaved,
+ * so a burst of changes costs one write. Changes since the last snapshot are
+ * lost if the server is killed.</p>
+ *
+ * @author Jaren Belt
+ */
+public class SnapshotStorage implements Storage {
+    // name of the file the tables are saved to whole
+    private final String SNAPSHOT = System.getenv("SNAPSHOT") != null ?
+        System.getenv("SNAPSHOT") : "qars.snapshot";
+    // name of the journal of changes made since the lists were last saved
+    private final String JOURNAL = System.getenv("JOURNAL") != null ?
+        System.getenv("JOURNAL") : "qars.journal";
+    // when journal records are forced to disk: always, interval or none
+    private final String FSYNC = System.getenv("FSYNC") != null ?
+        System.getenv("FSYNC") : Journal.INTERVAL;
+    // milliseconds between forces for the interval policy
+    private final int FSYNCINTERVAL = System.getenv("FSYNCINTERVAL") != null ?
+        Integer.parseInt(System.getenv("FSYNCINTERVAL")) : 1000;
+    // seconds between compactions of the journal into the snapshot
+    private final int COMPACTINTERVAL =
+        System.getenv("COMPACTINTERVAL") != null ?
+        Integer.parseInt(System.getenv("COMPACTINTERVAL")) : 300;
+    // journal size in bytes that starts a compaction straight away
+    private final int COMPACTBYTES = System.getenv("COMPACTBYTES") != null ?
+        Integer.parseInt(System.getenv("COMPACTBYTES")) : 4 * 1024 * 1024;
+    // milliseconds between snapshots for the writebehind policy
+    private final int FLUSHINTERVAL = System.getenv("FLUSHINTERVAL") != null ?
+        Integer.parseInt(System.getenv("FLUSHINTERVAL")) : 2000;
+
+    private String dataDir;
+    private boolean writeBehind;           // count changes, never journal?
+    private LegacyFiles legacy;
+    private SCRTable scrs;
+    private RequestTable pending;
+    private Archive archive;
+    private volatile ArrayList<Request> transfer; // Requests being moved
+    private Checkpoint source;                 // unread SCRs are read here
+    private Journal journal;  // changes since the lists were saved, or null
+    private Durability durability;      // how far the snapshot lags behind
+    private ScheduledExecutorService compactor;  // writes the snapshot
+    private AtomicBoolean compactWaiting;   // is a compaction already queued?
+    private ReentrantLock compactLock;         // one compaction at a time
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new SnapshotStorage. Nothing is read until open is called.
+     * @param dataDir Directory for the files, ending with a separator.
+     * @param writeBehind true to write the snapshot on an interval instead
+     *                    of journaling each change.
+     */
+    public SnapshotStorage(String dataDir, boolean writeBehind) {
+        this.dataDir = dataDir;
+        this.writeBehind = writeBehind;
+        this.legacy = new LegacyFiles(dataDir);
+        this.durability = new Durability();
+        this.compactLock = new ReentrantLock();
+        this.compactWaiting = new AtomicBoolean(false);
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Reads the snapshot, or the legacy files if there is none yet, replays
+     * the journal over it and starts writing snapshots. A journal left from
+     * before write-behind was chosen is folded in too.
+     * @param scrs The empty SCR table.
+     * @param pending The empty Request table.
+     * @param archive The archive, to be told which SCRs are in it.
+     * @return The Requests put back from an unfinished transfer, or null.
+     * @throws IOException if what was saved cannot be read.
+     */
+    public ArrayList<Request> open(SCRTable scrs, RequestTable pending,
+                                   Archive archive) throws IOException {
+        this.scrs = scrs;
+        this.pending = pending;
+        this.archive = archive;
+        Checkpoint cp = loadSnapshot();
+        this.source = cp;
+        for (int i = 0; i < cp.getSCRs().size(); i++) {
+            scrs.put(cp.getSCRs().get(i));
+        }
+        // SCRs in an indexed snapshot are read when first asked for
+        scrs.attach(this, cp.getStored(), cp.getTouched());
+        archive.load(cp.getArchived());
+        for (int i = 0; i < cp.getPending().size(); i++) {
+            pending.put(cp.getPending().get(i));
+        }
+        this.journal = new Journal(this.dataDir + JOURNAL, FSYNC, FSYNCINTERVAL);
+        ArrayList<Journal.Entry> entries = this.journal.replay();
+        ArrayList<Request> undone = replay(cp.getTransfer(), entries);
+        if (entries.size() > 0 || undone != null || !cp.isIndexed()) {
+            compact();
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor();
+        if (this.writeBehind) {
+            this.journal.close();
+            this.journal = null;
+            this.compactor.scheduleWithFixedDelay(new Compactor(false),
+                FLUSHINTERVAL, FLUSHINTERVAL, TimeUnit.MILLISECONDS);
+        } else if (COMPACTINTERVAL > 0) {
+            this.compactor.scheduleWithFixedDelay(new Compactor(false),
+                COMPACTINTERVAL, COMPACTINTERVAL, TimeUnit.SECONDS);
+        }
+        return undone;
+    }
+
+    /**
+     * Reads an SCR left in the snapshot read at startup. Once the snapshot
+     * has been replaced the old file is still read until every SCR in it is.
+     * @param id Lower case SCR id.
+     * @return The SCR, or null if there is none.
+     * @throws IOException if the SCR cannot be read.
+     */
+    public SCR loadSCR(String id) throws IOException {
+        return this.source.load(id);
+    }
+
+    /**
+     * Records a change in the journal. If the journal cannot be written a
+     * snapshot is queued, since the change is already in the tables. Under
+     * write-behind the change is only counted and the snapshot is written
+     * later, except for a transfer: its files are moved straight away, so it
+     * is saved before this returns.
+     * @param type One of the Journal record types.
+     * @param o The object for that type; may be null.
+     * @throws IOException if the journal could not be written.
+     */
+    @SuppressWarnings("unchecked")
+    public void record(int type, Object o) throws IOException {
+        if (type == Journal.XFERSTART) {
+            this.transfer = new ArrayList<Request>((ArrayList<Request>) o);
+        } else if (type == Journal.XFERFINISH) {
+            this.transfer = null;
+        }
+        this.durability.changed();
+        if (this.journal == null) {
+            if (type == Journal.XFERSTART || type == Journal.XFERFINISH) {
+                flush();
+            }
+            return;
+        }
+        try {
+            this.journal.append(type, o);
+            if (this.journal.size() >= COMPACTBYTES &&
+                this.compactWaiting.compareAndSet(false, true)) {
+                this.compactor.execute(new Compactor(false));
+            }
+        } catch (IOException ioe) {
+            // a table stripe may be held here, so the snapshot is taken
+            // elsewhere
+            this.compactor.execute(new Compactor(true));
+            throw ioe;
+        }
+    }
+
+    /**
+     * Writes a snapshot of everything recorded so far.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public void flush() throws IOException {
+        if (!compact()) {
+            throw new IOException("Snapshot could not be written");
+        }
+    }
+
+    /**
+     * Reads the users file, the master list of users.
+     * @param refresh Ignored; the file is read every time.
+     * @return Every user.
+     * @throws IOException if the file cannot be read.
+     */
+    public ArrayList<User> loadUsers(boolean refresh) throws IOException {
+        return this.legacy.readUsers();
+    }
+
+    /**
+     * Describes the policy and how far the snapshot lags behind.
+     * @return One line per measure.
+     */
+    public ArrayList<String> getStatus() {
+        ArrayList<String> lines = new ArrayList<String>();
+        Journal j = this.journal;
+        lines.add("persist " + (this.writeBehind ? "writebehind every " +
+                  FLUSHINTERVAL + "ms" : "journal " + FSYNC +
+                  (j != null ? ", " + j.size() + " bytes" : "")));
+        lines.addAll(this.durability.getStatus());
+        return lines;
+    }
+
+    /**
+     * Writes a last snapshot and closes the journal. Anything the snapshot
+     * misses is still in the journal, and replaying the journal over the
+     * snapshot changes nothing else.
+     */
+    public void close() {
+        if (this.compactor != null) {
+            this.compactor.shutdown();
+        }
+        compact();
+        if (this.journal != null) {
+            this.journal.close();
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Applies journal records to the tables just loaded. A transfer that was
+     * started but never finished is undone, as shutdown would have done, and
+     * its Requests are returned. */
+    @SuppressWarnings("unchecked")
+    private ArrayList<Request> replay(ArrayList<Request> moving,
+                                      ArrayList<Journal.Entry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            Journal.Entry e = entries.get(i);
+            Object o = e.getObject();
+            switch (e.getType()) {
+                case Journal.SCRPUT:
+                    this.scrs.put((SCR) o);
+                    break;
+                case Journal.SCRDELETE:
+                    this.scrs.remove(new SCR((String) o, null));
+                    break;
+                case Journal.SCRARCHIVE:
+                    String[] moved = (String[]) o;
+                    this.scrs.remove(new SCR(moved[0], null));
+                    this.archive.moved(moved[0], moved[1]);
+                    break;
+                case Journal.RQSTPUT:
+                    this.pending.put((Request) o);
+                    break;
+                case Journal.RQSTDELETE:
+                    this.pending.remove(((Integer) o).intValue());
+                    break;
+                case Journal.XFERSTART:
+                    moving = (ArrayList<Request>) o;
+                    for (int j = 0; j < moving.size(); j++) {
+                        this.pending.remove(moving.get(j));
+                    }
+                    break;
+                case Journal.XFERFINISH:
+                    moving = null;
+                    break;
+            }
+        }
+        if (moving != null) {
+            for (int i = 0; i < moving.size(); i++) {
+                this.pending.put(moving.get(i));
+            }
+        }
+        return moving;
+    }
+
+    /* Writes the SCRs, pending Requests and transfer to the snapshot and
+     * drops the journal records it now holds. The journal is rotated before
+     * the tables are read, so every record set aside is already in them;
+     * changes made meanwhile go to the new journal and are replayed over the
+     * snapshot, which leaves it as it was. Nothing waits on this but another
+     * compaction, or a transfer under write-behind. Returns false if the
+     * snapshot could not be written. */
+    private boolean compact() {
+        this.compactLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            long upTo = this.durability.begin();
+            if (this.journal != null) {
+                this.journal.rotate();
+            }
+            ArrayList<Request> xfer = this.transfer;
+            // SCRs not read yet are copied from the old file as they are
+            ArrayList<String> unread = this.scrs.getUnread();
+            Checkpoint cp = new Checkpoint(this.scrs.loaded(),
+                this.pending.snapshot().getItems(),
+                (xfer != null ? new ArrayList<Request>(xfer) : null));
+            if (unread.size() > 0) {
+                cp.setStored(this.source, unread);
+            }
+            cp.setTouched(this.scrs.getTouched());
+            HashMap<String, String> cold = this.archive.getIndex();
+            cp.setArchived(cold);
+            cp.write(new java.io.File(this.dataDir + SNAPSHOT));
+            if (this.journal != null) {
+                this.journal.dropOld();
+            }
+            this.archive.prune(cold);
+            this.durability.saved(upTo, started);
+            return true;
+        } catch (IOException ioe) {
+            // the old journal is kept and folded in next time
+            this.durability.failed();
+            ioe.printStackTrace(System.err);
+            return false;
+        } finally {
+            this.compactLock.unlock();
+        }
+    }
+
+    /* Reads the snapshot, or the separate SCR and Request files written
+     * before there was one. */
+    private Checkpoint loadSnapshot() throws IOException {
+        java.io.File f = new java.io.File(this.dataDir + SNAPSHOT);
+        if (f.exists()) {
+            return Checkpoint.read(f);
+        }
+        return new Checkpoint(this.legacy.readSCRs(),
+                              this.legacy.readPending(), null);
+    }
+
+    // private classes ----------------------------------------------------
+
+    /**
+     * Folds the journal into the snapshot, or under write-behind writes
+     * whatever is unsaved.
+     */
+    private class Compactor implements Runnable {
+        private boolean always;            // even if the journal is empty?
+        public Compactor(boolean always) {
+            this.always = always;
+        }
+        public void run() {
+            compactWaiting.set(false);
+            if (this.always || (journal != null ? journal.size() > 0 :
+                                                  durability.isDirty())) {
+                compact();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package qars.net;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import qars.util.Request;
+import qars.util.SCR;
+import qars.util.User;
+
+/**
+ * <p>Where the ReleaseServer keeps its SCRs, Requests, Users and transfer
+ * across a restart. The server's tables are the working copy; a Storage is
+ * told of every change to them, one record at a time, using the record types
+ * of the Journal, and fills them back in when the server starts.</p>
+ *
+ * @author Jaren Belt
+ */
+public interface Storage {
+
+    /**
+     * Reads everything saved into the tables, recovering from a crash. SCRs
+     * may be attached unread, to be read later with loadSCR. A transfer that
+     * was started but never finished is undone: its Requests are put back in
+     * the pending table and recorded as pending again.
+     * @param scrs The empty SCR table.
+     * @param pending The empty Request table.
+     * @param archive The archive, to be told which SCRs are in it.
+     * @return The Requests put back from an unfinished transfer, or null.
+     * @throws IOException if what was saved cannot be read.
+     */
+    ArrayList<Request> open(SCRTable scrs, RequestTable pending,
+                            Archive archive) throws IOException;
+
+    /**
+     * Reads an SCR that open attached unread. Safe to call from any thread.
+     * @param id Lower case SCR id.
+     * @return The SCR, or null if there is none.
+     * @throws IOException if the SCR cannot be read.
+     */
+    SCR loadSCR(String id) throws IOException;
+
+    /**
+     * Records a change already made to the tables. Changes to one SCR or one
+     * Request are recorded in the order they are made.
+     * @param type One of the Journal record types.
+     * @param o The object for that type; may be null.
+     * @throws IOException if the change could not be recorded.
+     */
+    void record(int type, Object o) throws IOException;
+
+    /**
+     * Makes every change recorded so far durable before returning.
+     * @throws IOException if the changes could not be saved.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Reads the list of users allowed to use QARS.
+     * @param refresh true if the master list was just changed and must be
+     *                read again.
+     * @return Every user.
+     * @throws IOException if the users cannot be read.
+     */
+    ArrayList<User> loadUsers(boolean refresh) throws IOException;
+
+    /**
+     * Describes the Storage for a status report.
+     * @return One line per measure.
+     */
+    ArrayList<String> getStatus();
+
+    /**
+     * Saves anything outstanding and releases the files. Nothing may be
+     * recorded afterwards.
+     */
+    void close();
+}
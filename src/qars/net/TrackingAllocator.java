@@ -0,0 +1,145 @@
+package qars.net;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Hands out tracking numbers for connections and Requests. Numbers come
+ * from an atomic counter, and the file only ever records a high-water mark:
+ * a block of numbers is reserved by writing its end before any of them is
+ * handed out, so the file is written once per block rather than once per
+ * number. After a crash the counter starts again at the mark, which may
+ * skip the rest of a block but never repeats a number. If the mark cannot
+ * be written no number past the old one is handed out; the next call tries
+ * the file again.</p>
+ *
+ * @author Jaren Belt
+ */
+public class TrackingAllocator {
+    private java.io.File file;
+    private int block;
+    private AtomicInteger next;              // the next number handed out
+    private volatile int limit;            // first number not yet reserved
+    private volatile boolean closed;     // has the exact mark been written?
+    private ReentrantLock lock;                // guards limit and the file
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new TrackingAllocator, continuing from the number in the
+     * file and reserving the first block.
+     * @param path Name of the file holding the high-water mark.
+     * @param first Number to start from if there is no file yet.
+     * @param block How many numbers to reserve at a time.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public TrackingAllocator(String path, int first, int block)
+                             throws IOException {
+        this.file = new java.io.File(path);
+        this.block = Math.max(1, block);
+        this.lock = new ReentrantLock();
+        int start = first;
+        if (this.file.exists()) {
+            BufferedReader br = new BufferedReader(new FileReader(this.file));
+            try {
+                start = Integer.parseInt(br.readLine().trim());
+            } catch (NumberFormatException nfe) {
+                throw new IOException("Tracking number could not be read!");
+            } catch (NullPointerException npe) {
+                throw new IOException("Tracking number could not be read!");
+            } finally {
+                br.close();
+            }
+        }
+        this.closed = false;
+        this.next = new AtomicInteger(start);
+        this.limit = start + this.block;
+        writeMark(this.limit);
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Hands out the next tracking number. Only the first number of each
+     * block touches the file.
+     * @return A number never handed out before.
+     * @throws IOException if the number could not be reserved in the file;
+     * it is then not handed out at all.
+     */
+    public int next() throws IOException {
+        int id = this.next.getAndIncrement();
+        if (id < this.limit && !this.closed) {
+            return id;
+        }
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                // raced with close; cover this number as well
+                writeMark(Math.max(this.next.get(), id + 1));
+                return id;
+            }
+            while (id >= this.limit) {
+                int mark = Math.max(this.limit, id + 1) + this.block - 1;
+                // limit only moves once the mark is on disk
+                writeMark(mark);
+                this.limit = mark;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        return id;
+    }
+
+    /**
+     * Records the next unused number so a clean restart skips nothing.
+     * Numbers handed out afterwards each write the file again.
+     */
+    public void close() {
+        this.lock.lock();
+        try {
+            // set before the counter is read, so a number taken without the
+            // lock is either below the mark or sees the flag
+            this.closed = true;
+            writeMark(this.next.get());
+        } catch (IOException ioe) {
+            // the reserved mark is still in the file
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Replaces the file with a new mark, forced to disk along with the
+     * rename before the numbers under it are handed out. */
+    private void writeMark(int mark) throws IOException {
+        java.io.File tmp = new java.io.File(this.file.getPath() + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            fos.write(Integer.toString(mark).getBytes("US-ASCII"));
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(this.file)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + this.file);
+        }
+        // make the rename itself durable
+        try {
+            FileChannel dir = FileChannel.open(
+                this.file.getAbsoluteFile().getParentFile().toPath(),
+                StandardOpenOption.READ);
+            try {
+                dir.force(true);
+            } finally {
+                dir.close();
+            }
+        } catch (IOException ioe) {
+            // not every platform can open a directory; the rename stands
+        }
+    }
+}
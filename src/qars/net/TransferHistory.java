@@ -0,0 +1,355 @@
+package qars.net;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import qars.util.Transfer;
+import qars.util.TransferQuery;
+
+/**
+ * <p>Every transfer that has ended, kept in a file that is only ever added
+ * to. Each Transfer is one record with a checksum, forced to disk before
+ * add returns; a record cut short by a crash is dropped when the file is
+ * next opened.</p>
+ *
+ * <p>Where each record is in the file is indexed in memory by SCR, by
+ * requestor, by file name and by the time the transfer ended, so a query
+ * reads only the records it returns.</p>
+ *
+ * @author Jaren Belt
+ */
+public class TransferHistory {
+    // record header: length and checksum
+    private static final int HEADER = 8;
+
+    private java.io.File file;
+    private FileChannel channel;
+    private long end;                           // bytes of whole records
+    private ReentrantLock appendLock;                 // one add at a time
+    private ReentrantReadWriteLock indexLock;          // guards the indexes
+    private ArrayList<Long> all;                   // every record, in order
+    private TreeMap<Long, ArrayList<Long>> byTime;
+    private HashMap<String, ArrayList<Long>> bySCR;
+    private HashMap<String, ArrayList<Long>> byRequestor;
+    private HashMap<String, ArrayList<Long>> byFile;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Opens the history, indexing every record in it.
+     * @param path Name of the history file.
+     * @throws IOException if the file cannot be read or opened.
+     */
+    public TransferHistory(String path) throws IOException {
+        this.file = new java.io.File(path);
+        this.appendLock = new ReentrantLock();
+        this.indexLock = new ReentrantReadWriteLock();
+        this.all = new ArrayList<Long>();
+        this.byTime = new TreeMap<Long, ArrayList<Long>>();
+        this.bySCR = new HashMap<String, ArrayList<Long>>();
+        this.byRequestor = new HashMap<String, ArrayList<Long>>();
+        this.byFile = new HashMap<String, ArrayList<Long>>();
+        this.channel = FileChannel.open(this.file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            this.end = scan();
+        } catch (IOException ioe) {
+            this.channel.close();
+            throw ioe;
+        }
+        if (this.channel.size() > this.end) {
+            this.channel.truncate(this.end);
+        }
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Adds a Transfer to the end of the history and forces it to disk.
+     * @param t The Transfer that ended.
+     * @throws IOException if it could not be written.
+     */
+    public void add(Transfer t) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(4096);
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(t);
+        oos.close();
+        byte[] body = bos.toByteArray();
+        ByteBuffer bb = ByteBuffer.allocate(HEADER + body.length);
+        bb.putInt(body.length);
+        bb.putInt(checksum(body));
+        bb.put(body);
+        bb.flip();
+        this.appendLock.lock();
+        try {
+            long at = this.end;
+            long pos = at;
+            while (bb.hasRemaining()) {
+                pos += this.channel.write(bb, pos);
+            }
+            this.channel.force(false);
+            this.end = pos;
+            index(at, t);
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the transfers matching a query, newest first.
+     * @param q The query.
+     * @param limit Most transfers sent back, whatever the query asks for.
+     * @return At most the query's maximum of Transfers, and at most limit.
+     * @throws IOException if a record cannot be read.
+     */
+    public ArrayList<Transfer> query(TransferQuery q, int limit)
+                                     throws IOException {
+        int most = Math.min(q.getMax(), limit);
+        ArrayList<Long> found = new ArrayList<Long>();
+        this.indexLock.readLock().lock();
+        try {
+            // start from the fewest records an index gives, then keep those
+            // the other criteria allow
+            ArrayList<ArrayList<Long>> lists = new ArrayList<ArrayList<Long>>();
+            if (q.getSCR() != null) {
+                lists.add(lookup(this.bySCR, q.getSCR()));
+            }
+            if (q.getRequestor() != null) {
+                lists.add(lookup(this.byRequestor, q.getRequestor()));
+            }
+            if (q.getFile() != null) {
+                lists.add(lookup(this.byFile, q.getFile()));
+            }
+            if (q.getFrom() > 0 || q.getTo() > 0) {
+                lists.add(inRange(q.getFrom(), q.getTo()));
+            }
+            if (lists.isEmpty()) {
+                lists.add(this.all);
+            }
+            int fewest = 0;
+            for (int i = 1; i < lists.size(); i++) {
+                if (lists.get(i).size() < lists.get(fewest).size()) {
+                    fewest = i;
+                }
+            }
+            ArrayList<HashSet<Long>> others = new ArrayList<HashSet<Long>>();
+            for (int i = 0; i < lists.size(); i++) {
+                if (i != fewest) {
+                    others.add(new HashSet<Long>(lists.get(i)));
+                }
+            }
+            ArrayList<Long> start = lists.get(fewest);
+            for (int i = start.size() - 1;
+                 i >= 0 && found.size() < most; i--) {
+                Long at = start.get(i);
+                boolean keep = true;
+                for (int j = 0; j < others.size() && keep; j++) {
+                    keep = others.get(j).contains(at);
+                }
+                if (keep) {
+                    found.add(at);
+                }
+            }
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
+        ArrayList<Transfer> transfers = new ArrayList<Transfer>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            transfers.add(read(found.get(i).longValue()));
+        }
+        return transfers;
+    }
+
+    /**
+     * @return The number of transfers in the history.
+     */
+    public int size() {
+        this.indexLock.readLock().lock();
+        try {
+            return this.all.size();
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the file.
+     */
+    public void close() {
+        this.appendLock.lock();
+        try {
+            this.channel.close();
+        } catch (IOException ioe) {
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Indexes every whole record in the file and returns where the last one
+     * ends. A record that is whole but cannot be decoded is not damage, so
+     * it stops the scan instead. */
+    private long scan() throws IOException {
+        long good = 0;
+        long size = this.channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(this.file)));
+        try {
+            while (size - good >= HEADER) {
+                int length = in.readInt();
+                int crc = in.readInt();
+                if (length < 0 || length > size - good - HEADER) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (checksum(body) != crc) {
+                    break;
+                }
+                Transfer t;
+                try {
+                    t = decode(body);
+                } catch (IOException ioe) {
+                    throw new IOException(this.file + ": record at " + good +
+                        " could not be decoded (" + ioe.getMessage() + ")");
+                }
+                index(good, t);
+                good += HEADER + length;
+            }
+        } finally {
+            in.close();
+        }
+        return good;
+    }
+
+    /* Adds a record to every index. */
+    private void index(long at, Transfer t) {
+        Long key = Long.valueOf(at);
+        Long when = Long.valueOf(t.getFinished());
+        this.indexLock.writeLock().lock();
+        try {
+            this.all.add(key);
+            add(this.byTime, when, key);
+            ArrayList<String> ids = t.getSCRs();
+            for (int i = 0; i < ids.size(); i++) {
+                add(this.bySCR, ids.get(i).toLowerCase(), key);
+            }
+            ArrayList<String> who = t.getRequestors();
+            for (int i = 0; i < who.size(); i++) {
+                add(this.byRequestor, who.get(i).toLowerCase(), key);
+            }
+            ArrayList<String> names = t.getFileNames();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).toLowerCase();
+                add(this.byFile, name, key);
+                String last = lastPart(name);
+                if (!last.equals(name)) {
+                    add(this.byFile, last, key);
+                }
+            }
+        } finally {
+            this.indexLock.writeLock().unlock();
+        }
+    }
+
+    /* Records that a key is in a record, once. Records are added in order,
+     * so each list stays in the order of the file. */
+    private static <K> void add(Map<K, ArrayList<Long>> index,
+                                K key, Long at) {
+        ArrayList<Long> list = index.get(key);
+        if (list == null) {
+            list = new ArrayList<Long>(2);
+            index.put(key, list);
+        }
+        if (list.isEmpty() || !list.get(list.size() - 1).equals(at)) {
+            list.add(at);
+        }
+    }
+
+    /* The records a key is in; empty if none. */
+    private static ArrayList<Long> lookup(HashMap<String, ArrayList<Long>> index,
+                                          String key) {
+        ArrayList<Long> list = index.get(key.toLowerCase());
+        return (list != null ? list : new ArrayList<Long>());
+    }
+
+    /* The records that ended in a range, in the order of the file. */
+    private ArrayList<Long> inRange(long from, long to) {
+        ArrayList<Long> list = new ArrayList<Long>();
+        if (to > 0 && to <= from) {
+            // nothing ends before it begins; subMap would throw
+            return list;
+        }
+        Iterator<ArrayList<Long>> it = (to > 0 ?
+            this.byTime.subMap(Long.valueOf(from), Long.valueOf(to)) :
+            this.byTime.tailMap(Long.valueOf(from))).values().iterator();
+        while (it.hasNext()) {
+            list.addAll(it.next());
+        }
+        // end times need not rise through the file
+        Collections.sort(list);
+        return list;
+    }
+
+    /* Reads the record at an offset. */
+    private Transfer read(long at) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER);
+        readFully(head, at);
+        head.flip();
+        int length = head.getInt();
+        head.getInt();
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, at + HEADER);
+        return decode(body.array());
+    }
+
+    /* Fills a buffer from a position in the file. */
+    private void readFully(ByteBuffer bb, long at) throws IOException {
+        while (bb.hasRemaining()) {
+            if (this.channel.read(bb, at + bb.position()) < 0) {
+                throw new EOFException("Record past end of " + this.file);
+            }
+        }
+    }
+
+    /* Deserializes a record's body. */
+    private static Transfer decode(byte[] body) throws IOException {
+        ObjectInputStream ois =
+            new ObjectInputStream(new ByteArrayInputStream(body));
+        try {
+            return (Transfer) ois.readObject();
+        } catch (ClassNotFoundException cnfe) {
+            throw new IOException("Unrecognized class " + cnfe.getMessage());
+        } catch (ClassCastException cce) {
+            throw new IOException("Unrecognized class");
+        } finally {
+            ois.close();
+        }
+    }
+
+    /* The part of a file name after its last directory. */
+    private static String lastPart(String name) {
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+        return name.substring(slash + 1);
+    }
+
+    /* Checksum of a record's body. */
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+}
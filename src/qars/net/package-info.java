@@ -1,5 +1,5 @@
-/**
- * Network classes for QA Release Process. Contains classes for creating server
- * and client sockets.
- */
+/**
+ * Network classes for QA Release Process. Contains classes for creating server
+ * and client sockets.
+ */
 package qars.net;
\ No newline at end of file
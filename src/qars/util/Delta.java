@@ -0,0 +1,129 @@
+package qars.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * <p>The changes made to one of the ReleaseServer's lists since a version the
+ * client already has. A client sends a Delta holding only its last epoch and
+ * version, and the server answers with the items added or updated and the keys
+ * of the items deleted after that version.</p>
+ *
+ * <p>When the server can no longer tell what changed, because it has been
+ * restarted or has forgotten old deletions, the answer is full: it holds every
+ * item and the client should discard what it had.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Delta<T> implements Serializable {
+    public static final long serialVersionUID = 528884723;
+
+    private long epoch;
+    private long version;
+    private boolean full;
+    private ArrayList<T> changed;
+    private ArrayList<Object> removed;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a request for the changes made after a version. A client that
+     * has nothing yet should ask for version 0 of epoch 0.
+     * @param epoch Epoch of the last Delta received.
+     * @param version Version of the last Delta received.
+     */
+    public Delta(long epoch, long version) {
+        this(epoch, version, false, new ArrayList<T>(), new ArrayList<Object>());
+    }
+
+    /**
+     * Creates a Delta holding changes.
+     * @param epoch Identifies the server instance the versions belong to.
+     * @param version Version of the list once these changes are applied.
+     * @param full true if changed holds every item in the list.
+     * @param changed Items added or updated.
+     * @param removed Keys of items deleted.
+     */
+    public Delta(long epoch, long version, boolean full, ArrayList<T> changed,
+                 ArrayList<Object> removed) {
+        this.epoch = epoch;
+        this.version = version;
+        this.full = full;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return Identifies the server instance the version belongs to.
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * @return Version of the list once these changes are applied.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return true if the client should discard its copy before applying.
+     */
+    public boolean isFull() {
+        return this.full;
+    }
+
+    /**
+     * @return Items added or updated.
+     */
+    public ArrayList<T> getChanged() {
+        return this.changed;
+    }
+
+    /**
+     * Gets the keys of deleted items. SCRs are keyed by their lower case id
+     * and Requests by their Integer tracking number.
+     * @return Keys of items deleted.
+     */
+    public ArrayList<Object> getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * Writes this Delta in the compact binary form.
+     * @param w Writer for the message being built.
+     * @throws IOException if the Delta cannot be written.
+     */
+    public void writeWire(WireWriter w) throws IOException {
+        w.writeLong(this.epoch);
+        w.writeLong(this.version);
+        w.writeBits(this.full ? 1 : 0);
+        w.writeValue(this.changed);
+        w.writeValue(this.removed);
+    }
+
+    /**
+     * Reads a Delta written by writeWire.
+     * @param r Reader for the message.
+     * @return The Delta.
+     * @throws IOException if the message is not valid.
+     */
+    @SuppressWarnings("unchecked")
+    public static Delta<Object> readWire(WireReader r) throws IOException {
+        long epoch = r.readLong();
+        long version = r.readLong();
+        boolean full = (r.readBits() & 1) != 0;
+        Object changed = r.readValue();
+        Object removed = r.readValue();
+        if (!(changed instanceof ArrayList) || !(removed instanceof ArrayList)) {
+            throw new IOException("Expected lists in Delta");
+        }
+        return new Delta<Object>(epoch, version, full,
+                                 (ArrayList<Object>) changed,
+                                 (ArrayList<Object>) removed);
+    }
+}
@@ -1,309 +1,612 @@
-package qars.util;
-
-import java.io.Serializable;
-import java.util.HashMap;
-import qars.gui.Displayable;
-
-/**
- * <p>A release file has source and destination information, name, size and
- * category.</p>
- * 
- * @author Jaren Belt
- */
-public class File implements Serializable, Displayable {
-    // public constants
-    /** File name */
-    public static final String FN = "File Name";
-    /** Include the file */
-    public static final String IN = "Include";
-    /** File's source directory */
-    public static final String SC = "Source";
-    /** File's destination directory */
-    public static final String DN = "Destination";
-    /** File's size */
-    public static final String SZ = "Size";
-    /** File's category */
-    public static final String CT = "Category";
-    /** Is the file a WebSpeed file? */
-    public static final String WS = "WebSpeed";
-    /** Is the file an Async file? */
-    public static final String AS = "Async";
-    /** Is the file a Host file? */
-    public static final String HS = "Host";
-    /** Run the file */
-    public static final String RN = "Run";
-    /** Number of files pointing to this file. */
-    public static final String RF = "Reference";
-    /** Is the file a directory? */
-    public static final String DR = "Directory";
-    
-    public static final long serialVersionUID = 81020374400156184L;
-    
-    // private instance variables
-    private HashMap<String, Object> objects;   // object version of attributes
-    private java.util.ArrayList<File> impact;  // files impacted by this File
-    private java.util.ArrayList<File> parents; // parent Files
-    
-    // constructors -------------------------------------------------------
-    
-    /**
-     * Creates a new File with category.
-     * @see #File(String, long, int)
-     */
-    public File(int category) {
-        this("", 0, category);
-    }
-    
-    /**
-     * Creates a new File with given name and category, but no size.
-     * @see #File(String, long, int)
-     */
-    public File(String fileName, int category) {
-        this(fileName, 0, category);
-    }
-    
-    /**
-     * Creates a new File with given name, size, and category.
-     * @param fileName Name of the file without path information.
-     * @param size Size in bytes.
-     * @param category User-defined category.
-     */
-    public File(String fileName, long size, int category) {
-        this.objects = new HashMap<String, Object>();
-        this.objects.put(FN, fileName);
-        this.objects.put(IN, new Boolean(false));
-        this.objects.put(SC, "");
-        this.objects.put(DN, "");
-        this.objects.put(SZ, new Long(size));
-        this.objects.put(CT, new Integer(category));
-        this.objects.put(WS, new Boolean(false));
-        this.objects.put(AS, new Boolean(false));
-        this.objects.put(RN, new Boolean(false));
-        this.objects.put(DR, new Boolean(false));
-        this.objects.put(HS, new Boolean(true));
-        this.impact = new java.util.ArrayList<File>();
-        this.parents = new java.util.ArrayList<File>();
-        this.objects.put(RF, new Integer(0));
-    }
-    
-    // public methods -----------------------------------------------------
-    
-    /**
-     * Two files are equal if they have the same name.
-     * @param o Another File object.
-     * @return true if both Files have the same name.
-     */
-    public boolean equals(Object o) {
-        boolean doEqual = false;
-        if (o instanceof File) {
-            String fn1 = (String) this.query(FN);
-            String fn2 = (String) ((File) o).query(FN);
-            doEqual = fn1.equals(fn2);
-        }
-        return doEqual;
-    }
-    
-    /**
-     * Compares two Files based on name.
-     * @param f2 Another file object.
-     * @return A positive integer if this File should follow f2, a negative
-     * integer if this File should come before f2, and 0 if they are the same.
-     */
-    public int compareTo(Displayable f2) {
-        String fn1 = (String) this.query(FN);
-        String fn2 = (String) ((File) f2).query(FN);
-        return fn1.compareTo(fn2);
-    }
-    
-    /**
-     * Provides an exact copy of this File.
-     * @return A copy of this File.
-     */
-    public Displayable clone() {
-        String fn = (String) this.query(FN);
-        long size = ((Long) this.query(SZ)).longValue();
-        int category = ((Integer) this.query(CT)).intValue();
-        File f = new File(fn, size, category);
-        f.setValue(SC, new String((String) this.query(SC)));
-        f.setValue(DN, new String((String) this.query(DN)));
-        f.setValue(WS, new Boolean(((Boolean) this.query(WS)).booleanValue()));
-        f.setValue(AS, new Boolean(((Boolean) this.query(AS)).booleanValue()));
-        f.setValue(IN, new Boolean(((Boolean) this.query(IN)).booleanValue()));
-        f.setValue(RN, new Boolean(((Boolean) this.query(RN)).booleanValue()));
-        f.setValue(RF, new Integer(((Integer) this.query(RF)).intValue()));
-        f.setValue(DR, new Boolean(((Boolean) this.query(DR)).booleanValue()));
-        f.setValue(HS, new Boolean(((Boolean) this.query(HS)).booleanValue()));
-        for (int i = 0; i < this.impact.size(); i++) {
-            // don't want to clone it, need to retain reference
-            f.addImpact(this.impact.get(i));
-        }
-        if (this.parents == null) {
-            this.parents = new java.util.ArrayList<File>();
-        } else {
-            for (int i = 0; i < this.parents.size(); i++) {
-                f.addParent(this.parents.get(i));
-            }
-        }
-        return f;
-    }
-    
-    /**
-     * Retrieves the files impacted by this file if there are any.
-     * @return An array containing all files impacted or null if no files.
-     */
-    public File[] getImpactList() {
-        File[] list = null;
-        if (!this.impact.isEmpty()) {
-            list = new File[this.impact.size()];
-            for (int i = 0; i < this.impact.size(); i++) {
-                list[i] = this.impact.get(i);
-            }
-        }
-        return list;
-    }
-    
-    /**
-     * Adds a file to the impact list.
-     * @param im File impacted by this File.
-     * @return true if successful, false if already in list.
-     */
-    public boolean addImpact(File im) {
-        boolean success = false;
-        if (this.impact.indexOf(im) < 0) {
-            this.impact.add(im);
-            success = true;
-        }
-        return success;
-    }
-    
-    /**
-     * Adds a parent to the impact file.
-     * @param parent File acting as parent to this File.
-     * @return true if successful, false if already in list or this File is
-     * not an impacted file */
-    public boolean addParent(File parent) {
-        boolean success = false;
-        if (this.parents.indexOf(parent) < 0) {
-            Integer cat = (Integer) this.query(CT);
-            if (cat.intValue() == SCR.IMPACT) {
-                this.parents.add(parent);
-                success = true;
-            }
-        }
-        return success;
-    }
-    
-    /**
-     * Removes a file from the impact list.
-     * @param im File to be removed.
-     * @return true if successful, false if not in the list.
-     */
-    public boolean removeImpact(File im) {
-        return this.impact.remove(im);
-    }
-    
-    /**
-     * Removes a parent file from the parent list.
-     * @param parent File to be removed.
-     * @return true if successful, false if not in the list or this File is
-     * not an impacted file */
-    public boolean removeParent(File parent) {
-        boolean success = false;
-        Integer cat = (Integer) this.query(CT);
-        if (cat.intValue() == SCR.IMPACT && this.parents.indexOf(parent) >= 0) {
-            success = this.parents.remove(parent);
-        }
-        return success;
-    }       
-    
-    /**
-     * Adds or removes a reference to this File.
-     * @param diff 1 to add or -1 to subtract.
-     * @return The number of references for this File.
-     */
-    public int reference(int diff) {
-        int numRef = ((Integer) this.query(RF)).intValue();
-        numRef += diff;
-        if (numRef >= 0) {
-            this.objects.put(RF, new Integer(numRef));
-        } else {
-            numRef = 0;
-        }
-        return numRef;
-    }
-    
-    /**
-     * Gets the number of references to this File.
-     * @return Number of files pointing to this File.
-     */
-    public int getRef() {
-        return ((Integer) this.query(RF)).intValue();
-    }
-    
-    /**
-     * Gets the number of parents for this File.
-     * @return Number of parents.
-     */
-    public int getNumParents() {
-        return this.parents.size();
-    }
-    
-    /**
-     * Sets an attribute of this File.
-     * @param key The key for the attribute being changed.
-     * @param obj The new value for the attribute.
-     * @return true if operation succeeds.
-     */
-    public boolean setValue(String key, Object obj) {
-        boolean success = this.objects.containsKey(key);
-        if (success) {
-            success = false;
-            // check type
-            if ((key.equals(FN) || key.equals(SC) || key.equals(DN)) &&
-                obj instanceof String) {
-                success = true;
-            } else if ((key.equals(IN) || key.equals(WS) || key.equals(AS) ||
-                        key.equals(RN) || key.equals(DR) || key.equals(HS)) && 
-                       obj instanceof Boolean) {
-                success = true;
-            } else if ((key.equals(CT) || key.equals(RF)) && 
-                       obj instanceof Integer) {
-                success = true;
-            } else if (key.equals(SZ) && obj instanceof Long) {
-                success = true;
-            }
-            if (success) {
-                this.objects.put(key, obj);
-            }
-        }
-        return success;
-    }
-    
-    /**
-     * Retrieves the object version of an attribute.
-     * @param key The key for the attribute being returned.
-     * @return The object version of the attribute requested or null if the key
-     * does not exist.
-     */
-    public Object query(String key) {
-        Object retVal = null;
-        if (this.objects.containsKey(key)) {
-            retVal = this.objects.get(key);
-            if (retVal instanceof Boolean && key.equals(IN)) {
-                Integer cat = (Integer) this.query(CT);
-                if (cat.intValue() == qars.util.SCR.IMPACT) {
-                    Integer ref = (Integer) this.query(RF);
-                    retVal = new Boolean(ref.intValue() > 0);
-                }
-            }
-        }
-        return retVal;
-    }
-    
-    /**
-     * Returns the name of the file.
-     */
-    public String toString() {
-        return (String) this.objects.get(FN);
-    }
-}
+package qars.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import qars.gui.Displayable;
+
+/**
+ * <p>A release file has source and destination information, name, size and
+ * category.</p>
+ *
+ * <p>Attributes are kept in typed fields, the flags in the bits of one int.
+ * query and setValue find them through a table of slots shared by every
+ * File, so a File carries no map of its own. The source and destination
+ * directories are held as their numbers in the PathDictionary.</p>
+ * 
+ * @author Jaren Belt
+ */
+public class File implements Serializable, Displayable {
+    // public constants
+    /** File name */
+    public static final String FN = "File Name";
+    /** Include the file */
+    public static final String IN = "Include";
+    /** File's source directory */
+    public static final String SC = "Source";
+    /** File's destination directory */
+    public static final String DN = "Destination";
+    /** File's size */
+    public static final String SZ = "Size";
+    /** File's category */
+    public static final String CT = "Category";
+    /** Is the file a WebSpeed file? */
+    public static final String WS = "WebSpeed";
+    /** Is the file an Async file? */
+    public static final String AS = "Async";
+    /** Is the file a Host file? */
+    public static final String HS = "Host";
+    /** Run the file */
+    public static final String RN = "Run";
+    /** Number of files pointing to this file. */
+    public static final String RF = "Reference";
+    /** Is the file a directory? */
+    public static final String DR = "Directory";
+    
+    // flag bits, for getFlags and the bulk flag methods
+    /** Bit of the Include flag. */
+    public static final int IN_BIT = 1;
+    /** Bit of the WebSpeed flag. */
+    public static final int WS_BIT = 2;
+    /** Bit of the Async flag. */
+    public static final int AS_BIT = 4;
+    /** Bit of the Run flag. */
+    public static final int RN_BIT = 8;
+    /** Bit of the Directory flag. */
+    public static final int DR_BIT = 16;
+    /** Bit of the Host flag. */
+    public static final int HS_BIT = 32;
+    /** Every flag bit. */
+    public static final int ALL_BITS = 63;
+    
+    public static final long serialVersionUID = 81020374400156184L;
+    
+    // the serialized form is still the map of attributes and the lists older
+    // builds read; the directories are named in it, since their numbers are
+    // only good in this process
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("objects", HashMap.class),
+        new ObjectStreamField("impact", ArrayList.class),
+        new ObjectStreamField("parents", ArrayList.class)};
+    
+    // attribute slots; a flag's slot less FLAGS is its bit position, which
+    // is also its bit in the wire form
+    private static final int NAME = 0;
+    private static final int SOURCE = 1;
+    private static final int DEST = 2;
+    private static final int SIZE = 3;
+    private static final int CATEGORY = 4;
+    private static final int REFS = 5;
+    private static final int FLAGS = 6;             // first flag slot
+    
+    // key and type of every slot, shared by all Files
+    private static final String[] KEYS = {FN, SC, DN, SZ, CT, RF,
+                                          IN, WS, AS, RN, DR, HS};
+    private static final Class<?>[] TYPES = {
+        String.class, String.class, String.class, Long.class, Integer.class,
+        Integer.class, Boolean.class, Boolean.class, Boolean.class,
+        Boolean.class, Boolean.class, Boolean.class};
+    private static final HashMap<String, Integer> SLOTS =
+        new HashMap<String, Integer>();
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            SLOTS.put(KEYS[i], Integer.valueOf(i));
+        }
+    }
+    private static final File[] NONE = new File[0];
+    
+    // private instance variables
+    private String name;
+    private int source;                 // directory numbers in PathDictionary
+    private int destination;
+    private long size;
+    private int category;
+    private int refs;                   // number of files pointing to this
+    private int flags;                         // one bit per flag slot
+    private File[] impact;   // files impacted by this File, copied on change
+    private File[] parents;           // parent Files, copied on change
+    
+    // constructors -------------------------------------------------------
+    
+    /**
+     * Creates a new File with category.
+     * @see #File(String, long, int)
+     */
+    public File(int category) {
+        this("", 0, category);
+    }
+    
+    /**
+     * Creates a new File with given name and category, but no size.
+     * @see #File(String, long, int)
+     */
+    public File(String fileName, int category) {
+        this(fileName, 0, category);
+    }
+    
+    /**
+     * Creates a new File with given name, size, and category.
+     * @param fileName Name of the file without path information.
+     * @param size Size in bytes.
+     * @param category User-defined category.
+     */
+    public File(String fileName, long size, int category) {
+        this.name = fileName;
+        this.source = PathDictionary.intern("");
+        this.destination = this.source;
+        this.size = size;
+        this.category = category;
+        this.flags = HS_BIT;
+        this.impact = NONE;
+        this.parents = NONE;
+    }
+    
+    // public methods -----------------------------------------------------
+    
+    /**
+     * Two files are equal if they have the same name.
+     * @param o Another File object.
+     * @return true if both Files have the same name.
+     */
+    public boolean equals(Object o) {
+        boolean doEqual = false;
+        if (o instanceof File) {
+            doEqual = this.name.equals(((File) o).name);
+        }
+        return doEqual;
+    }
+    
+    /**
+     * Compares two Files based on name.
+     * @param f2 Another file object.
+     * @return A positive integer if this File should follow f2, a negative
+     * integer if this File should come before f2, and 0 if they are the same.
+     */
+    public int compareTo(Displayable f2) {
+        return this.name.compareTo(((File) f2).name);
+    }
+    
+    /**
+     * Provides an exact copy of this File.
+     * @return A copy of this File.
+     */
+    public Displayable clone() {
+        File f = new File(this.name, this.size, this.category);
+        f.source = this.source;
+        f.destination = this.destination;
+        f.flags = this.flags;
+        f.refs = this.refs;
+        // don't want to clone the Files, need to retain reference; the
+        // arrays are never changed in place so they can be shared
+        f.impact = this.impact;
+        if (this.category == SCR.IMPACT) {
+            f.parents = this.parents;
+        }
+        return f;
+    }
+    
+    /**
+     * Retrieves the files impacted by this file if there are any.
+     * @return An array containing all files impacted or null if no files.
+     */
+    public File[] getImpactList() {
+        File[] list = null;
+        if (this.impact.length > 0) {
+            list = this.impact.clone();
+        }
+        return list;
+    }
+    
+    /**
+     * Adds a file to the impact list.
+     * @param im File impacted by this File.
+     * @return true if successful, false if already in list.
+     */
+    public boolean addImpact(File im) {
+        boolean success = false;
+        if (indexOf(this.impact, im) < 0) {
+            this.impact = with(this.impact, im);
+            success = true;
+        }
+        return success;
+    }
+    
+    /**
+     * Adds a parent to the impact file.
+     * @param parent File acting as parent to this File.
+     * @return true if successful, false if already in list or this File is
+     * not an impacted file */
+    public boolean addParent(File parent) {
+        boolean success = false;
+        if (indexOf(this.parents, parent) < 0 &&
+            this.category == SCR.IMPACT) {
+            this.parents = with(this.parents, parent);
+            success = true;
+        }
+        return success;
+    }
+    
+    /**
+     * Removes a file from the impact list.
+     * @param im File to be removed.
+     * @return true if successful, false if not in the list.
+     */
+    public boolean removeImpact(File im) {
+        int i = indexOf(this.impact, im);
+        if (i >= 0) {
+            this.impact = without(this.impact, i);
+        }
+        return i >= 0;
+    }
+    
+    /**
+     * Removes a parent file from the parent list.
+     * @param parent File to be removed.
+     * @return true if successful, false if not in the list or this File is
+     * not an impacted file */
+    public boolean removeParent(File parent) {
+        boolean success = false;
+        int i = indexOf(this.parents, parent);
+        if (this.category == SCR.IMPACT && i >= 0) {
+            this.parents = without(this.parents, i);
+            success = true;
+        }
+        return success;
+    }       
+    
+    /**
+     * Adds or removes a reference to this File.
+     * @param diff 1 to add or -1 to subtract.
+     * @return The number of references for this File.
+     */
+    public int reference(int diff) {
+        int numRef = this.refs + diff;
+        if (numRef >= 0) {
+            this.refs = numRef;
+        } else {
+            numRef = 0;
+        }
+        return numRef;
+    }
+    
+    /**
+     * Gets the number of references to this File.
+     * @return Number of files pointing to this File.
+     */
+    public int getRef() {
+        return this.refs;
+    }
+    
+    /**
+     * Gets the number of parents for this File.
+     * @return Number of parents.
+     */
+    public int getNumParents() {
+        return this.parents.length;
+    }
+    
+    /**
+     * Sets an attribute of this File.
+     * @param key The key for the attribute being changed.
+     * @param obj The new value for the attribute.
+     * @return true if operation succeeds.
+     */
+    public boolean setValue(String key, Object obj) {
+        Integer slot = SLOTS.get(key);
+        boolean success = (slot != null &&
+                           TYPES[slot.intValue()].isInstance(obj));
+        if (success) {
+            switch (slot.intValue()) {
+                case NAME:
+                    this.name = (String) obj;
+                    break;
+                case SOURCE:
+                    this.source = PathDictionary.intern((String) obj);
+                    break;
+                case DEST:
+                    this.destination = PathDictionary.intern((String) obj);
+                    break;
+                case SIZE:
+                    this.size = ((Long) obj).longValue();
+                    break;
+                case CATEGORY:
+                    this.category = ((Integer) obj).intValue();
+                    break;
+                case REFS:
+                    this.refs = ((Integer) obj).intValue();
+                    break;
+                default:
+                    int bit = 1 << (slot.intValue() - FLAGS);
+                    if (((Boolean) obj).booleanValue()) {
+                        this.flags |= bit;
+                    } else {
+                        this.flags &= ~bit;
+                    }
+                    break;
+            }
+        }
+        return success;
+    }
+    
+    /**
+     * Retrieves the object version of an attribute.
+     * @param key The key for the attribute being returned.
+     * @return The object version of the attribute requested or null if the key
+     * does not exist.
+     */
+    public Object query(String key) {
+        Integer slot = SLOTS.get(key);
+        if (slot == null) {
+            return null;
+        }
+        switch (slot.intValue()) {
+            case NAME:
+                return this.name;
+            case SOURCE:
+                return PathDictionary.get(this.source);
+            case DEST:
+                return PathDictionary.get(this.destination);
+            case SIZE:
+                return Long.valueOf(this.size);
+            case CATEGORY:
+                return Integer.valueOf(this.category);
+            case REFS:
+                return Integer.valueOf(this.refs);
+            case FLAGS:
+                return Boolean.valueOf(isIncluded());
+            default:
+                return Boolean.valueOf(
+                    (this.flags & (1 << (slot.intValue() - FLAGS))) != 0);
+        }
+    }
+    
+    /**
+     * Whether the file is included. An impacted file is included while any
+     * file refers to it.
+     * @return The Include flag, without the cost of query.
+     */
+    public boolean isIncluded() {
+        if (this.category == SCR.IMPACT) {
+            return this.refs > 0;
+        }
+        return (this.flags & IN_BIT) != 0;
+    }
+    
+    /**
+     * @return The Run flag, without the cost of query.
+     */
+    public boolean isRun() {
+        return (this.flags & RN_BIT) != 0;
+    }
+    
+    /**
+     * @return The WebSpeed flag, without the cost of query.
+     */
+    public boolean isWebSpeed() {
+        return (this.flags & WS_BIT) != 0;
+    }
+    
+    /**
+     * @return The Async flag, without the cost of query.
+     */
+    public boolean isAsync() {
+        return (this.flags & AS_BIT) != 0;
+    }
+    
+    /**
+     * @return The Host flag, without the cost of query.
+     */
+    public boolean isHost() {
+        return (this.flags & HS_BIT) != 0;
+    }
+    
+    /**
+     * @return The Directory flag, without the cost of query.
+     */
+    public boolean isDirectory() {
+        return (this.flags & DR_BIT) != 0;
+    }
+    
+    /**
+     * Gets every flag at once. The Include bit is as stored, even for an
+     * impacted file.
+     * @return The flags as the _BIT constants.
+     */
+    public int getFlags() {
+        return this.flags;
+    }
+    
+    /**
+     * Sets several flags at once.
+     * @param bits The flags to set, as _BIT constants or'ed together.
+     */
+    public void setFlags(int bits) {
+        this.flags |= (bits & ALL_BITS);
+    }
+    
+    /**
+     * Clears several flags at once.
+     * @param bits The flags to clear, as _BIT constants or'ed together.
+     */
+    public void clearFlags(int bits) {
+        this.flags &= ~bits;
+    }
+    
+    /**
+     * Tests several flags at once.
+     * @param bits The flags to test, as _BIT constants or'ed together.
+     * @return true if any of them is set.
+     */
+    public boolean anyFlag(int bits) {
+        return (this.flags & bits) != 0;
+    }
+    
+    /**
+     * Returns the name of the file.
+     */
+    public String toString() {
+        return this.name;
+    }
+    
+    /**
+     * Writes this File in the compact binary form.
+     * @param w Writer for the message being built.
+     * @throws IOException if the File cannot be written.
+     */
+    public void writeWire(WireWriter w) throws IOException {
+        w.writeString(this.name);
+        w.writeLong(this.size);
+        w.writeInt(this.category);
+        w.writeString(PathDictionary.get(this.source));
+        w.writeString(PathDictionary.get(this.destination));
+        w.writeBits(this.flags);
+        w.writeInt(this.refs);
+        w.writeCount(this.impact.length);
+        for (int i = 0; i < this.impact.length; i++) {
+            w.writeValue(this.impact[i]);
+        }
+        w.writeCount(this.parents.length);
+        for (int i = 0; i < this.parents.length; i++) {
+            w.writeValue(this.parents[i]);
+        }
+    }
+    
+    /**
+     * Reads a File written by writeWire.
+     * @param r Reader for the message.
+     * @return The File.
+     * @throws IOException if the message is not valid.
+     */
+    public static File readWire(WireReader r) throws IOException {
+        String fn = r.readString();
+        long size = r.readLong();
+        int category = r.readInt();
+        File f = new File(fn, size, category);
+        r.register(f);
+        f.source = PathDictionary.intern(r.readString());
+        f.destination = PathDictionary.intern(r.readString());
+        f.flags = r.readBits() & ALL_BITS;
+        f.refs = r.readInt();
+        int n = r.readLength();
+        if (n > 0) {
+            f.impact = new File[n];
+            for (int i = 0; i < n; i++) {
+                f.impact[i] = r.readFile();
+            }
+        }
+        n = r.readLength();
+        if (n > 0) {
+            f.parents = new File[n];
+            for (int i = 0; i < n; i++) {
+                f.parents[i] = r.readFile();
+            }
+        }
+        return f;
+    }
+    
+    // private methods ----------------------------------------------------
+    
+    /* Writes the serialized File in the form it had when the attributes were
+     * kept in a map, so older builds and the tools reading the exported
+     * files still read it. Every File names its directories with the same
+     * Strings, so the stream holds each only once. */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        HashMap<String, Object> objects = new HashMap<String, Object>();
+        for (int i = 0; i < KEYS.length; i++) {
+            objects.put(KEYS[i], query(KEYS[i]));
+        }
+        // the Include flag as stored, not as an impacted file reports it
+        objects.put(IN, Boolean.valueOf((this.flags & IN_BIT) != 0));
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("objects", objects);
+        fields.put("impact",
+                   new ArrayList<File>(Arrays.asList(this.impact)));
+        fields.put("parents",
+                   new ArrayList<File>(Arrays.asList(this.parents)));
+        out.writeFields();
+    }
+    
+    /* Reads a serialized File, either in the map form written now or in the
+     * typed form some earlier builds wrote. */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        ObjectStreamClass written = fields.getObjectStreamClass();
+        if (written.getField("objects") != null) {
+            HashMap<String, Object> objects =
+                (HashMap<String, Object>) fields.get("objects", null);
+            this.source = PathDictionary.intern("");
+            this.destination = this.source;
+            this.flags = HS_BIT;
+            if (objects != null) {
+                for (int i = 0; i < KEYS.length; i++) {
+                    if (objects.containsKey(KEYS[i])) {
+                        setValue(KEYS[i], objects.get(KEYS[i]));
+                    }
+                }
+            }
+            this.impact = toArray((ArrayList<File>) fields.get("impact", null));
+            this.parents =
+                toArray((ArrayList<File>) fields.get("parents", null));
+        } else {
+            this.name = (String) fields.get("name", null);
+            this.source =
+                PathDictionary.intern((String) fields.get("source", ""));
+            this.destination =
+                PathDictionary.intern((String) fields.get("destination", ""));
+            this.size = fields.get("size", 0L);
+            this.category = fields.get("category", 0);
+            this.refs = fields.get("refs", 0);
+            this.flags = fields.get("flags", 0);
+            this.impact = (File[]) fields.get("impact", null);
+            this.parents = (File[]) fields.get("parents", null);
+        }
+        if (this.impact == null || this.impact.length == 0) {
+            this.impact = NONE;
+        }
+        if (this.parents == null || this.parents.length == 0) {
+            this.parents = NONE;
+        }
+    }
+    
+    /* The Files of an old list, or none. */
+    private static File[] toArray(ArrayList<File> list) {
+        return (list == null ? NONE : list.toArray(new File[list.size()]));
+    }
+    
+    /* Where an equal File is in an array, or -1. */
+    private static int indexOf(File[] files, File f) {
+        for (int i = 0; i < files.length; i++) {
+            if (f == null ? files[i] == null : f.equals(files[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /* A copy of an array with a File added to the end. */
+    private static File[] with(File[] files, File f) {
+        File[] more = new File[files.length + 1];
+        System.arraycopy(files, 0, more, 0, files.length);
+        more[files.length] = f;
+        return more;
+    }
+    
+    /* A copy of an array without the File at an index. */
+    private static File[] without(File[] files, int i) {
+        if (files.length == 1) {
+            return NONE;
+        }
+        File[] fewer = new File[files.length - 1];
+        System.arraycopy(files, 0, fewer, 0, i);
+        System.arraycopy(files, i + 1, fewer, i, files.length - i - 1);
+        return fewer;
+    }
+}
@@ -0,0 +1,101 @@
+package qars.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * <p>A change pushed by the ReleaseServer to every subscribed client. Notices
+ * are kept small: an SCR is identified only by its lower case id, while a
+ * submitted Request is sent whole so an open list can show it at once.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Notice implements Serializable {
+    public static final long serialVersionUID = 528884724;
+
+    /** An SCR was added; the key is its lower case id. */
+    public static final int SCRADDED = 0;
+    /** An SCR was updated; the key is its lower case id. */
+    public static final int SCRUPDATED = 1;
+    /** An SCR was deleted; the key is its lower case id. */
+    public static final int SCRDELETED = 2;
+    /** A Request was submitted; the key is its tracking number. */
+    public static final int RQSTSUBMITTED = 3;
+    /** A Request was deleted; the key is its tracking number. */
+    public static final int RQSTDELETED = 4;
+    /** A transfer started; the key is a list of tracking numbers. */
+    public static final int XFERSTARTED = 5;
+    /** The transfer finished successfully; there is no key. */
+    public static final int XFERFINISHED = 6;
+
+    private int type;
+    private Object key;
+    private Object item;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Notice.
+     * @param type One of the Notice types.
+     * @param key Identifies what changed.
+     * @param item The new version of the item, or null.
+     */
+    public Notice(int type, Object key, Object item) {
+        this.type = type;
+        this.key = key;
+        this.item = item;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return One of the Notice types.
+     */
+    public int getType() {
+        return this.type;
+    }
+
+    /**
+     * @return Identifies what changed; see the Notice types.
+     */
+    public Object getKey() {
+        return this.key;
+    }
+
+    /**
+     * @return The new version of the item, or null if it was not sent.
+     */
+    public Object getItem() {
+        return this.item;
+    }
+
+    /**
+     * Writes this Notice in the compact binary form.
+     * @param w Writer for the message being built.
+     * @throws IOException if the Notice cannot be written.
+     */
+    public void writeWire(WireWriter w) throws IOException {
+        w.writeInt(this.type);
+        w.writeValue(this.key);
+        w.writeValue(this.item);
+    }
+
+    /**
+     * Reads a Notice written by writeWire.
+     * @param r Reader for the message.
+     * @return The Notice.
+     * @throws IOException if the message is not valid.
+     */
+    public static Notice readWire(WireReader r) throws IOException {
+        int type = r.readInt();
+        Object key = r.readValue();
+        return new Notice(type, key, r.readValue());
+    }
+
+    /**
+     * @return The type and key of this Notice.
+     */
+    public String toString() {
+        return this.type + ":" + this.key;
+    }
+}
@@ -0,0 +1,86 @@
+package qars.util;
+
+import java.util.HashMap;
+
+/**
+ * <p>Numbers the directories Files are copied from and to. A release uses
+ * only a handful, so each is kept once for the whole process and a File
+ * holds its number. Numbers are never reused or removed, and they are only
+ * good in the process that gave them out; anything written to disk or sent
+ * to another process carries the directory itself.</p>
+ *
+ * @author Jaren Belt
+ */
+public class PathDictionary {
+    private static final Object lock = new Object();
+    private static HashMap<String, Integer> ids;        // guarded by lock
+    private static volatile String[] paths;       // replaced, never changed
+    private static int count;                            // guarded by lock
+
+    static {
+        ids = new HashMap<String, Integer>();
+        paths = new String[16];
+        count = 0;
+        intern("");
+        // the default directories get the first numbers
+        for (int i = 0; SCR.getSrc(i) != null; i++) {
+            intern(SCR.getSrc(i));
+            intern(SCR.getDest(i));
+        }
+    }
+
+    // constructors -------------------------------------------------------
+
+    /* Only static methods. */
+    private PathDictionary() {
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Gets the number of a directory, numbering it if it is new.
+     * @param path The directory; null is taken as "".
+     * @return Its number.
+     */
+    public static int intern(String path) {
+        if (path == null) {
+            path = "";
+        }
+        synchronized (lock) {
+            Integer id = ids.get(path);
+            if (id == null) {
+                String[] all = paths;
+                if (count == all.length) {
+                    String[] more = new String[all.length * 2];
+                    System.arraycopy(all, 0, more, 0, count);
+                    all = more;
+                }
+                // a copy, so a substring does not keep its whole original
+                all[count] = new String(path);
+                id = Integer.valueOf(count);
+                ids.put(all[count], id);
+                count++;
+                paths = all;
+            }
+            return id.intValue();
+        }
+    }
+
+    /**
+     * Gets the directory with a number.
+     * @param id A number given by intern.
+     * @return The directory, the same String every time.
+     */
+    public static String get(int id) {
+        return paths[id];
+    }
+
+    /**
+     * @return How many directories have been numbered.
+     */
+    public static int size() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+}
@@ -1,298 +1,477 @@
-package qars.util;
-
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
-import qars.gui.Displayable;
-
-/**
- * <p>This class contains all information about a given SCR. It may grow over
- * time as a developer adds more files. Information is captured when items are
- * sent to qars.</p>
- *
- * <p>An SCR can have source files, deltas, setups, undo scripts, data, and
- * files impacted.</p>
- * 
- * @author Jaren Belt
- */
-public class SCR implements Serializable, Displayable {
-    // public static constants
-    /** Category for source files. */
-    public static final int SOURCE = 0;
-    /** Category for delta files. */
-    public static final int DELTA  = 1;
-    /** Category for setup files. */
-    public static final int SETUP  = 2;
-    /** Category for undo files. */
-    public static final int UNDO   = 3;
-    /** Category for data files. */
-    public static final int DATA   = 4;
-    /** Category for files impacted by include source files. */
-    public static final int IMPACT = 5;
-    /** SCR name. */
-    public static final String IR = "SCR";
-    /** SCR's author. */
-    public static final String AU = "Author";
-    
-    public static final long serialVersionUID = 528884719;
-    public static final String clName = "qars.util.SCR";
-    
-    // private constants
-    private static final String[] categories = {"SOURCE", "DELTAS", "SETUPS", 
-        "UNDOS", "DATA", "IMPACT"};
-    private static final String specDir = "/g1/dev/spec";
-    private static final String[] srcDir = {"/g1/dev/source",
-        "/g1/dev/schema/delta", specDir, specDir, specDir, "/g1/adp/source"};
-    private static final String[] destDir = {"source", "delta", "setup",
-        "setup", "setup", ""};
-    private static final int NUMLISTS = 6;
-    
-    // private instance variables
-    private HashMap<String, Object> objects;
-    private HashMap<String, ArrayList<File>> files;
-    
-    // constructors -------------------------------------------------------
-    
-    /**
-     * Creates a new SCR without an id.
-     */
-    public SCR() {
-        this("", "");
-    }
-    
-    /**
-     * Creates a new SCR with given id and author.
-     * @param id SCR id.
-     */
-    public SCR(String id, String author) {
-        this.objects = new HashMap<String, Object>();
-        this.objects.put(IR, id);
-        this.objects.put(AU, author);
-        this.files = new HashMap<String, ArrayList<File>>();
-        for (int i = 0; i < NUMLISTS; i++) {
-            ArrayList<File> fileList = new ArrayList<File>();
-            this.files.put(categories[i], fileList);
-        }
-    }
-    
-    // public methods -----------------------------------------------------
-    
-    /**
-     * Retrieves the object version of an attribute.
-     * @param key The key for the attribute being returned.
-     * @return The object version of the attribute requested or null if the key
-     * does not exist.
-     */
-    public Object query(String key) {
-        Object retVal = null;
-        if (this.objects.containsKey(key)) {
-            retVal = this.objects.get(key);
-        }
-        return retVal;
-    }
-    
-    /**
-     * Sets an attribute of this File.
-     * @param key The key for the attribute being changed.
-     * @param obj The new value for the attribute.
-     * @return true if operation succeeds.
-     */
-    public boolean setValue(String key, Object obj) {
-        boolean success = this.objects.containsKey(key);
-        if (success) {
-            success = false;
-            // check type
-            if ((key.equals(IR) || key.equals(AU)) && obj instanceof String) {
-                success = true;
-            }
-            if (success) {
-                this.objects.put(key, obj);
-            }
-        }
-        return success;
-    }
-
-    
-    /**
-     * Adds a file to the appropriate list. Overwrites a file if it is
-     * already in the list.
-     * @param f The qars.util.File to add.
-     * @return true if f is successfully added.
-     */
-    public boolean add(File f) {
-        return add(f, ((Integer) f.query(File.CT)).intValue());
-    }
-    
-    /**
-     * Adds a file to the appropriate list. Overwrites a file if it is
-     * already in the list.
-     * @param f The qars.util.File to add.
-     * @param list The list category id.
-     * @return true if f is successfully added.
-     */
-    public boolean add(File f, int list) {
-        boolean success = false;
-        if (this.files.containsKey(categories[list])) {
-            ArrayList<File> al = this.files.get(categories[list]);
-            if (f != null) {
-                if (al.contains(f)) {
-                    al.remove(f);
-                }
-                success = al.add(f);
-            }
-        }
-        return success;
-    }
-    
-    /**
-     * Removes a file of given name if it exists in a certain list.
-     * @param f The qars.util.File to remove.
-     * @param list The list category id to remove the file from.
-     * @return true if f is in list and successfully removed.
-     */
-    public boolean remove(File f, int list) {
-        boolean wasInList = false;
-        if (this.files.containsKey(categories[list])) {
-            ArrayList<File> al = this.files.get(categories[list]);
-            if (f != null) {
-                wasInList = al.remove(f);
-            }
-        }
-        return wasInList;
-    }
-    
-    /**
-     * Gets the contents of a given list. Warning, this returns a reference
-     * to the list. Any modification afterward will alter the contents.
-     * @param list The list category id to be returned.
-     * @return An ArrayList<File> reference or null if list does not point to a
-     * valid list.
-     */
-    public ArrayList<File> getContents(int list) {
-        if (list >= 0 && list < categories.length) {
-            return this.getContents(categories[list]);
-        } else {
-            return null;
-        }
-    }
-    
-    /**
-     * Gets the contents of a given list. Warning, this returns a reference
-     * to the list. Any modification afterward will alter the contents.
-     * @param list The list name to be returned.
-     * @return An ArrayList<File> reference or null if list does not point to a
-     * valid list.
-     */
-    public ArrayList<File> getContents(String list) {
-        ArrayList<File> al = null;
-        if (this.files.containsKey(list)) {
-            al = this.files.get(list);
-        }
-        return al;
-    }
-    
-    /**
-     * Gets the SCR id for this SCR.
-     * @return The SCR id associated with this SCR.
-     */
-    public String toString() {
-        return (String) this.query(IR);
-    }
-    
-    /**
-     * Compares two SCRs by id.
-     * @param s2 Another SCR object.
-     * @return A positive integer if this SCR should follow s2, a negative
-     * integer if this SCR should come before s2, and 0 if they are the same.
-     * @throws ClassCastException if s2 is not of type SCR.
-     */
-    public int compareTo(Displayable s2) throws ClassCastException {
-        String ir1 = (String) this.query(IR);
-        String ir2 = (String) ((SCR) s2).query(IR);
-        return ir1.compareToIgnoreCase(ir2);
-    }
-
-    /**
-     * Two SCRs are equal if they have the same SCR id. 
-     * @param o Another SCR to compare with.
-     * @return true if o is an SCR and has the same SCR id as this SCR.
-     */
-    public boolean equals(Object o) {
-        boolean doEqual = false;
-        if (o instanceof SCR) {
-            SCR s2 = (SCR) o;
-            doEqual = (this.compareTo(s2) == 0);
-        }
-        return doEqual;
-    }
-    
-    /**
-     * Obtains the category name given the category id.
-     * @param cat Category id.
-     * @return A String of the category name associated with cat.
-     */
-    public static String getCategory(int cat) {
-        String s = null;
-        if (cat >= 0 && cat < NUMLISTS) {
-            s = categories[cat];
-        }
-        return s;
-    }
-    
-    /**
-     * Retrieves the default source directory for a particular type of file.
-     * @param cat Category id.
-     * @return The name of the directory on bones as default source.
-     */
-    public static String getSrc(int cat) {
-        String s = null;
-        if (cat >= 0 && cat < NUMLISTS) {
-            s = srcDir[cat];
-        }
-        return s;
-    }
-    
-    /**
-     * Obtains the default destination directory for a category.
-     * @param cat Category id.
-     * @return The name of the directory on qars to use as destination.
-     */
-    public static String getDest(int cat) {
-        String s = null;
-        if (cat >= 0 && cat < NUMLISTS) {
-            s = destDir[cat];
-        }
-        return s;
-    }
-    
-    /**
-     * Makes a copy of this SCR.
-     */
-    public Displayable clone() {
-        SCR s = new SCR((String) this.query(IR), (String) this.query(AU));
-        for (int i = 0; i < NUMLISTS; i++) {
-            ArrayList<File> list = this.files.get(categories[i]);
-            for (int j = 0; j < list.size(); j++) {
-                s.add((File) list.get(j).clone());
-            }
-        }
-        return s;
-    }
-    
-    /**
-     * Resets all include and run variables for all files.
-     */
-    public void clear() {
-        Boolean doNot = new Boolean(false);
-        for (int i = 0; i < categories.length; i++) {
-            ArrayList<File> list = this.files.get(categories[i]);
-            for (int j = 0; j < list.size(); j++) {
-                File f = list.get(j);
-                f.setValue(File.IN, doNot);
-                f.setValue(File.RN, doNot);
-                f.setValue(File.RF, new Integer(0));
-            }
-        }
-    }
-    
-}
+package qars.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import qars.gui.Displayable;
+
+/**
+ * <p>This class contains all information about a given SCR. It may grow over
+ * time as a developer adds more files. Information is captured when items are
+ * sent to qars.</p>
+ *
+ * <p>An SCR can have source files, deltas, setups, undo scripts, data, and
+ * files impacted. Each list is indexed by file name, so a file is added,
+ * replaced, found or removed without a search; a File must not be renamed
+ * while it is in an SCR.</p>
+ * 
+ * @author Jaren Belt
+ */
+public class SCR implements Serializable, Displayable {
+    // public static constants
+    /** Category for source files. */
+    public static final int SOURCE = 0;
+    /** Category for delta files. */
+    public static final int DELTA  = 1;
+    /** Category for setup files. */
+    public static final int SETUP  = 2;
+    /** Category for undo files. */
+    public static final int UNDO   = 3;
+    /** Category for data files. */
+    public static final int DATA   = 4;
+    /** Category for files impacted by include source files. */
+    public static final int IMPACT = 5;
+    /** SCR name. */
+    public static final String IR = "SCR";
+    /** SCR's author. */
+    public static final String AU = "Author";
+    
+    public static final long serialVersionUID = 528884719;
+    public static final String clName = "qars.util.SCR";
+    
+    // serialized as the attributes and a list of Files per category name
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("objects", HashMap.class),
+        new ObjectStreamField("files", HashMap.class)};
+    
+    // private constants
+    private static final String[] categories = {"SOURCE", "DELTAS", "SETUPS", 
+        "UNDOS", "DATA", "IMPACT"};
+    private static final String specDir = "/g1/dev/spec";
+    private static final String[] srcDir = {"/g1/dev/source",
+        "/g1/dev/schema/delta", specDir, specDir, specDir, "/g1/adp/source"};
+    private static final String[] destDir = {"source", "delta", "setup",
+        "setup", "setup", ""};
+    private static final int NUMLISTS = 6;
+    
+    // private instance variables
+    private HashMap<String, Object> objects;
+    private HashMap<String, FileSet> files;
+    
+    // constructors -------------------------------------------------------
+    
+    /**
+     * Creates a new SCR without an id.
+     */
+    public SCR() {
+        this("", "");
+    }
+    
+    /**
+     * Creates a new SCR with given id and author.
+     * @param id SCR id.
+     */
+    public SCR(String id, String author) {
+        this.objects = new HashMap<String, Object>();
+        this.objects.put(IR, id);
+        this.objects.put(AU, author);
+        this.files = new HashMap<String, FileSet>();
+        for (int i = 0; i < NUMLISTS; i++) {
+            this.files.put(categories[i], new FileSet());
+        }
+    }
+    
+    // public methods -----------------------------------------------------
+    
+    /**
+     * Retrieves the object version of an attribute.
+     * @param key The key for the attribute being returned.
+     * @return The object version of the attribute requested or null if the key
+     * does not exist.
+     */
+    public Object query(String key) {
+        Object retVal = null;
+        if (this.objects.containsKey(key)) {
+            retVal = this.objects.get(key);
+        }
+        return retVal;
+    }
+    
+    /**
+     * Sets an attribute of this File.
+     * @param key The key for the attribute being changed.
+     * @param obj The new value for the attribute.
+     * @return true if operation succeeds.
+     */
+    public boolean setValue(String key, Object obj) {
+        boolean success = this.objects.containsKey(key);
+        if (success) {
+            success = false;
+            // check type
+            if ((key.equals(IR) || key.equals(AU)) && obj instanceof String) {
+                success = true;
+            }
+            if (success) {
+                this.objects.put(key, obj);
+            }
+        }
+        return success;
+    }
+
+    
+    /**
+     * Adds a file to the appropriate list. Overwrites a file if it is
+     * already in the list.
+     * @param f The qars.util.File to add.
+     * @return true if f is successfully added.
+     */
+    public boolean add(File f) {
+        return add(f, ((Integer) f.query(File.CT)).intValue());
+    }
+    
+    /**
+     * Adds a file to the appropriate list. Overwrites a file if it is
+     * already in the list, moving it to the end.
+     * @param f The qars.util.File to add.
+     * @param list The list category id.
+     * @return true if f is successfully added.
+     */
+    public boolean add(File f, int list) {
+        boolean success = false;
+        if (this.files.containsKey(categories[list])) {
+            FileSet set = this.files.get(categories[list]);
+            if (f != null) {
+                set.put(f);
+                success = true;
+            }
+        }
+        return success;
+    }
+    
+    /**
+     * Removes a file of given name if it exists in a certain list.
+     * @param f The qars.util.File to remove.
+     * @param list The list category id to remove the file from.
+     * @return true if f is in list and successfully removed.
+     */
+    public boolean remove(File f, int list) {
+        boolean wasInList = false;
+        if (this.files.containsKey(categories[list])) {
+            FileSet set = this.files.get(categories[list]);
+            if (f != null) {
+                wasInList = set.remove(f);
+            }
+        }
+        return wasInList;
+    }
+    
+    /**
+     * Finds a file by name in a given list.
+     * @param fileName Name of the file.
+     * @param list The list category id.
+     * @return The File, or null if it is not in the list.
+     */
+    public File get(String fileName, int list) {
+        File f = null;
+        if (list >= 0 && list < categories.length) {
+            f = this.files.get(categories[list]).get(fileName);
+        }
+        return f;
+    }
+    
+    /**
+     * Gets the contents of a given list, in the order the files were added.
+     * The view is read-only but live: later changes to the SCR show in it.
+     * @param list The list category id to be returned.
+     * @return The Files, or null if list does not point to a valid list.
+     */
+    public Collection<File> getContents(int list) {
+        if (list >= 0 && list < categories.length) {
+            return this.getContents(categories[list]);
+        } else {
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the contents of a given list, in the order the files were added.
+     * The view is read-only but live: later changes to the SCR show in it.
+     * @param list The list name to be returned.
+     * @return The Files, or null if list does not point to a valid list.
+     */
+    public Collection<File> getContents(String list) {
+        Collection<File> view = null;
+        if (this.files.containsKey(list)) {
+            view = this.files.get(list).getView();
+        }
+        return view;
+    }
+    
+    /**
+     * Gets the contents of a given list in name order. The order is kept up
+     * as files are added and removed, so it is sorted only once. The view is
+     * read-only but live.
+     * @param list The list category id to be returned.
+     * @return The Files, or null if list does not point to a valid list.
+     */
+    public Collection<File> getSorted(int list) {
+        Collection<File> view = null;
+        if (list >= 0 && list < categories.length) {
+            view = this.files.get(categories[list]).getSorted();
+        }
+        return view;
+    }
+    
+    /**
+     * Gets the SCR id for this SCR.
+     * @return The SCR id associated with this SCR.
+     */
+    public String toString() {
+        return (String) this.query(IR);
+    }
+    
+    /**
+     * Compares two SCRs by id.
+     * @param s2 Another SCR object.
+     * @return A positive integer if this SCR should follow s2, a negative
+     * integer if this SCR should come before s2, and 0 if they are the same.
+     * @throws ClassCastException if s2 is not of type SCR.
+     */
+    public int compareTo(Displayable s2) throws ClassCastException {
+        String ir1 = (String) this.query(IR);
+        String ir2 = (String) ((SCR) s2).query(IR);
+        return ir1.compareToIgnoreCase(ir2);
+    }
+
+    /**
+     * Two SCRs are equal if they have the same SCR id. 
+     * @param o Another SCR to compare with.
+     * @return true if o is an SCR and has the same SCR id as this SCR.
+     */
+    public boolean equals(Object o) {
+        boolean doEqual = false;
+        if (o instanceof SCR) {
+            SCR s2 = (SCR) o;
+            doEqual = (this.compareTo(s2) == 0);
+        }
+        return doEqual;
+    }
+    
+    /**
+     * Obtains the category name given the category id.
+     * @param cat Category id.
+     * @return A String of the category name associated with cat.
+     */
+    public static String getCategory(int cat) {
+        String s = null;
+        if (cat >= 0 && cat < NUMLISTS) {
+            s = categories[cat];
+        }
+        return s;
+    }
+    
+    /**
+     * Retrieves the default source directory for a particular type of file.
+     * @param cat Category id.
+     * @return The name of the directory on bones as default source.
+     */
+    public static String getSrc(int cat) {
+        String s = null;
+        if (cat >= 0 && cat < NUMLISTS) {
+            s = srcDir[cat];
+        }
+        return s;
+    }
+    
+    /**
+     * Obtains the default destination directory for a category.
+     * @param cat Category id.
+     * @return The name of the directory on qars to use as destination.
+     */
+    public static String getDest(int cat) {
+        String s = null;
+        if (cat >= 0 && cat < NUMLISTS) {
+            s = destDir[cat];
+        }
+        return s;
+    }
+    
+    /**
+     * Makes a copy of this SCR.
+     */
+    public Displayable clone() {
+        SCR s = new SCR((String) this.query(IR), (String) this.query(AU));
+        for (int i = 0; i < NUMLISTS; i++) {
+            Iterator<File> it = this.files.get(categories[i]).iterator();
+            while (it.hasNext()) {
+                s.add((File) it.next().clone());
+            }
+        }
+        return s;
+    }
+    
+    /**
+     * Writes this SCR in the compact binary form.
+     * @param w Writer for the message being built.
+     * @throws IOException if the SCR cannot be written.
+     */
+    public void writeWire(WireWriter w) throws IOException {
+        w.writeString((String) this.query(IR));
+        w.writeString((String) this.query(AU));
+        for (int i = 0; i < NUMLISTS; i++) {
+            FileSet set = this.files.get(categories[i]);
+            w.writeCount(set.size());
+            Iterator<File> it = set.iterator();
+            while (it.hasNext()) {
+                w.writeValue(it.next());
+            }
+        }
+    }
+    
+    /**
+     * Reads an SCR written by writeWire.
+     * @param r Reader for the message.
+     * @return The SCR.
+     * @throws IOException if the message is not valid.
+     */
+    public static SCR readWire(WireReader r) throws IOException {
+        SCR s = new SCR();
+        r.register(s);
+        s.objects.put(IR, r.readString());
+        s.objects.put(AU, r.readString());
+        for (int i = 0; i < NUMLISTS; i++) {
+            FileSet set = s.files.get(categories[i]);
+            int n = r.readLength();
+            for (int j = 0; j < n; j++) {
+                set.put(r.readFile());
+            }
+        }
+        return s;
+    }
+    
+    /**
+     * Resets all include and run variables for all files.
+     */
+    public void clear() {
+        Integer none = Integer.valueOf(0);
+        for (int i = 0; i < categories.length; i++) {
+            Iterator<File> it = this.files.get(categories[i]).iterator();
+            while (it.hasNext()) {
+                File f = it.next();
+                f.clearFlags(File.IN_BIT | File.RN_BIT);
+                f.setValue(File.RF, none);
+            }
+        }
+    }
+    
+    // private methods ----------------------------------------------------
+    
+    /* Writes the serialized SCR with each list as an ArrayList, the form it
+     * has always had. */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        HashMap<String, ArrayList<File>> lists =
+            new HashMap<String, ArrayList<File>>();
+        for (int i = 0; i < NUMLISTS; i++) {
+            FileSet set = this.files.get(categories[i]);
+            lists.put(categories[i], new ArrayList<File>(set.getView()));
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("objects", this.objects);
+        fields.put("files", lists);
+        out.writeFields();
+    }
+    
+    /* Reads a serialized SCR, indexing its lists. */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        this.objects = (HashMap<String, Object>) fields.get("objects", null);
+        HashMap<String, ArrayList<File>> lists =
+            (HashMap<String, ArrayList<File>>) fields.get("files", null);
+        this.files = new HashMap<String, FileSet>();
+        for (int i = 0; i < NUMLISTS; i++) {
+            FileSet set = new FileSet();
+            ArrayList<File> list =
+                (lists == null ? null : lists.get(categories[i]));
+            if (list != null) {
+                for (int j = 0; j < list.size(); j++) {
+                    set.put(list.get(j));
+                }
+            }
+            this.files.put(categories[i], set);
+        }
+    }
+    
+    // private classes ----------------------------------------------------
+    
+    /* The Files of one category, by name in the order they were added. A
+     * copy sorted by name is made the first time it is asked for and kept
+     * up from then on. */
+    private static class FileSet {
+        private LinkedHashMap<String, File> byName;
+        private Collection<File> view;
+        private TreeMap<String, File> sorted;
+        private Collection<File> sortedView;
+        
+        public FileSet() {
+            this.byName = new LinkedHashMap<String, File>();
+            this.view = Collections.unmodifiableCollection(this.byName.values());
+        }
+        
+        /* Adds a File, or replaces the one of the same name and moves it to
+         * the end. */
+        public void put(File f) {
+            String name = f.toString();
+            this.byName.remove(name);
+            this.byName.put(name, f);
+            if (this.sorted != null) {
+                this.sorted.put(name, f);
+            }
+        }
+        
+        /* Removes the File of the same name, if there is one. */
+        public boolean remove(File f) {
+            String name = f.toString();
+            boolean removed = (this.byName.remove(name) != null);
+            if (removed && this.sorted != null) {
+                this.sorted.remove(name);
+            }
+            return removed;
+        }
+        
+        public File get(String name) {
+            return this.byName.get(name);
+        }
+        
+        public int size() {
+            return this.byName.size();
+        }
+        
+        public Iterator<File> iterator() {
+            return this.view.iterator();
+        }
+        
+        public Collection<File> getView() {
+            return this.view;
+        }
+        
+        public Collection<File> getSorted() {
+            if (this.sorted == null) {
+                this.sorted = new TreeMap<String, File>(this.byName);
+                this.sortedView =
+                    Collections.unmodifiableCollection(this.sorted.values());
+            }
+            return this.sortedView;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package qars.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * <p>A transfer that has ended, as kept in the transfer history: the Requests
+ * it carried, with their files, when each stage was reached and how it
+ * ended. Times are milliseconds since the epoch; a stage that was never
+ * reached, or whose time was lost, is 0.</p>
+ *
+ * @author Jaren Belt
+ */
+public class Transfer implements Serializable {
+    public static final long serialVersionUID = 528884725;
+
+    /** The files were released and the success email was sent. */
+    public static final int RELEASED = 0;
+    /** The transfer was abandoned and its Requests put back as pending. */
+    public static final int UNDONE = 1;
+
+    private ArrayList<Request> requests;
+    private long started;                // Requests sent for transfer
+    private long fetched;                // QA picked the Requests up
+    private long finished;                       // released or undone
+    private int outcome;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new Transfer.
+     * @param requests The Requests transferred.
+     * @param started When they were sent for transfer, or 0.
+     * @param fetched When QA picked them up, or 0.
+     * @param finished When the transfer ended.
+     * @param outcome RELEASED or UNDONE.
+     */
+    public Transfer(ArrayList<Request> requests, long started, long fetched,
+                    long finished, int outcome) {
+        this.requests = requests;
+        this.started = started;
+        this.fetched = fetched;
+        this.finished = finished;
+        this.outcome = outcome;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @return The Requests transferred.
+     */
+    public ArrayList<Request> getRequests() {
+        return this.requests;
+    }
+
+    /**
+     * @return When the Requests were sent for transfer, or 0 if not known.
+     */
+    public long getStarted() {
+        return this.started;
+    }
+
+    /**
+     * @return When QA picked the Requests up, or 0 if it never did.
+     */
+    public long getFetched() {
+        return this.fetched;
+    }
+
+    /**
+     * @return When the transfer was released or undone.
+     */
+    public long getFinished() {
+        return this.finished;
+    }
+
+    /**
+     * @return RELEASED or UNDONE.
+     */
+    public int getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * Lists the SCRs of the Requests, once each.
+     * @return SCR ids as given in the Requests.
+     */
+    public ArrayList<String> getSCRs() {
+        ArrayList<String> ids = new ArrayList<String>();
+        for (int i = 0; i < this.requests.size(); i++) {
+            Object s = this.requests.get(i).query(Request.IR);
+            if (s != null && !ids.contains(s.toString())) {
+                ids.add(s.toString());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lists who asked for the Requests, once each.
+     * @return Requestor ids.
+     */
+    public ArrayList<String> getRequestors() {
+        ArrayList<String> who = new ArrayList<String>();
+        for (int i = 0; i < this.requests.size(); i++) {
+            Object rq = this.requests.get(i).query(Request.RQ);
+            if (rq != null && !who.contains(rq.toString())) {
+                who.add(rq.toString());
+            }
+        }
+        return who;
+    }
+
+    /**
+     * Lists the names of every file in every Request, once each.
+     * @return File names.
+     */
+    public ArrayList<String> getFileNames() {
+        ArrayList<String> names = new ArrayList<String>();
+        for (int i = 0; i < this.requests.size(); i++) {
+            for (int cat = 0; SCR.getCategory(cat) != null; cat++) {
+                ArrayList<File> files = this.requests.get(i).getFiles(cat);
+                if (files == null) {
+                    continue;
+                }
+                for (int j = 0; j < files.size(); j++) {
+                    String name = files.get(j).toString();
+                    if (name != null && !names.contains(name)) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return The outcome, when it ended and how many Requests it carried.
+     */
+    public String toString() {
+        return (this.outcome == RELEASED ? "released " : "undone ") +
+               this.finished + " (" + this.requests.size() + " requests)";
+    }
+}
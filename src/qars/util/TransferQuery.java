@@ -0,0 +1,122 @@
+package qars.util;
+
+import java.io.Serializable;
+
+/**
+ * <p>Asks the ReleaseServer for past transfers. Every criterion given must
+ * match; one left null or 0 matches anything. The newest transfers are
+ * returned first.</p>
+ *
+ * @author Jaren Belt
+ */
+public class TransferQuery implements Serializable {
+    public static final long serialVersionUID = 528884726;
+
+    private String scr;
+    private String requestor;
+    private String file;
+    private long from;
+    private long to;
+    private int max;
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a query that matches every transfer, returning at most one.
+     */
+    public TransferQuery() {
+        this.max = 1;
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * @param scr Only transfers carrying this SCR, in any case.
+     * @return This query.
+     */
+    public TransferQuery setSCR(String scr) {
+        this.scr = scr;
+        return this;
+    }
+
+    /**
+     * @param requestor Only transfers with a Request from this requestor.
+     * @return This query.
+     */
+    public TransferQuery setRequestor(String requestor) {
+        this.requestor = requestor;
+        return this;
+    }
+
+    /**
+     * @param file Only transfers carrying this file, named as in its SCR or
+     *             by the last part of that name.
+     * @return This query.
+     */
+    public TransferQuery setFile(String file) {
+        this.file = file;
+        return this;
+    }
+
+    /**
+     * @param from Only transfers that ended at or after this time.
+     * @param to Only transfers that ended before this time; 0 for no end.
+     * @return This query.
+     */
+    public TransferQuery setRange(long from, long to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * @param max Most transfers to return.
+     * @return This query.
+     */
+    public TransferQuery setMax(int max) {
+        this.max = max;
+        return this;
+    }
+
+    /**
+     * @return The SCR asked for, or null.
+     */
+    public String getSCR() {
+        return this.scr;
+    }
+
+    /**
+     * @return The requestor asked for, or null.
+     */
+    public String getRequestor() {
+        return this.requestor;
+    }
+
+    /**
+     * @return The file asked for, or null.
+     */
+    public String getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return Earliest end time asked for, or 0.
+     */
+    public long getFrom() {
+        return this.from;
+    }
+
+    /**
+     * @return End time asked to be before, or 0.
+     */
+    public long getTo() {
+        return this.to;
+    }
+
+    /**
+     * @return Most transfers to return.
+     */
+    public int getMax() {
+        return this.max;
+    }
+}
@@ -0,0 +1,226 @@
+package qars.util;
+
+import java.io.*;
+import java.util.ArrayList;
+import qars.io.RemoteFile;
+
+/**
+ * <p>Reads one message written by a WireWriter. The string dictionary must be
+ * the one built by reading every earlier message on the connection, in
+ * order.</p>
+ *
+ * @author Jaren Belt
+ */
+public class WireReader {
+    private DataInputStream in;
+    private ArrayList<String> dict;             // strings already received
+    private ArrayList<Object> handles;      // objects read in this message
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new WireReader for one message.
+     * @param in The message.
+     * @param dict Strings received so far on this connection; added to.
+     */
+    public WireReader(DataInputStream in, ArrayList<String> dict) {
+        this.in = in;
+        this.dict = dict;
+        this.handles = new ArrayList<Object>();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Reads any value written by WireWriter.writeValue.
+     * @return The value; may be null.
+     * @throws IOException if the message is not valid.
+     */
+    public Object readValue() throws IOException {
+        int tag = this.in.readUnsignedByte();
+        switch (tag) {
+            case WireWriter.NULL:
+                return null;
+            case WireWriter.STRING:
+            case WireWriter.STRINGREF:
+            case WireWriter.RAWSTRING:
+                return readString(tag);
+            case WireWriter.TRUE:
+                return Boolean.TRUE;
+            case WireWriter.FALSE:
+                return Boolean.FALSE;
+            case WireWriter.INT:
+                return Integer.valueOf(readInt());
+            case WireWriter.LONG:
+                return Long.valueOf(readLong());
+            case WireWriter.LIST:
+                int n = readLength();
+                ArrayList<Object> list = new ArrayList<Object>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case WireWriter.FILE:
+                return File.readWire(this);
+            case WireWriter.SCR:
+                return SCR.readWire(this);
+            case WireWriter.REQUEST:
+                return Request.readWire(this);
+            case WireWriter.REMOTEFILE:
+                return RemoteFile.readWire(this);
+            case WireWriter.USER:
+                return User.readWire(this);
+            case WireWriter.DELTA:
+                return Delta.readWire(this);
+            case WireWriter.NOTICE:
+                return Notice.readWire(this);
+            case WireWriter.BACKREF:
+                int h = readCount();
+                if (h >= this.handles.size()) {
+                    throw new IOException("Unknown object " + h);
+                }
+                return this.handles.get(h);
+            case WireWriter.SERIAL:
+                byte[] b = new byte[readLength()];
+                this.in.readFully(b);
+                ObjectInputStream ois =
+                    new ObjectInputStream(new ByteArrayInputStream(b));
+                try {
+                    return ois.readObject();
+                } catch (ClassNotFoundException cnfe) {
+                    throw new IOException("Could not find class " +
+                                          cnfe.getMessage());
+                }
+            default:
+                throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    /**
+     * Reads a string written by WireWriter.writeString.
+     * @return The string; may be null.
+     * @throws IOException if the message is not valid.
+     */
+    public String readString() throws IOException {
+        int tag = this.in.readUnsignedByte();
+        if (tag == WireWriter.NULL) {
+            return null;
+        }
+        return readString(tag);
+    }
+
+    /**
+     * Reads a value, failing unless it is a File or null.
+     * @return The File.
+     * @throws IOException if the message is not valid.
+     */
+    public File readFile() throws IOException {
+        Object o = readValue();
+        if (o != null && !(o instanceof File)) {
+            throw new IOException("Expected a File");
+        }
+        return (File) o;
+    }
+
+    /**
+     * Records an object being read so later references to it can be found.
+     * Every object the writer numbers must be registered as soon as it is
+     * created, before any of the values it contains are read.
+     * @param o The object just created.
+     */
+    public void register(Object o) {
+        this.handles.add(o);
+    }
+
+    /**
+     * @return A signed int written by WireWriter.writeInt.
+     * @throws IOException if the message is not valid.
+     */
+    public int readInt() throws IOException {
+        int v = readCount();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * @return A signed long written by WireWriter.writeLong.
+     * @throws IOException if the message is not valid.
+     */
+    public long readLong() throws IOException {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            b = this.in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * @return A count written by WireWriter.writeCount.
+     * @throws IOException if the message is not valid.
+     */
+    public int readCount() throws IOException {
+        int v = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IOException("Malformed varint");
+            }
+            b = this.in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+
+    /**
+     * @return Flags written by WireWriter.writeBits.
+     * @throws IOException if the message is not valid.
+     */
+    public int readBits() throws IOException {
+        return this.in.readUnsignedByte();
+    }
+
+    /**
+     * Reads a count of items that each take at least one byte, checking it
+     * against what is left of the message before anything is allocated.
+     * @return The count.
+     * @throws IOException if the message is not valid.
+     */
+    public int readLength() throws IOException {
+        int n = readCount();
+        if (n < 0 || n > this.in.available()) {
+            throw new IOException("Invalid length " + n);
+        }
+        return n;
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Reads the rest of a string whose tag has been read. */
+    private String readString(int tag) throws IOException {
+        if (tag == WireWriter.STRINGREF) {
+            int n = readCount();
+            if (n >= this.dict.size()) {
+                throw new IOException("Unknown string " + n);
+            }
+            return this.dict.get(n);
+        }
+        if (tag != WireWriter.STRING && tag != WireWriter.RAWSTRING) {
+            throw new IOException("Expected a string");
+        }
+        byte[] b = new byte[readLength()];
+        this.in.readFully(b);
+        String s = new String(b, "UTF-8");
+        if (tag == WireWriter.STRING) {
+            this.dict.add(s);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,229 @@
+package qars.util;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import qars.io.RemoteFile;
+
+/**
+ * <p>Writes one message in the compact binary form read by WireReader. Values
+ * are tagged, numbers are written as varints and object fields are written by
+ * position, so none of the attribute names that Java serialization repeats
+ * are sent.</p>
+ *
+ * <p>Strings are shared through a dictionary that lives as long as the
+ * connection: the first time a string is written it is sent in full and
+ * numbered, and afterwards only its number is sent. The reader builds the
+ * same dictionary, so messages must be read in the order they were written.
+ * SCRs, Requests and Files are numbered within the message, so an object
+ * reachable twice, such as an impacted File and its parent, is sent once.</p>
+ *
+ * @author Jaren Belt
+ */
+public class WireWriter {
+    // value tags
+    static final int NULL = 0;
+    static final int STRING = 1;          // new string, added to dictionary
+    static final int STRINGREF = 2;         // string already in dictionary
+    static final int RAWSTRING = 3;        // string left out of dictionary
+    static final int TRUE = 4;
+    static final int FALSE = 5;
+    static final int INT = 6;
+    static final int LONG = 7;
+    static final int LIST = 8;
+    static final int FILE = 9;
+    static final int SCR = 10;
+    static final int REQUEST = 11;
+    static final int REMOTEFILE = 12;
+    static final int USER = 13;
+    static final int DELTA = 14;
+    static final int NOTICE = 15;
+    static final int BACKREF = 16;       // object already sent in message
+    static final int SERIAL = 17;      // anything else, Java serialization
+
+    // strings longer than this are seldom repeated and not worth numbering
+    static final int MAXDICTSTRING = 128;
+
+    private DataOutputStream out;
+    private HashMap<String, Integer> dict;          // strings already sent
+    private int maxEntries;
+    private int added;                  // bytes of strings added to dict
+    private IdentityHashMap<Object, Integer> handles; // objects in message
+
+    // constructors -------------------------------------------------------
+
+    /**
+     * Creates a new WireWriter for one message.
+     * @param out Where the message is written.
+     * @param dict Strings already sent on this connection; added to.
+     * @param maxEntries Largest number of strings the dictionary may hold.
+     */
+    public WireWriter(DataOutputStream out, HashMap<String, Integer> dict,
+                      int maxEntries) {
+        this.out = out;
+        this.dict = dict;
+        this.maxEntries = maxEntries;
+        this.added = 0;
+        this.handles = new IdentityHashMap<Object, Integer>();
+    }
+
+    // public methods -----------------------------------------------------
+
+    /**
+     * Writes any value. Types without a binary form fall back to Java
+     * serialization.
+     * @param o The value; may be null.
+     * @throws IOException if the value cannot be written.
+     */
+    public void writeValue(Object o) throws IOException {
+        if (o == null) {
+            this.out.write(NULL);
+        } else if (o instanceof String) {
+            writeString((String) o);
+        } else if (o instanceof Boolean) {
+            this.out.write(((Boolean) o).booleanValue() ? TRUE : FALSE);
+        } else if (o instanceof Integer) {
+            this.out.write(INT);
+            writeInt(((Integer) o).intValue());
+        } else if (o instanceof Long) {
+            this.out.write(LONG);
+            writeLong(((Long) o).longValue());
+        } else if (o.getClass() == ArrayList.class) {
+            ArrayList<?> list = (ArrayList<?>) o;
+            this.out.write(LIST);
+            writeCount(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                writeValue(list.get(i));
+            }
+        } else if (o.getClass() == File.class) {
+            if (!writeHandle(o, FILE)) {
+                ((File) o).writeWire(this);
+            }
+        } else if (o.getClass() == SCR.class) {
+            if (!writeHandle(o, SCR)) {
+                ((SCR) o).writeWire(this);
+            }
+        } else if (o.getClass() == Request.class) {
+            if (!writeHandle(o, REQUEST)) {
+                ((Request) o).writeWire(this);
+            }
+        } else if (o.getClass() == RemoteFile.class) {
+            this.out.write(REMOTEFILE);
+            ((RemoteFile) o).writeWire(this);
+        } else if (o.getClass() == User.class) {
+            this.out.write(USER);
+            ((User) o).writeWire(this);
+        } else if (o.getClass() == Delta.class) {
+            this.out.write(DELTA);
+            ((Delta<?>) o).writeWire(this);
+        } else if (o.getClass() == Notice.class) {
+            this.out.write(NOTICE);
+            ((Notice) o).writeWire(this);
+        } else {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(o);
+            oos.close();
+            this.out.write(SERIAL);
+            writeCount(bos.size());
+            bos.writeTo(this.out);
+        }
+    }
+
+    /**
+     * Writes a string, sending only its number if it was sent before.
+     * @param s The string; may be null.
+     * @throws IOException if the string cannot be written.
+     */
+    public void writeString(String s) throws IOException {
+        if (s == null) {
+            this.out.write(NULL);
+            return;
+        }
+        Integer n = this.dict.get(s);
+        if (n != null) {
+            this.out.write(STRINGREF);
+            writeCount(n.intValue());
+            return;
+        }
+        byte[] b = s.getBytes("UTF-8");
+        if (s.length() <= MAXDICTSTRING && this.dict.size() < this.maxEntries) {
+            this.dict.put(s, Integer.valueOf(this.dict.size()));
+            this.added += b.length;
+            this.out.write(STRING);
+        } else {
+            this.out.write(RAWSTRING);
+        }
+        writeCount(b.length);
+        this.out.write(b);
+    }
+
+    /**
+     * Writes a signed int; small values of either sign take one byte.
+     * @param i The value.
+     * @throws IOException if the value cannot be written.
+     */
+    public void writeInt(int i) throws IOException {
+        writeCount((i << 1) ^ (i >> 31));
+    }
+
+    /**
+     * Writes a signed long; small values of either sign take one byte.
+     * @param l The value.
+     * @throws IOException if the value cannot be written.
+     */
+    public void writeLong(long l) throws IOException {
+        long v = (l << 1) ^ (l >> 63);
+        while ((v & ~0x7FL) != 0) {
+            this.out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        this.out.write((int) v);
+    }
+
+    /**
+     * Writes a count or other value that is never negative.
+     * @param n The value.
+     * @throws IOException if the value cannot be written.
+     */
+    public void writeCount(int n) throws IOException {
+        while ((n & ~0x7F) != 0) {
+            this.out.write((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        this.out.write(n);
+    }
+
+    /**
+     * Writes up to eight flags as one byte.
+     * @param bits The flags, lowest first.
+     * @throws IOException if the flags cannot be written.
+     */
+    public void writeBits(int bits) throws IOException {
+        this.out.write(bits);
+    }
+
+    /**
+     * @return Bytes of string data this message added to the dictionary.
+     */
+    public int getAdded() {
+        return this.added;
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Writes a reference to an object already in this message and returns
+     * true, or numbers the object, writes its tag and returns false. */
+    private boolean writeHandle(Object o, int tag) throws IOException {
+        Integer h = this.handles.get(o);
+        if (h != null) {
+            this.out.write(BACKREF);
+            writeCount(h.intValue());
+            return true;
+        }
+        this.handles.put(o, Integer.valueOf(this.handles.size()));
+        this.out.write(tag);
+        return false;
+    }
+}
@@ -1,4 +1,4 @@
-/**
- * Utility classes for the QA Release Process.
- */
+/**
+ * Utility classes for the QA Release Process.
+ */
 package qars.util;
\ No newline at end of file
@@ -0,0 +1,124 @@
+package qars.net;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Before;
+import org.junit.Test;
+import qars.util.ReturnCode;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the string dictionary a FrameCodec carries across binary frames
+ * stays within WIREDICTSIZE strings and WIREDICTBYTES bytes, and that the
+ * other end still decodes every frame once it has been started over.
+ *
+ * @author Jaren Belt
+ */
+public class FrameCodecTest {
+    private FrameCodec sender;
+    private FrameCodec receiver;
+    private HashSet<String> held;       // what the sender's dictionary holds
+    private int heldBytes;              // bytes of them
+    private int resets;                 // frames marked RESET
+
+    @Before
+    public void setUp() {
+        this.sender = new FrameCodec();
+        this.receiver = new FrameCodec();
+        // both ends must have agreed on the binary form
+        assumeTrue(this.sender.accepted(
+            Integer.valueOf(FrameCodec.WIREVERSION)));
+        this.held = new HashSet<String>();
+        this.heldBytes = 0;
+        this.resets = 0;
+    }
+
+    /**
+     * Short strings fill the dictionary by count before they fill it by size.
+     */
+    @Test
+    public void testStringLimit() throws IOException {
+        sendDistinct(3 * FrameCodec.MAXDICT + 1, "");
+        assertTrue(this.resets >= 2);
+    }
+
+    /**
+     * Long strings fill the dictionary by size before they fill it by count.
+     */
+    @Test
+    public void testByteLimit() throws IOException {
+        char[] pad = new char[100];
+        Arrays.fill(pad, 'x');
+        int perReset = FrameCodec.MAXDICTBYTES / pad.length;
+        assumeTrue(perReset < FrameCodec.MAXDICT);
+        sendDistinct(3 * perReset + 1, new String(pad));
+        assertTrue(this.resets >= 2);
+    }
+
+    /**
+     * A frame that fails after numbering a string is never sent, so the
+     * frame after it must start the dictionary over.
+     */
+    @Test
+    public void testFailedFrame() throws IOException {
+        ArrayList<Object> bad = new ArrayList<Object>();
+        bad.add("lost");
+        bad.add(new Object());
+        try {
+            this.sender.encode(ReleaseServer.SCRS, bad);
+            fail("an Object cannot be serialized");
+        } catch (NotSerializableException nse) {
+        }
+        ArrayList<String> list = new ArrayList<String>();
+        list.add("kept");
+        list.add("lost");
+        byte[] frame = this.sender.encode(ReleaseServer.SCRS, list);
+        assertTrue((frame[FrameCodec.PREFIX] & FrameCodec.RESET) != 0);
+        byte[] body = new byte[frame.length - FrameCodec.PREFIX];
+        System.arraycopy(frame, FrameCodec.PREFIX, body, 0, body.length);
+        assertEquals(list, this.receiver.decode(body, new ReturnCode(0)));
+    }
+
+    // private methods ----------------------------------------------------
+
+    /* Sends frames that each carry a new string and the one before it, so a
+     * string is sent again in the frame after a reset. Every frame must
+     * decode to what was sent and the dictionary must only start over once
+     * it is full. */
+    private void sendDistinct(int frames, String pad) throws IOException {
+        String previous = null;
+        for (int i = 0; i < frames; i++) {
+            String s = pad + i;
+            ArrayList<String> list = new ArrayList<String>();
+            list.add(s);
+            list.add(previous);
+            byte[] frame = this.sender.encode(ReleaseServer.SCRS, list);
+            boolean reset = (frame[FrameCodec.PREFIX] & FrameCodec.RESET) != 0;
+            boolean full = this.held.size() >= FrameCodec.MAXDICT ||
+                this.heldBytes >= FrameCodec.MAXDICTBYTES;
+            assertEquals("frame " + i, full, reset);
+            if (reset) {
+                this.held.clear();
+                this.heldBytes = 0;
+                this.resets++;
+            }
+            for (String added : list) {
+                if (added != null && this.held.add(added)) {
+                    this.heldBytes += added.getBytes("UTF-8").length;
+                }
+            }
+            assertTrue(this.held.size() <= FrameCodec.MAXDICT);
+
+            byte[] body = new byte[frame.length - FrameCodec.PREFIX];
+            System.arraycopy(frame, FrameCodec.PREFIX, body, 0, body.length);
+            ReturnCode action = new ReturnCode(0);
+            assertEquals(list, this.receiver.decode(body, action));
+            assertEquals(ReleaseServer.SCRS, action.getCode());
+            previous = s;
+        }
+    }
+}